@@ -1,5 +1,5 @@
 import { apiClient } from './client';
-import type { OrderDto, OrderQueryDto, OrderUpdateDto } from '../types';
+import type { OrderDto, OrderPageDto, OrderQueryDto, OrderUpdateDto } from '../types';
 
 export const orderApi = {
   // 查询订单列表
@@ -7,6 +7,11 @@ export const orderApi = {
     return apiClient.post<OrderDto[]>('/orders/search', query);
   },
 
+  // 分页查询订单列表
+  findOrderPage: (query: OrderQueryDto) => {
+    return apiClient.post<OrderPageDto>('/orders/search/page', query);
+  },
+
   // 根据ID获取订单详情
   getOrderById: (id: number) => {
     return apiClient.get<OrderDto>(`/orders/${id}`);
@@ -1,5 +1,5 @@
 import { apiClient } from './client';
-import type { BookingStatisticsDto, RevenueStatisticsDto, OccupancyRateDto, ReportQueryDto } from '../types';
+import type { BookingStatisticsDto, RevenueStatisticsDto, OccupancyRateDto, ReportQueryDto, ReportExportFormat, ReportExportRequestDto, ReportExportJobDto } from '../types';
 
 export const reportApi = {
   // 获取预订统计信息
@@ -17,25 +17,42 @@ export const reportApi = {
     return apiClient.post<OccupancyRateDto[]>('/reports/occupancy-rate-statistics', query);
   },
 
-  // 导出预订统计报表到Excel
-  exportBookingStatistics: (query: ReportQueryDto) => {
+  // 导出预订统计报表（默认Excel，format 为 csv 时导出CSV，gzip 为 true 时压缩）
+  exportBookingStatistics: (query: ReportQueryDto, format: ReportExportFormat = 'xlsx', gzip = false) => {
     return apiClient.post('/reports/export/booking-statistics', query, {
+      params: { format, gzip },
       responseType: 'blob',
     });
   },
 
-  // 导出收入统计报表到Excel
-  exportRevenueStatistics: (query: ReportQueryDto) => {
+  // 导出收入统计报表（默认Excel，format 为 csv 时导出CSV，gzip 为 true 时压缩）
+  exportRevenueStatistics: (query: ReportQueryDto, format: ReportExportFormat = 'xlsx', gzip = false) => {
     return apiClient.post('/reports/export/revenue-statistics', query, {
+      params: { format, gzip },
       responseType: 'blob',
     });
   },
 
-  // 导出入住率统计报表到Excel
-  exportOccupancyRateStatistics: (query: ReportQueryDto) => {
+  // 导出入住率统计报表（默认Excel，format 为 csv 时导出CSV，gzip 为 true 时压缩）
+  exportOccupancyRateStatistics: (query: ReportQueryDto, format: ReportExportFormat = 'xlsx', gzip = false) => {
     return apiClient.post('/reports/export/occupancy-rate-statistics', query, {
+      params: { format, gzip },
       responseType: 'blob',
     });
   },
-};
 
+  // 提交异步导出任务，相同条件的任务会复用
+  submitExport: (request: ReportExportRequestDto) => {
+    return apiClient.post<ReportExportJobDto>('/reports/exports', request);
+  },
+
+  // 查询异步导出任务状态
+  getExport: (jobId: string) => {
+    return apiClient.get<ReportExportJobDto>(`/reports/exports/${jobId}`);
+  },
+
+  // 下载异步导出任务的文件
+  downloadExport: (jobId: string) => {
+    return apiClient.get(`/reports/exports/${jobId}/file`, { responseType: 'blob' });
+  },
+};
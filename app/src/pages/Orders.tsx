@@ -14,12 +14,15 @@ import { orderApi } from '../api';
 import type { OrderDto, OrderQueryDto } from '../types';
 import { format } from 'date-fns';
 
+const PAGE_SIZE = 20;
+
 const statusMap: Record<string, { label: string; variant: 'default' | 'secondary' | 'destructive' | 'outline' }> = {
   pending: { label: '待确认', variant: 'secondary' },
   confirmed: { label: '已确认', variant: 'default' },
   checked_in: { label: '已入住', variant: 'default' },
   checked_out: { label: '已退房', variant: 'outline' },
   cancelled: { label: '已取消', variant: 'destructive' },
+  no_show: { label: '未到店', variant: 'destructive' },
 };
 
 export function Orders() {
@@ -35,11 +38,20 @@ export function Orders() {
     status: '',
   });
 
-  const loadOrders = async () => {
+  const [nextCursor, setNextCursor] = useState<string | undefined>();
+  const [total, setTotal] = useState<{ value: number; exact: boolean } | undefined>();
+  const [activeQuery, setActiveQuery] = useState<OrderQueryDto>({});
+  const [loadingMore, setLoadingMore] = useState(false);
+
+  // 查询第一页，同时获取总数
+  const loadFirstPage = async (query: OrderQueryDto) => {
     setLoading(true);
     try {
-      const response = await orderApi.findOrders({});
-      setOrders(response.data);
+      const response = await orderApi.findOrderPage({ ...query, pageSize: PAGE_SIZE, withTotal: true });
+      setActiveQuery(query);
+      setOrders(response.data.orders);
+      setNextCursor(response.data.nextCursor);
+      setTotal(response.data.total == null ? undefined : { value: response.data.total, exact: !!response.data.totalExact });
     } catch (error) {
       console.error('加载订单列表失败:', error);
     } finally {
@@ -47,22 +59,28 @@ export function Orders() {
     }
   };
 
-  useEffect(() => {
-    loadOrders();
-  }, []);
-
-  const handleSearch = async () => {
-    setLoading(true);
+  const loadMore = async () => {
+    if (!nextCursor) return;
+    setLoadingMore(true);
     try {
-      const response = await orderApi.findOrders(searchQuery);
-      setOrders(response.data);
+      const response = await orderApi.findOrderPage({ ...activeQuery, pageSize: PAGE_SIZE, cursor: nextCursor });
+      setOrders((current) => [...current, ...response.data.orders]);
+      setNextCursor(response.data.nextCursor);
     } catch (error) {
-      console.error('搜索订单失败:', error);
+      console.error('加载更多订单失败:', error);
     } finally {
-      setLoading(false);
+      setLoadingMore(false);
     }
   };
 
+  const loadOrders = () => loadFirstPage({});
+
+  useEffect(() => {
+    loadOrders();
+  }, []);
+
+  const handleSearch = () => loadFirstPage(searchQuery);
+
   const handleConfirm = async (id: number) => {
     try {
       await orderApi.confirmOrder(id);
@@ -192,6 +210,7 @@ export function Orders() {
                 <option value="checked_in">已入住</option>
                 <option value="checked_out">已退房</option>
                 <option value="cancelled">已取消</option>
+                <option value="no_show">未到店</option>
               </Select>
             </div>
           </div>
@@ -210,7 +229,11 @@ export function Orders() {
       <Card>
         <CardHeader>
           <CardTitle>订单列表</CardTitle>
-          <CardDescription>共 {orders.length} 条订单</CardDescription>
+          <CardDescription>
+            {total === undefined
+              ? `已加载 ${orders.length} 条订单`
+              : `共 ${total.exact ? '' : '约 '}${total.value} 条订单，已加载 ${orders.length} 条`}
+          </CardDescription>
         </CardHeader>
         <CardContent>
           {loading ? (
@@ -310,6 +333,13 @@ export function Orders() {
                   ))}
                 </TableBody>
               </Table>
+              {nextCursor && (
+                <div className="flex justify-center pt-4">
+                  <Button variant="outline" onClick={loadMore} disabled={loadingMore}>
+                    {loadingMore ? '加载中...' : '加载更多'}
+                  </Button>
+                </div>
+              )}
             </div>
           )}
         </CardContent>
@@ -75,6 +75,19 @@ export interface OrderQueryDto {
   checkInDateStart?: string;
   checkInDateEnd?: string;
   status?: string;
+  pageSize?: number;
+  cursor?: string;
+  withTotal?: boolean;
+  includeArchived?: boolean;
+}
+
+// 订单分页结果
+export interface OrderPageDto {
+  orders: OrderDto[];
+  nextCursor?: string;
+  hasMore: boolean;
+  total?: number;
+  totalExact?: boolean;
 }
 
 // 订单更新信息
@@ -176,6 +189,30 @@ export interface ReportQueryDto {
   endDate?: string;
 }
 
+// 报表导出格式
+export type ReportExportFormat = 'xlsx' | 'csv';
+
+// 异步导出请求（匹配后端ReportExportRequestDto）
+export interface ReportExportRequestDto {
+  report: 'booking-statistics' | 'revenue-statistics' | 'occupancy-rate-statistics';
+  format?: ReportExportFormat;
+  gzip?: boolean;
+  query: ReportQueryDto;
+}
+
+// 异步导出任务（匹配后端ReportExportJobDto）
+export interface ReportExportJobDto {
+  jobId: string;
+  report: string;
+  format: string;
+  status: 'queued' | 'running' | 'completed' | 'failed';
+  deduplicated?: boolean;
+  sizeBytes?: number;
+  error?: string;
+  createdAt: number;
+  finishedAt?: number;
+}
+
 // 预订统计（匹配后端BookingStatisticsDto）
 export interface BookingStatisticsDto {
   hotelId?: number;
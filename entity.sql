@@ -72,4 +72,135 @@ username VARCHAR(50) UNIQUE NOT NULL,
 password VARCHAR(100) NOT NULL,
 role ENUM('admin', 'staff') DEFAULT 'staff',
 created_at BIGINT DEFAULT 0
-);
\ No newline at end of file
+);
+-- 订单按房间与日期检索的索引（预订重叠检查、可用房间查询）
+CREATE INDEX idx_orders_room_dates ON orders(room_id, check_in_date, check_out_date);
+
+-- 按状态检索订单的索引（待确认订单加载、超时取消）
+CREATE INDEX idx_orders_status ON orders(status);
+
+-- 按房型检索房间的索引（房型筛选由文本索引解析后以 IN 下推）
+CREATE INDEX idx_rooms_type ON rooms(room_type);
+
+-- 按入住、退房日期检索订单的索引（前台批量办理当日入住与退房）
+CREATE INDEX idx_orders_check_in ON orders(check_in_date, status);
+CREATE INDEX idx_orders_check_out ON orders(check_out_date, status);
+
+-- 身份证号唯一（未填写的存为 NULL），新客户预订跳过查询直接插入时由唯一约束防止重复
+UPDATE customers SET id_card = NULL WHERE id_card = '';
+CREATE UNIQUE INDEX uk_customers_id_card ON customers(id_card);
+
+-- 订单读模型：订单连同客户、房间、酒店信息展开为一行，订单查询只需单表按索引读取。
+-- 与订单、客户、酒店的写入在同一事务中更新
+CREATE TABLE order_views (
+id INT PRIMARY KEY,
+order_number VARCHAR(50) NOT NULL,
+customer_id INT NOT NULL,
+customer_name VARCHAR(100),
+customer_phone VARCHAR(20),
+customer_email VARCHAR(100),
+customer_id_card VARCHAR(50),
+room_id INT NOT NULL,
+room_type VARCHAR(50),
+room_number VARCHAR(20),
+hotel_id INT,
+hotel_name VARCHAR(100),
+hotel_address VARCHAR(200),
+check_in_date DATE NOT NULL,
+check_out_date DATE NOT NULL,
+total_amount DECIMAL(10,2) NOT NULL,
+status ENUM('pending', 'confirmed', 'checked_in', 'checked_out', 'cancelled') DEFAULT 'pending',
+created_at BIGINT DEFAULT 0,
+UNIQUE KEY uk_order_views_number (order_number),
+-- 订单列表按 (created_at, id) 倒序键集分页（InnoDB 二级索引自带主键）
+KEY idx_order_views_created_at (created_at),
+KEY idx_order_views_status_created_at (status, created_at),
+KEY idx_order_views_customer (customer_id, created_at),
+KEY idx_order_views_hotel (hotel_id, created_at)
+);
+
+INSERT INTO order_views (id, order_number, customer_id, customer_name, customer_phone, customer_email, customer_id_card,
+room_id, room_type, room_number, hotel_id, hotel_name, hotel_address,
+check_in_date, check_out_date, total_amount, status, created_at)
+SELECT o.id, o.order_number, o.customer_id, c.name, c.phone, c.email, c.id_card,
+o.room_id, r.room_type, r.room_number, h.id, h.name, h.address,
+o.check_in_date, o.check_out_date, o.total_amount, o.status, o.created_at
+FROM orders o
+LEFT JOIN customers c ON o.customer_id = c.id
+LEFT JOIN rooms r ON o.room_id = r.id
+LEFT JOIN hotels h ON r.hotel_id = h.id;
+
+-- 订单归档表：已退房或已取消、且退房日期早于保留期限的订单由后台任务分批从 orders 移入，
+-- 按客户、入住日期或创建时间查询历史且范围早于归档水位时才合并读取
+CREATE TABLE orders_archive (
+id INT PRIMARY KEY,
+order_number VARCHAR(50) NOT NULL,
+customer_id INT NOT NULL,
+room_id INT NOT NULL,
+check_in_date DATE NOT NULL,
+check_out_date DATE NOT NULL,
+total_amount DECIMAL(10,2) NOT NULL,
+status ENUM('pending', 'confirmed', 'checked_in', 'checked_out', 'cancelled') DEFAULT 'pending',
+created_at BIGINT DEFAULT 0,
+archived_at BIGINT DEFAULT 0,
+UNIQUE KEY uk_orders_archive_number (order_number),
+KEY idx_orders_archive_customer (customer_id, created_at),
+KEY idx_orders_archive_check_in (check_in_date),
+KEY idx_orders_archive_created_at (created_at)
+);
+
+-- 未到店状态：到店日已过仍未入住的已确认订单由夜审标记
+ALTER TABLE orders MODIFY status ENUM('pending', 'confirmed', 'checked_in', 'checked_out', 'cancelled', 'no_show') DEFAULT 'pending';
+ALTER TABLE order_views MODIFY status ENUM('pending', 'confirmed', 'checked_in', 'checked_out', 'cancelled', 'no_show') DEFAULT 'pending';
+ALTER TABLE orders_archive MODIFY status ENUM('pending', 'confirmed', 'checked_in', 'checked_out', 'cancelled', 'no_show') DEFAULT 'pending';
+
+-- 酒店每日快照：夜审按营业日写入到店、离店、在住、未到店订单数与当晚房费收入
+CREATE TABLE daily_hotel_snapshots (
+hotel_id INT NOT NULL,
+business_date DATE NOT NULL,
+arrivals INT DEFAULT 0,
+departures INT DEFAULT 0,
+in_house INT DEFAULT 0,
+no_shows INT DEFAULT 0,
+revenue DECIMAL(12,2) DEFAULT 0,
+created_at BIGINT DEFAULT 0,
+PRIMARY KEY (hotel_id, business_date),
+KEY idx_daily_hotel_snapshots_date (business_date)
+);
+
+-- 夜审进度：按酒店ID顺序处理，每处理完一家酒店记录检查点，中断后从检查点之后的酒店继续
+CREATE TABLE night_audit_runs (
+business_date DATE PRIMARY KEY,
+status ENUM('running', 'completed', 'failed') DEFAULT 'running',
+last_hotel_id INT,
+hotels_processed INT DEFAULT 0,
+orders_processed INT DEFAULT 0,
+no_shows INT DEFAULT 0,
+started_at BIGINT DEFAULT 0,
+finished_at BIGINT DEFAULT 0
+);
+
+-- 房间占用改由有效订单的入住区间推导，房间状态只保留维修标记
+UPDATE rooms SET status = 'available' WHERE status = 'occupied';
+ALTER TABLE rooms MODIFY status ENUM('available', 'maintenance') DEFAULT 'available';
+
+-- 订单日汇总：按 (酒店, 下单日, 订单状态) 记录订单数与金额，订单新增或状态变更时在同一事务内增减，
+-- 预订与收入报表按日汇总求和，无需扫描订单表；归档不影响汇总
+CREATE TABLE order_daily_rollups (
+hotel_id INT NOT NULL,
+day DATE NOT NULL,
+status ENUM('pending', 'confirmed', 'checked_in', 'checked_out', 'cancelled', 'no_show') NOT NULL,
+order_count INT DEFAULT 0,
+total_amount DECIMAL(14,2) DEFAULT 0,
+PRIMARY KEY (hotel_id, day, status),
+KEY idx_order_daily_rollups_day (day)
+);
+
+-- 由现有订单（含已归档订单）生成日汇总，下单日按数据库会话时区换算，应与应用时区一致
+INSERT INTO order_daily_rollups (hotel_id, day, status, order_count, total_amount)
+SELECT r.hotel_id, DATE(FROM_UNIXTIME(o.created_at)), o.status, COUNT(*), SUM(o.total_amount)
+FROM (SELECT room_id, status, total_amount, created_at FROM orders
+      UNION ALL
+      SELECT room_id, status, total_amount, created_at FROM orders_archive) o
+JOIN rooms r ON r.id = o.room_id
+GROUP BY r.hotel_id, DATE(FROM_UNIXTIME(o.created_at)), o.status;
@@ -2,13 +2,23 @@ package org.example.hotelmanagementsystem.controller;
 
 import org.example.hotelmanagementsystem.dto.BookingQueryDto;
 import org.example.hotelmanagementsystem.dto.AvailableRoomDto;
+import org.example.hotelmanagementsystem.dto.AvailableRoomPageDto;
 import org.example.hotelmanagementsystem.dto.BookingRequestDto;
 import org.example.hotelmanagementsystem.dto.BookingResultDto;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.hotelmanagementsystem.service.AsyncBookingService;
 import org.example.hotelmanagementsystem.service.BookingService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/bookings")
@@ -16,6 +26,13 @@ public class BookingController {
     
     @Autowired
     private BookingService bookingService;
+    @Autowired
+    private AsyncBookingService asyncBookingService;
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    // 流式输出时每写出多少个房间刷新一次响应
+    private static final int STREAM_FLUSH_ROWS = 100;
     
     /**
      * 查询可用房间
@@ -27,6 +44,47 @@ public class BookingController {
         return bookingService.findAvailableRooms(query);
     }
     
+    /**
+     * 分页查询可用房间
+     * @param query 查询条件（pageSize、cursor）
+     * @return 可用房间分页结果
+     */
+    @PostMapping("/search/page")
+    public AvailableRoomPageDto findAvailableRoomPage(@RequestBody BookingQueryDto query) {
+        return bookingService.findAvailableRoomPage(query);
+    }
+    
+    /**
+     * 流式查询可用房间，边查询边输出JSON数组，前端可在收到首批数据后即开始渲染
+     * @param query 查询条件
+     * @return 流式响应
+     */
+    @PostMapping("/search/stream")
+    public ResponseEntity<StreamingResponseBody> streamAvailableRooms(@RequestBody BookingQueryDto query) {
+        StreamingResponseBody body = outputStream -> {
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+            generator.writeStartArray();
+            int[] written = {0};
+            try {
+                bookingService.streamAvailableRooms(query, room -> {
+                    try {
+                        generator.writeObject(room);
+                        if (++written[0] % STREAM_FLUSH_ROWS == 0) {
+                            generator.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            generator.writeEndArray();
+            generator.close();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+    
     /**
      * 预订房间
      * @param bookingRequest 预订请求
@@ -40,4 +98,32 @@ public class BookingController {
             throw new RuntimeException("预订失败: " + e.getMessage());
         }
     }
+    
+    /**
+     * 异步预订房间，请求进入写入队列，与其他预订合并为一次提交后返回
+     * @param bookingRequest 预订请求
+     * @return 预订结果（失败时状态为 failed 并附带原因）
+     */
+    @PostMapping("/async")
+    public CompletableFuture<BookingResultDto> bookRoomAsync(@RequestBody BookingRequestDto bookingRequest) {
+        try {
+            return asyncBookingService.submit(bookingRequest);
+        } catch (Exception e) {
+            throw new RuntimeException("预订失败: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * 批量预订房间
+     * @param bookingRequests 预订请求列表
+     * @return 每个预订请求对应的结果
+     */
+    @PostMapping("/batch")
+    public List<BookingResultDto> bookRooms(@RequestBody List<BookingRequestDto> bookingRequests) {
+        try {
+            return bookingService.bookRooms(bookingRequests);
+        } catch (Exception e) {
+            throw new RuntimeException("批量预订失败: " + e.getMessage());
+        }
+    }
 }
\ No newline at end of file
@@ -2,6 +2,8 @@ package org.example.hotelmanagementsystem.controller;
 
 import org.example.hotelmanagementsystem.entity.Hotel;
 import org.example.hotelmanagementsystem.dto.HotelDto;
+import org.example.hotelmanagementsystem.dto.InventoryDto;
+import org.example.hotelmanagementsystem.dto.RoomOccupancyDto;
 import org.example.hotelmanagementsystem.service.HotelService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
@@ -63,4 +65,38 @@ public class HotelController {
     public List<Hotel> searchHotelsByName(@RequestParam String name) {
         return hotelService.getHotelsByName(name);
     }
-}
\ No newline at end of file
+    
+    /**
+     * 查询酒店各房型每晚的可售房间数
+     * @param id 酒店ID
+     * @param from 起始日期（含，默认当天）
+     * @param to 结束日期（不含，默认起始日期后90天）
+     * @return 房型库存表
+     */
+    @GetMapping("/{id}/inventory")
+    public InventoryDto getInventory(@PathVariable Integer id,
+                                     @RequestParam(required = false) String from,
+                                     @RequestParam(required = false) String to) {
+        try {
+            return hotelService.getInventory(id, from, to);
+        } catch (Exception e) {
+            throw new RuntimeException("查询库存失败: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * 查询酒店各房间当晚的占用情况（已入住、已预订、空闲、维修中）
+     * @param id 酒店ID
+     * @param date 日期（默认当天）
+     * @return 房间占用列表
+     */
+    @GetMapping("/{id}/occupancy")
+    public List<RoomOccupancyDto> getRoomOccupancy(@PathVariable Integer id,
+                                                   @RequestParam(required = false) String date) {
+        try {
+            return hotelService.getRoomOccupancy(id, date);
+        } catch (Exception e) {
+            throw new RuntimeException("查询房间占用失败: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package org.example.hotelmanagementsystem.controller;
+
+import org.example.hotelmanagementsystem.service.AsyncBookingService;
+import org.example.hotelmanagementsystem.service.BookingHoldService;
+import org.example.hotelmanagementsystem.service.CustomerIdentityCache;
+import org.example.hotelmanagementsystem.service.NightAuditJob;
+import org.example.hotelmanagementsystem.service.OrderArchiveJob;
+import org.example.hotelmanagementsystem.service.OrderDetailCache;
+import org.example.hotelmanagementsystem.service.OrderEventJournal;
+import org.example.hotelmanagementsystem.service.ReportExportService;
+import org.example.hotelmanagementsystem.service.SearchResultCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/metrics")
+public class MetricsController {
+    
+    @Autowired
+    private BookingHoldService bookingHoldService;
+    @Autowired
+    private SearchResultCache searchResultCache;
+    @Autowired
+    private CustomerIdentityCache customerIdentityCache;
+    @Autowired
+    private AsyncBookingService asyncBookingService;
+    @Autowired
+    private OrderDetailCache orderDetailCache;
+    @Autowired
+    private OrderEventJournal orderEventJournal;
+    @Autowired
+    private OrderArchiveJob orderArchiveJob;
+    @Autowired
+    private NightAuditJob nightAuditJob;
+    @Autowired
+    private ReportExportService reportExportService;
+    
+    /**
+     * 获取待确认订单超时取消的运行指标
+     * @return 指标名称与数值
+     */
+    @GetMapping("/holds")
+    public Map<String, Object> getHoldMetrics() {
+        return bookingHoldService.getMetrics();
+    }
+    
+    /**
+     * 获取可用房间查询缓存的命中、未命中与淘汰计数
+     * @return 指标名称与数值
+     */
+    @GetMapping("/search-cache")
+    public Map<String, Object> getSearchCacheMetrics() {
+        return searchResultCache.getMetrics();
+    }
+    
+    /**
+     * 获取客户身份缓存的命中与布隆过滤器计数
+     * @return 指标名称与数值
+     */
+    @GetMapping("/customer-cache")
+    public Map<String, Object> getCustomerCacheMetrics() {
+        return customerIdentityCache.getMetrics();
+    }
+    
+    /**
+     * 获取异步预订队列与批次写入的运行指标
+     * @return 指标名称与数值
+     */
+    @GetMapping("/async-booking")
+    public Map<String, Object> getAsyncBookingMetrics() {
+        return asyncBookingService.getMetrics();
+    }
+    
+    /**
+     * 获取订单详情缓存的命中、未命中与失效计数
+     * @return 指标名称与数值
+     */
+    @GetMapping("/order-cache")
+    public Map<String, Object> getOrderCacheMetrics() {
+        return orderDetailCache.getMetrics();
+    }
+    
+    /**
+     * 获取订单状态变更日志的写入与刷盘计数
+     * @return 指标名称与数值
+     */
+    @GetMapping("/order-journal")
+    public Map<String, Object> getOrderJournalMetrics() {
+        return orderEventJournal.getMetrics();
+    }
+    
+    /**
+     * 获取订单归档任务的运行指标与归档水位
+     * @return 指标名称与数值
+     */
+    @GetMapping("/order-archive")
+    public Map<String, Object> getOrderArchiveMetrics() {
+        return orderArchiveJob.getMetrics();
+    }
+    
+    /**
+     * 获取夜审的进度与耗时
+     * @return 指标名称与数值
+     */
+    @GetMapping("/night-audit")
+    public Map<String, Object> getNightAuditMetrics() {
+        return nightAuditJob.getMetrics();
+    }
+    
+    /**
+     * 获取报表异步导出的队列与文件缓存指标
+     * @return 指标名称与数值
+     */
+    @GetMapping("/report-exports")
+    public Map<String, Object> getReportExportMetrics() {
+        return reportExportService.getMetrics();
+    }
+}
@@ -1,8 +1,14 @@
 package org.example.hotelmanagementsystem.controller;
 
+import org.example.hotelmanagementsystem.dto.BulkTransitionRequestDto;
 import org.example.hotelmanagementsystem.dto.OrderDto;
+import org.example.hotelmanagementsystem.dto.OrderPageDto;
 import org.example.hotelmanagementsystem.dto.OrderQueryDto;
+import org.example.hotelmanagementsystem.dto.OrderStatusChangeDto;
+import org.example.hotelmanagementsystem.dto.OrderTransitionItemDto;
+import org.example.hotelmanagementsystem.dto.OrderTransitionResultDto;
 import org.example.hotelmanagementsystem.dto.OrderUpdateDto;
+import org.example.hotelmanagementsystem.exception.OrderStateConflictException;
 import org.example.hotelmanagementsystem.service.OrderService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
@@ -26,6 +32,16 @@ public class OrderController {
         return orderService.findOrders(query);
     }
     
+    /**
+     * 分页查询订单列表（按创建时间倒序）
+     * @param query 查询条件（pageSize、cursor、withTotal）
+     * @return 订单分页结果
+     */
+    @PostMapping("/search/page")
+    public OrderPageDto findOrderPage(@RequestBody OrderQueryDto query) {
+        return orderService.findOrderPage(query);
+    }
+    
     /**
      * 根据ID获取订单详情
      * @param id 订单ID
@@ -36,6 +52,28 @@ public class OrderController {
         return orderService.getOrderById(id);
     }
     
+    /**
+     * 查询订单的状态变更记录
+     * @param id 订单ID
+     * @return 状态变更记录，按时间先后排列
+     */
+    @GetMapping("/{id}/history")
+    public List<OrderStatusChangeDto> getOrderHistory(@PathVariable Integer id) {
+        return orderService.getOrderHistory(id);
+    }
+    
+    /**
+     * 查询时间段内的订单状态变更记录
+     * @param from 起始时间（毫秒时间戳，默认为结束时间前 24 小时）
+     * @param to 结束时间（毫秒时间戳，默认为当前时间）
+     * @return 状态变更记录，按时间先后排列
+     */
+    @GetMapping("/history")
+    public List<OrderStatusChangeDto> findStatusChanges(@RequestParam(required = false) Long from,
+                                                        @RequestParam(required = false) Long to) {
+        return orderService.findStatusChanges(from, to);
+    }
+    
     /**
      * 更新订单信息
      * @param orderUpdateDto 订单更新信息
@@ -59,6 +97,8 @@ public class OrderController {
     public boolean confirmOrder(@PathVariable Integer id) {
         try {
             return orderService.confirmOrder(id);
+        } catch (OrderStateConflictException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("确认订单失败: " + e.getMessage());
         }
@@ -73,6 +113,8 @@ public class OrderController {
     public boolean cancelOrder(@PathVariable Integer id) {
         try {
             return orderService.cancelOrder(id);
+        } catch (OrderStateConflictException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("取消订单失败: " + e.getMessage());
         }
@@ -87,6 +129,8 @@ public class OrderController {
     public boolean checkInOrder(@PathVariable Integer id) {
         try {
             return orderService.checkInOrder(id);
+        } catch (OrderStateConflictException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("办理入住失败: " + e.getMessage());
         }
@@ -101,8 +145,53 @@ public class OrderController {
     public boolean checkOutOrder(@PathVariable Integer id) {
         try {
             return orderService.checkOutOrder(id);
+        } catch (OrderStateConflictException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("办理退房失败: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+    
+    /**
+     * 批量流转订单状态
+     * @param action 操作名（confirm、cancel、check-in、check-out）
+     * @param ids 订单ID列表
+     * @return 完成与跳过的订单
+     */
+    @PutMapping("/batch/{action}")
+    public OrderTransitionResultDto transitionOrders(@PathVariable String action, @RequestBody List<Integer> ids) {
+        try {
+            return orderService.transitionOrders(action, ids);
+        } catch (Exception e) {
+            throw new RuntimeException("批量处理订单失败: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * 批量办理入住
+     * @param request 订单ID列表，或酒店ID与日期（处理当日全部到店订单）
+     * @return 每个订单的处理结果
+     */
+    @PostMapping("/check-in/bulk")
+    public List<OrderTransitionItemDto> bulkCheckIn(@RequestBody BulkTransitionRequestDto request) {
+        try {
+            return orderService.bulkCheckIn(request);
+        } catch (Exception e) {
+            throw new RuntimeException("批量办理入住失败: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * 批量办理退房
+     * @param request 订单ID列表，或酒店ID与日期（处理当日全部离店订单）
+     * @return 每个订单的处理结果
+     */
+    @PostMapping("/check-out/bulk")
+    public List<OrderTransitionItemDto> bulkCheckOut(@RequestBody BulkTransitionRequestDto request) {
+        try {
+            return orderService.bulkCheckOut(request);
+        } catch (Exception e) {
+            throw new RuntimeException("批量办理退房失败: " + e.getMessage());
+        }
+    }
+}
@@ -3,16 +3,18 @@ package org.example.hotelmanagementsystem.controller;
 import org.example.hotelmanagementsystem.dto.BookingStatisticsDto;
 import org.example.hotelmanagementsystem.dto.RevenueStatisticsDto;
 import org.example.hotelmanagementsystem.dto.OccupancyRateDto;
+import org.example.hotelmanagementsystem.dto.ReportExportJobDto;
+import org.example.hotelmanagementsystem.dto.ReportExportRequestDto;
 import org.example.hotelmanagementsystem.dto.ReportQueryDto;
+import org.example.hotelmanagementsystem.service.ReportExportService;
 import org.example.hotelmanagementsystem.service.ReportService;
+import org.example.hotelmanagementsystem.util.ReportFormat;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
-import javax.servlet.http.HttpServletResponse;
-import java.io.File;
-import java.io.FileInputStream;
+import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.io.OutputStream;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -22,6 +24,9 @@ public class ReportController {
     @Autowired
     private ReportService reportService;
     
+    @Autowired
+    private ReportExportService reportExportService;
+    
     /**
      * 获取预订统计信息
      * @param query 查询条件
@@ -53,78 +58,126 @@ public class ReportController {
     }
     
     /**
-     * 导出预订统计报表到Excel
+     * 导出预订统计报表，边查询边写入响应
      * @param query 查询条件
+     * @param format 导出格式（xlsx 或 csv，默认 xlsx）
+     * @param gzip 是否以 gzip 压缩（仅对 csv 生效）
      * @param response HTTP响应
      * @throws IOException IO异常
      */
     @PostMapping("/export/booking-statistics")
-    public void exportBookingStatisticsToExcel(@RequestBody ReportQueryDto query, HttpServletResponse response) throws IOException {
+    public void exportBookingStatistics(@RequestBody ReportQueryDto query,
+                                        @RequestParam(defaultValue = "xlsx") String format,
+                                        @RequestParam(defaultValue = "false") boolean gzip,
+                                        HttpServletResponse response) throws IOException {
         try {
-            String filePath = reportService.exportBookingStatisticsToExcel(query);
-            downloadFile(filePath, response);
+            ReportFormat reportFormat = ReportFormat.of(format, gzip);
+            prepareDownload(response, "booking_statistics", reportFormat);
+            reportService.exportBookingStatistics(query, reportFormat, response.getOutputStream());
         } catch (Exception e) {
             throw new RuntimeException("导出预订统计报表失败: " + e.getMessage());
         }
     }
     
     /**
-     * 导出收入统计报表到Excel
+     * 导出收入统计报表，边查询边写入响应
      * @param query 查询条件
+     * @param format 导出格式（xlsx 或 csv，默认 xlsx）
+     * @param gzip 是否以 gzip 压缩（仅对 csv 生效）
      * @param response HTTP响应
      * @throws IOException IO异常
      */
     @PostMapping("/export/revenue-statistics")
-    public void exportRevenueStatisticsToExcel(@RequestBody ReportQueryDto query, HttpServletResponse response) throws IOException {
+    public void exportRevenueStatistics(@RequestBody ReportQueryDto query,
+                                        @RequestParam(defaultValue = "xlsx") String format,
+                                        @RequestParam(defaultValue = "false") boolean gzip,
+                                        HttpServletResponse response) throws IOException {
         try {
-            String filePath = reportService.exportRevenueStatisticsToExcel(query);
-            downloadFile(filePath, response);
+            ReportFormat reportFormat = ReportFormat.of(format, gzip);
+            prepareDownload(response, "revenue_statistics", reportFormat);
+            reportService.exportRevenueStatistics(query, reportFormat, response.getOutputStream());
         } catch (Exception e) {
             throw new RuntimeException("导出收入统计报表失败: " + e.getMessage());
         }
     }
     
     /**
-     * 导出入住率统计报表到Excel
+     * 导出入住率统计报表，边查询边写入响应
      * @param query 查询条件
+     * @param format 导出格式（xlsx 或 csv，默认 xlsx）
+     * @param gzip 是否以 gzip 压缩（仅对 csv 生效）
      * @param response HTTP响应
      * @throws IOException IO异常
      */
     @PostMapping("/export/occupancy-rate-statistics")
-    public void exportOccupancyRateStatisticsToExcel(@RequestBody ReportQueryDto query, HttpServletResponse response) throws IOException {
+    public void exportOccupancyRateStatistics(@RequestBody ReportQueryDto query,
+                                              @RequestParam(defaultValue = "xlsx") String format,
+                                              @RequestParam(defaultValue = "false") boolean gzip,
+                                              HttpServletResponse response) throws IOException {
         try {
-            String filePath = reportService.exportOccupancyRateStatisticsToExcel(query);
-            downloadFile(filePath, response);
+            ReportFormat reportFormat = ReportFormat.of(format, gzip);
+            prepareDownload(response, "occupancy_rate_statistics", reportFormat);
+            reportService.exportOccupancyRateStatistics(query, reportFormat, response.getOutputStream());
         } catch (Exception e) {
             throw new RuntimeException("导出入住率统计报表失败: " + e.getMessage());
         }
     }
     
     /**
-     * 下载文件
-     * @param filePath 文件路径
+     * 提交异步导出任务，报表、格式与查询条件相同的任务只执行一次
+     * @param request 导出请求
+     * @return 任务状态
+     */
+    @PostMapping("/exports")
+    public ReportExportJobDto submitExport(@RequestBody ReportExportRequestDto request) {
+        try {
+            return reportExportService.submit(request);
+        } catch (Exception e) {
+            throw new RuntimeException("提交导出任务失败: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * 查询异步导出任务状态
+     * @param jobId 任务ID
+     * @return 任务状态
+     */
+    @GetMapping("/exports/{jobId}")
+    public ReportExportJobDto getExport(@PathVariable String jobId) {
+        return reportExportService.getJob(jobId);
+    }
+    
+    /**
+     * 下载异步导出任务的文件
+     * @param jobId 任务ID
      * @param response HTTP响应
      * @throws IOException IO异常
      */
-    private void downloadFile(String filePath, HttpServletResponse response) throws IOException {
-        File file = new File(filePath);
-        if (!file.exists()) {
-            throw new RuntimeException("文件不存在");
-        }
-        
-        response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
-        response.setHeader("Content-Disposition", "attachment; filename=" + file.getName());
-        
-        FileInputStream fis = new FileInputStream(file);
-        OutputStream os = response.getOutputStream();
-        
-        byte[] buffer = new byte[1024];
-        int bytesRead;
-        while ((bytesRead = fis.read(buffer)) != -1) {
-            os.write(buffer, 0, bytesRead);
+    @GetMapping("/exports/{jobId}/file")
+    public void downloadExport(@PathVariable String jobId, HttpServletResponse response) throws IOException {
+        try {
+            ReportExportJobDto job = reportExportService.getJob(jobId);
+            try (InputStream input = reportExportService.openFile(jobId)) {
+                response.setContentType(ReportFormat.ofExtension(job.getFormat()).getContentType());
+                response.setHeader("Content-Disposition", "attachment; filename=" + job.getReport().replace('-', '_') + "_" + job.getJobId() + "." + job.getFormat());
+                if (job.getSizeBytes() != null) {
+                    response.setContentLengthLong(job.getSizeBytes());
+                }
+                input.transferTo(response.getOutputStream());
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("下载导出文件失败: " + e.getMessage());
         }
-        
-        fis.close();
-        os.close();
     }
-}
\ No newline at end of file
+    
+    /**
+     * 设置下载响应头；不设置内容长度，响应以分块传输编码边生成边发送
+     * @param response HTTP响应
+     * @param prefix 文件名前缀
+     * @param format 导出格式
+     */
+    private void prepareDownload(HttpServletResponse response, String prefix, ReportFormat format) {
+        response.setContentType(format.getContentType());
+        response.setHeader("Content-Disposition", "attachment; filename=" + prefix + "_" + System.currentTimeMillis() + "." + format.getExtension());
+    }
+}
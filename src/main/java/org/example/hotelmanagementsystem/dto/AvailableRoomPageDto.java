@@ -0,0 +1,14 @@
+package org.example.hotelmanagementsystem.dto;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class AvailableRoomPageDto {
+    // 本页可用房间
+    private List<AvailableRoomDto> rooms;
+    // 下一页游标（没有更多数据时为 null）
+    private String nextCursor;
+    // 是否还有下一页
+    private Boolean hasMore;
+}
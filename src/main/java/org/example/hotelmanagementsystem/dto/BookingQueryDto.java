@@ -14,4 +14,8 @@ public class BookingQueryDto {
     private String roomType;
     // 酒店名称
     private String hotelName;
+    // 每页数量（分页查询时使用）
+    private Integer pageSize;
+    // 分页游标（上一页返回的 nextCursor，查询第一页时为空）
+    private String cursor;
 }
\ No newline at end of file
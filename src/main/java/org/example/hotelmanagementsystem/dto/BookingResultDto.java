@@ -18,6 +18,8 @@ public class BookingResultDto {
     private String checkOutDate;
     // 总金额
     private java.math.BigDecimal totalAmount;
-    // 订单状态
+    // 订单状态（批量预订中失败的项为 failed）
     private String status;
+    // 失败原因
+    private String message;
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package org.example.hotelmanagementsystem.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkTransitionRequestDto {
+    // 订单ID列表（指定时忽略酒店与日期条件）
+    private List<Integer> orderIds;
+    // 酒店ID（未指定订单ID时，处理该酒店当日全部待入住或待退房订单）
+    private Integer hotelId;
+    // 入住或退房日期（默认当天）
+    private String date;
+}
@@ -0,0 +1,28 @@
+package org.example.hotelmanagementsystem.dto;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class InventoryDto {
+    // 酒店ID
+    private Integer hotelId;
+    // 起始日期（含）
+    private String from;
+    // 结束日期（不含）
+    private String to;
+    // 日期列表，与各房型的 available 一一对应
+    private List<String> dates;
+    // 各房型库存
+    private List<RoomTypeInventoryDto> roomTypes;
+    
+    @Data
+    public static class RoomTypeInventoryDto {
+        // 房型名称
+        private String roomType;
+        // 可售房间总数（不含维修中的房间）
+        private Integer totalRooms;
+        // 每晚可售房间数
+        private int[] available;
+    }
+}
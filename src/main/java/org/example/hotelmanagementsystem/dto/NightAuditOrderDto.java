@@ -0,0 +1,23 @@
+package org.example.hotelmanagementsystem.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class NightAuditOrderDto {
+    // 订单ID
+    private Integer id;
+    // 房间ID
+    private Integer roomId;
+    // 酒店ID
+    private Integer hotelId;
+    // 入住日期
+    private String checkInDate;
+    // 退房日期
+    private String checkOutDate;
+    // 总金额
+    private BigDecimal totalAmount;
+    // 订单状态
+    private String status;
+}
@@ -0,0 +1,18 @@
+package org.example.hotelmanagementsystem.dto;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class OrderPageDto {
+    // 本页订单
+    private List<OrderDto> orders;
+    // 下一页游标（没有更多数据时为 null）
+    private String nextCursor;
+    // 是否还有下一页
+    private Boolean hasMore;
+    // 符合条件的订单总数（未要求返回总数时为 null）
+    private Long total;
+    // 总数是否精确（false 表示为估算值）
+    private Boolean totalExact;
+}
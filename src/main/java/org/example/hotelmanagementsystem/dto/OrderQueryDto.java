@@ -24,4 +24,12 @@ public class OrderQueryDto {
     private String checkInDateEnd;
     // 订单状态
     private String status;
-}
\ No newline at end of file
+    // 每页数量（分页查询时使用）
+    private Integer pageSize;
+    // 分页游标（上一页返回的 nextCursor，查询第一页时为空）
+    private String cursor;
+    // 是否返回估算的总数（分页查询时使用）
+    private Boolean withTotal;
+    // 是否包含已归档的订单（未指定时仅在按订单ID、编号查询或入住日期下限早于归档水位时包含）
+    private Boolean includeArchived;
+}
@@ -0,0 +1,19 @@
+package org.example.hotelmanagementsystem.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class OrderRollupDeltaDto {
+    // 房间ID（写入时换算为酒店ID）
+    private Integer roomId;
+    // 下单日期
+    private String day;
+    // 订单状态
+    private String status;
+    // 订单数增量
+    private Integer orderCount;
+    // 金额增量
+    private BigDecimal totalAmount;
+}
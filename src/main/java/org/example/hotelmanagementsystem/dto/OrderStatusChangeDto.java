@@ -0,0 +1,17 @@
+package org.example.hotelmanagementsystem.dto;
+
+import lombok.Data;
+
+@Data
+public class OrderStatusChangeDto {
+    // 订单ID
+    private Integer orderId;
+    // 变更前状态（新建订单为 null）
+    private String fromStatus;
+    // 变更后状态
+    private String toStatus;
+    // 变更时间（毫秒时间戳）
+    private Long changedAt;
+    // 操作人（请求头 X-Operator，未提供时为 api；定时任务等后台操作为 system）
+    private String actor;
+}
@@ -0,0 +1,19 @@
+package org.example.hotelmanagementsystem.dto;
+
+import lombok.Data;
+
+@Data
+public class OrderTransitionItemDto {
+    // 订单ID
+    private Integer orderId;
+    // 订单编号
+    private String orderNumber;
+    // 房间ID
+    private Integer roomId;
+    // 处理结果（success:已处理, skipped:订单不存在或状态不允许, failed:处理出错）
+    private String result;
+    // 订单当前状态
+    private String status;
+    // 说明
+    private String message;
+}
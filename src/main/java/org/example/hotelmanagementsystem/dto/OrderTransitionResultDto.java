@@ -0,0 +1,17 @@
+package org.example.hotelmanagementsystem.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class OrderTransitionResultDto {
+    // 操作名
+    private String action;
+    // 目标状态
+    private String status;
+    // 完成流转的订单ID
+    private List<Integer> transitioned;
+    // 未流转的订单ID（订单不存在或当前状态不允许该操作）
+    private List<Integer> skipped;
+}
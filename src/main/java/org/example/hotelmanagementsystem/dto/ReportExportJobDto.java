@@ -0,0 +1,25 @@
+package org.example.hotelmanagementsystem.dto;
+
+import lombok.Data;
+
+@Data
+public class ReportExportJobDto {
+    // 任务ID
+    private String jobId;
+    // 报表
+    private String report;
+    // 文件扩展名（xlsx、csv、csv.gz）
+    private String format;
+    // 任务状态（queued:排队中, running:导出中, completed:已完成, failed:失败）
+    private String status;
+    // 本次提交是否复用了查询条件相同的任务
+    private Boolean deduplicated;
+    // 文件大小（字节，完成后才有值）
+    private Long sizeBytes;
+    // 失败原因
+    private String error;
+    // 提交时间 (秒级时间戳)
+    private Long createdAt;
+    // 完成时间 (秒级时间戳)
+    private Long finishedAt;
+}
@@ -0,0 +1,15 @@
+package org.example.hotelmanagementsystem.dto;
+
+import lombok.Data;
+
+@Data
+public class ReportExportRequestDto {
+    // 报表（booking-statistics:预订统计, revenue-statistics:收入统计, occupancy-rate-statistics:入住率统计）
+    private String report;
+    // 导出格式（xlsx 或 csv，默认 xlsx）
+    private String format;
+    // 是否以 gzip 压缩（仅对 csv 生效）
+    private boolean gzip;
+    // 查询条件
+    private ReportQueryDto query;
+}
@@ -0,0 +1,23 @@
+package org.example.hotelmanagementsystem.dto;
+
+import lombok.Data;
+
+@Data
+public class RoomOccupancyDto {
+    // 房间ID
+    private Integer roomId;
+    // 房间号
+    private String roomNumber;
+    // 房间类型
+    private String roomType;
+    // 当晚状态（occupied:已入住, reserved:已预订未入住, available:空闲, maintenance:维修中）
+    private String status;
+    // 占用该房间的订单ID（空闲或维修中为 null）
+    private Integer orderId;
+    // 订单状态
+    private String orderStatus;
+    // 入住日期
+    private String checkInDate;
+    // 退房日期
+    private String checkOutDate;
+}
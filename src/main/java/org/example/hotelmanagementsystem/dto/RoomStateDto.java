@@ -0,0 +1,24 @@
+package org.example.hotelmanagementsystem.dto;
+
+import lombok.Data;
+import java.math.BigDecimal;
+
+@Data
+public class RoomStateDto {
+    // 房间ID
+    private Integer id;
+    // 酒店ID
+    private Integer hotelId;
+    // 酒店名称
+    private String hotelName;
+    // 酒店地址
+    private String hotelAddress;
+    // 房间类型
+    private String roomType;
+    // 房间号
+    private String roomNumber;
+    // 价格
+    private BigDecimal price;
+    // 房间状态（available:可售, maintenance:维修中；是否被占用由有效订单推导）
+    private String status;
+}
@@ -0,0 +1,25 @@
+package org.example.hotelmanagementsystem.entity;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class DailyHotelSnapshot {
+    // 酒店ID
+    private Integer hotelId;
+    // 营业日
+    private String businessDate;
+    // 当日到店（已入住或已退房）的订单数
+    private Integer arrivals = 0;
+    // 当日离店的订单数
+    private Integer departures = 0;
+    // 当晚在住的订单数
+    private Integer inHouse = 0;
+    // 当日标记为未到店的订单数
+    private Integer noShows = 0;
+    // 当晚房费收入（在住订单总金额按晚数均摊）
+    private BigDecimal revenue = BigDecimal.ZERO;
+    // 创建时间 (秒级时间戳)
+    private Long createdAt;
+}
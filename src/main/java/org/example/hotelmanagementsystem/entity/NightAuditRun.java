@@ -0,0 +1,23 @@
+package org.example.hotelmanagementsystem.entity;
+
+import lombok.Data;
+
+@Data
+public class NightAuditRun {
+    // 营业日
+    private String businessDate;
+    // 状态（running:进行中, completed:已完成, failed:失败）
+    private String status;
+    // 最后一家处理完成的酒店ID（检查点）
+    private Integer lastHotelId;
+    // 已处理的酒店数
+    private Integer hotelsProcessed;
+    // 已处理的订单数
+    private Integer ordersProcessed;
+    // 已标记未到店的订单数
+    private Integer noShows;
+    // 开始时间 (秒级时间戳)
+    private Long startedAt;
+    // 结束时间 (秒级时间戳)
+    private Long finishedAt;
+}
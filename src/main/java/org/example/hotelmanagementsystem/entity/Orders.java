@@ -18,7 +18,7 @@ public class Orders {
     private String checkOutDate;
     // 总金额
     private java.math.BigDecimal totalAmount;
-    // 订单状态（pending:待确认, confirmed:已确认, checked_in:已入住, checked_out:已退房, cancelled:已取消）
+    // 订单状态（pending:待确认, confirmed:已确认, checked_in:已入住, checked_out:已退房, cancelled:已取消, no_show:未到店）
     private String status = "pending";
     // 创建时间 (秒级时间戳)
     private Long createdAt;
@@ -14,7 +14,7 @@ public class Room {
     private String roomNumber;
     // 价格
     private java.math.BigDecimal price;
-    // 状态（available:空闲, occupied:已入住, maintenance:维修中）
+    // 状态（available:可售, maintenance:维修中；是否被占用由有效订单推导）
     private String status = "available";
     // 创建时间 (秒级时间戳)
     private Long createdAt;
@@ -0,0 +1,21 @@
+package org.example.hotelmanagementsystem.event;
+
+import org.example.hotelmanagementsystem.entity.Customer;
+
+/**
+ * 客户变更事件
+ * 客户新增或修改后发布，由客户身份缓存在事务提交后消费
+ */
+public class CustomerChangedEvent {
+    
+    // 变更后的客户快照（修改时未变更的字段可能为空）
+    private final Customer customer;
+    
+    public CustomerChangedEvent(Customer customer) {
+        this.customer = customer;
+    }
+    
+    public Customer getCustomer() {
+        return customer;
+    }
+}
@@ -0,0 +1,19 @@
+package org.example.hotelmanagementsystem.event;
+
+/**
+ * 酒店变更事件
+ * 酒店或其房间信息新增、修改后发布
+ */
+public class HotelChangedEvent {
+    
+    // 酒店ID
+    private final Integer hotelId;
+    
+    public HotelChangedEvent(Integer hotelId) {
+        this.hotelId = hotelId;
+    }
+    
+    public Integer getHotelId() {
+        return hotelId;
+    }
+}
@@ -0,0 +1,39 @@
+package org.example.hotelmanagementsystem.event;
+
+import org.example.hotelmanagementsystem.entity.Orders;
+
+/**
+ * 订单变更事件
+ * 订单创建、状态或日期变更后发布，由内存索引等组件在事务提交后消费
+ */
+public class OrderChangedEvent {
+    
+    // 变更后的订单快照
+    private final Orders order;
+    // 变更前的订单状态（新建订单为 null）
+    private final String fromStatus;
+    // 修改订单时变更前的订单快照（其他情况为 null）
+    private final Orders previous;
+    
+    public OrderChangedEvent(Orders order, String fromStatus) {
+        this(order, fromStatus, null);
+    }
+    
+    public OrderChangedEvent(Orders order, String fromStatus, Orders previous) {
+        this.order = order;
+        this.fromStatus = fromStatus;
+        this.previous = previous;
+    }
+    
+    public Orders getOrder() {
+        return order;
+    }
+    
+    public String getFromStatus() {
+        return fromStatus;
+    }
+    
+    public Orders getPrevious() {
+        return previous;
+    }
+}
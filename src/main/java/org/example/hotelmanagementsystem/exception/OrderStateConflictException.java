@@ -0,0 +1,38 @@
+package org.example.hotelmanagementsystem.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 订单状态冲突
+ * 订单当前状态不允许该操作（包括并发请求先一步改变了订单状态）时抛出，接口返回 409
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class OrderStateConflictException extends RuntimeException {
+    
+    // 订单ID
+    private final Integer orderId;
+    // 订单当前状态
+    private final String currentStatus;
+    // 目标状态
+    private final String targetStatus;
+    
+    public OrderStateConflictException(Integer orderId, String currentStatus, String targetStatus, String message) {
+        super(message);
+        this.orderId = orderId;
+        this.currentStatus = currentStatus;
+        this.targetStatus = targetStatus;
+    }
+    
+    public Integer getOrderId() {
+        return orderId;
+    }
+    
+    public String getCurrentStatus() {
+        return currentStatus;
+    }
+    
+    public String getTargetStatus() {
+        return targetStatus;
+    }
+}
@@ -1,11 +1,14 @@
 package org.example.hotelmanagementsystem.mapper;
 
 import org.apache.ibatis.annotations.*;
+import org.apache.ibatis.cursor.Cursor;
 import org.example.hotelmanagementsystem.dto.AvailableRoomDto;
+import org.example.hotelmanagementsystem.dto.RoomStateDto;
 import org.example.hotelmanagementsystem.entity.Orders;
 import org.example.hotelmanagementsystem.entity.Customer;
 import org.example.hotelmanagementsystem.entity.Room;
 import org.example.hotelmanagementsystem.entity.User;
+import java.util.Collection;
 import java.util.List;
 
 @Mapper
@@ -18,6 +21,8 @@ public interface BookingMapper {
      * @param location 地点
      * @param roomType 房间类型
      * @param hotelName 酒店名称
+     * @param hotelIds 由地点与酒店名称解析出的酒店ID（为空时按 LIKE 筛选）
+     * @param roomTypes 由房间类型解析出的房型（为空时按 LIKE 筛选）
      * @return 可用房间列表
      */
     List<AvailableRoomDto> findAvailableRooms(
@@ -25,9 +30,80 @@ public interface BookingMapper {
         @Param("checkOutDate") String checkOutDate,
         @Param("location") String location,
         @Param("roomType") String roomType,
-        @Param("hotelName") String hotelName
+        @Param("hotelName") String hotelName,
+        @Param("hotelIds") Collection<Integer> hotelIds,
+        @Param("roomTypes") Collection<String> roomTypes
     );
     
+    /**
+     * 按排序键分页查询可用房间（keyset 分页）
+     * @param checkInDate 入住日期
+     * @param checkOutDate 退房日期
+     * @param location 地点
+     * @param roomType 房间类型
+     * @param hotelName 酒店名称
+     * @param hotelIds 由地点与酒店名称解析出的酒店ID（为空时按 LIKE 筛选）
+     * @param roomTypes 由房间类型解析出的房型（为空时按 LIKE 筛选）
+     * @param after 上一页最后一个房间（为空时查询第一页）
+     * @param limit 最多返回的房间数
+     * @return 可用房间列表
+     */
+    List<AvailableRoomDto> findAvailableRoomPage(
+        @Param("checkInDate") String checkInDate,
+        @Param("checkOutDate") String checkOutDate,
+        @Param("location") String location,
+        @Param("roomType") String roomType,
+        @Param("hotelName") String hotelName,
+        @Param("hotelIds") Collection<Integer> hotelIds,
+        @Param("roomTypes") Collection<String> roomTypes,
+        @Param("after") AvailableRoomDto after,
+        @Param("limit") int limit
+    );
+    
+    /**
+     * 以游标方式逐行读取可用房间（需在事务内消费）
+     * @param checkInDate 入住日期
+     * @param checkOutDate 退房日期
+     * @param location 地点
+     * @param roomType 房间类型
+     * @param hotelName 酒店名称
+     * @param hotelIds 由地点与酒店名称解析出的酒店ID（为空时按 LIKE 筛选）
+     * @param roomTypes 由房间类型解析出的房型（为空时按 LIKE 筛选）
+     * @return 可用房间游标
+     */
+    Cursor<AvailableRoomDto> streamAvailableRooms(
+        @Param("checkInDate") String checkInDate,
+        @Param("checkOutDate") String checkOutDate,
+        @Param("location") String location,
+        @Param("roomType") String roomType,
+        @Param("hotelName") String hotelName,
+        @Param("hotelIds") Collection<Integer> hotelIds,
+        @Param("roomTypes") Collection<String> roomTypes
+    );
+    
+    /**
+     * 查询房间及其所属酒店信息（用于构建可用性索引）
+     * @param hotelId 酒店ID（为空时查询全部房间）
+     * @return 房间状态列表
+     */
+    List<RoomStateDto> findRoomStates(@Param("hotelId") Integer hotelId);
+    
+    /**
+     * 查询仍占用房间且退房日期晚于指定日期的订单
+     * @param fromDate 起始日期
+     * @return 订单列表
+     */
+    List<Orders> findActiveStays(@Param("fromDate") String fromDate);
+    
+    /**
+     * 查询酒店在指定日期范围内仍占用房间的订单
+     * @param hotelId 酒店ID
+     * @param fromDate 起始日期（含）
+     * @param toDate 结束日期（不含）
+     * @return 订单列表
+     */
+    List<Orders> findHotelActiveStays(@Param("hotelId") Integer hotelId, @Param("fromDate") String fromDate, @Param("toDate") String toDate);
+    
     /**
      * 根据ID查询房间信息
      * @param id 房间ID
@@ -35,6 +111,46 @@ public interface BookingMapper {
      */
     Room findRoomById(Integer id);
     
+    /**
+     * 根据ID查询房间信息并加行锁
+     * @param id 房间ID
+     * @return 房间信息
+     */
+    Room findRoomByIdForUpdate(Integer id);
+    
+    /**
+     * 根据ID批量查询房间信息并加行锁
+     * @param ids 房间ID列表
+     * @return 房间列表
+     */
+    List<Room> findRoomsByIdsForUpdate(@Param("ids") List<Integer> ids);
+    
+    /**
+     * 查询指定房间在日期区间内仍占用房间的订单
+     * @param roomIds 房间ID列表
+     * @param checkInDate 区间开始日期
+     * @param checkOutDate 区间结束日期
+     * @return 订单列表
+     */
+    List<Orders> findOverlappingOrders(
+        @Param("roomIds") List<Integer> roomIds,
+        @Param("checkInDate") String checkInDate,
+        @Param("checkOutDate") String checkOutDate
+    );
+    
+    /**
+     * 统计与指定日期区间重叠且仍占用房间的订单数
+     * @param roomId 房间ID
+     * @param checkInDate 入住日期
+     * @param checkOutDate 退房日期
+     * @return 重叠订单数
+     */
+    int countOverlappingOrders(
+        @Param("roomId") Integer roomId,
+        @Param("checkInDate") String checkInDate,
+        @Param("checkOutDate") String checkOutDate
+    );
+    
     /**
      * 根据身份证号查找客户
      * @param idCard 身份证号
@@ -42,6 +158,20 @@ public interface BookingMapper {
      */
     Customer findCustomerByIdCard(String idCard);
     
+    /**
+     * 根据身份证号查找客户并加锁（读取其他事务刚提交的客户）
+     * @param idCard 身份证号
+     * @return 客户信息
+     */
+    Customer findCustomerByIdCardForUpdate(String idCard);
+    
+    /**
+     * 根据身份证号批量查找客户
+     * @param idCards 身份证号列表
+     * @return 客户列表
+     */
+    List<Customer> findCustomersByIdCards(@Param("idCards") List<String> idCards);
+    
     /**
      * 插入新客户
      * @param customer 客户信息
@@ -49,6 +179,13 @@ public interface BookingMapper {
      */
     int insertCustomer(Customer customer);
     
+    /**
+     * 批量插入新客户（多行INSERT，回填自增ID）
+     * @param customers 客户列表
+     * @return 影响行数
+     */
+    int insertCustomers(List<Customer> customers);
+    
     /**
      * 插入订单
      * @param order 订单信息
@@ -56,6 +193,13 @@ public interface BookingMapper {
      */
     int insertOrder(Orders order);
     
+    /**
+     * 批量插入订单（多行INSERT，回填自增ID）
+     * @param orders 订单列表
+     * @return 影响行数
+     */
+    int insertOrders(List<Orders> orders);
+    
     /**
      * 更新房间状态
      * @param roomId 房间ID
@@ -34,9 +34,10 @@ public interface CustomerMapper {
     /**
      * 根据客户ID查询历史订单
      * @param customerId 客户ID
+     * @param archived 是否合并归档订单
      * @return 订单列表
      */
-    List<OrderDto> getCustomerOrderHistory(Integer customerId);
+    List<OrderDto> getCustomerOrderHistory(@Param("customerId") Integer customerId, @Param("archived") boolean archived);
     
     /**
      * 插入客户信息
@@ -51,4 +52,10 @@ public interface CustomerMapper {
      * @return 影响行数
      */
     int updateCustomer(Customer customer);
-}
\ No newline at end of file
+    
+    /**
+     * 查询所有填写了身份证号的客户（只含ID与身份证号）
+     * @return 客户列表
+     */
+    List<Customer> findCustomerIdentities();
+}
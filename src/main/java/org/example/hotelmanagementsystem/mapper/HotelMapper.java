@@ -2,6 +2,7 @@ package org.example.hotelmanagementsystem.mapper;
 
 import org.apache.ibatis.annotations.*;
 import org.example.hotelmanagementsystem.entity.Hotel;
+import java.util.Collection;
 import java.util.List;
 
 @Mapper
@@ -76,4 +77,11 @@ public interface HotelMapper {
         @Result(property = "createdAt", column = "created_at")
     })
     List<Hotel> selectByName(String name);
-}
\ No newline at end of file
+    
+    /**
+     * 根据ID列表查询酒店
+     * @param ids 酒店ID列表
+     * @return 酒店列表
+     */
+    List<Hotel> selectByIds(@Param("ids") Collection<Integer> ids);
+}
@@ -0,0 +1,77 @@
+package org.example.hotelmanagementsystem.mapper;
+
+import org.apache.ibatis.annotations.*;
+import org.apache.ibatis.cursor.Cursor;
+import org.example.hotelmanagementsystem.dto.NightAuditOrderDto;
+import org.example.hotelmanagementsystem.entity.DailyHotelSnapshot;
+import org.example.hotelmanagementsystem.entity.NightAuditRun;
+
+@Mapper
+public interface NightAuditMapper {
+    
+    /**
+     * 流式读取营业日涉及的订单（当日到店、离店或在住），按酒店ID、订单ID排序；
+     * 当日没有订单的酒店返回一条只有酒店ID的记录
+     * @param businessDate 营业日
+     * @param afterHotelId 检查点酒店ID，只读取其后的酒店（为 null 时从头开始）
+     * @return 订单游标
+     */
+    Cursor<NightAuditOrderDto> streamAuditOrders(@Param("businessDate") String businessDate,
+                                                 @Param("afterHotelId") Integer afterHotelId);
+    
+    /**
+     * 查询营业日的夜审进度
+     * @param businessDate 营业日
+     * @return 夜审进度，未执行过时为 null
+     */
+    NightAuditRun getRun(String businessDate);
+    
+    /**
+     * 查询最早一次未完成的夜审
+     * @return 夜审进度，没有时为 null
+     */
+    NightAuditRun findIncompleteRun();
+    
+    /**
+     * 新建夜审进度
+     * @param run 夜审进度
+     * @return 影响行数
+     */
+    int insertRun(NightAuditRun run);
+    
+    /**
+     * 从检查点重新开始夜审
+     * @param businessDate 营业日
+     * @param startedAt 开始时间
+     * @return 影响行数
+     */
+    int restartRun(@Param("businessDate") String businessDate, @Param("startedAt") Long startedAt);
+    
+    /**
+     * 一家酒店处理完成后记录检查点
+     * @param businessDate 营业日
+     * @param hotelId 酒店ID
+     * @param orders 该酒店处理的订单数
+     * @param noShows 该酒店标记未到店的订单数
+     * @return 影响行数
+     */
+    int recordCheckpoint(@Param("businessDate") String businessDate, @Param("hotelId") Integer hotelId,
+                         @Param("orders") int orders, @Param("noShows") int noShows);
+    
+    /**
+     * 结束夜审
+     * @param businessDate 营业日
+     * @param status 结束状态（completed、failed）
+     * @param finishedAt 结束时间
+     * @return 影响行数
+     */
+    int finishRun(@Param("businessDate") String businessDate, @Param("status") String status,
+                  @Param("finishedAt") Long finishedAt);
+    
+    /**
+     * 写入或覆盖酒店每日快照
+     * @param snapshot 快照
+     * @return 影响行数
+     */
+    int upsertSnapshot(DailyHotelSnapshot snapshot);
+}
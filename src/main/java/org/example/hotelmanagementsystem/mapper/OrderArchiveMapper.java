@@ -0,0 +1,42 @@
+package org.example.hotelmanagementsystem.mapper;
+
+import org.apache.ibatis.annotations.*;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+@Mapper
+public interface OrderArchiveMapper {
+    
+    /**
+     * 查询可归档的订单（处于指定状态、退房日期早于截止日期且没有评价）并加行锁
+     * @param statuses 可归档的订单状态
+     * @param checkOutBefore 退房日期截止（不含）
+     * @param limit 最多返回条数
+     * @return 订单ID列表
+     */
+    List<Integer> lockArchivableOrderIds(@Param("statuses") Collection<String> statuses,
+                                         @Param("checkOutBefore") String checkOutBefore,
+                                         @Param("limit") int limit);
+    
+    /**
+     * 将订单复制到归档表
+     * @param ids 订单ID列表
+     * @param archivedAt 归档时间
+     * @return 影响行数
+     */
+    int insertArchivedOrders(@Param("ids") Collection<Integer> ids, @Param("archivedAt") Long archivedAt);
+    
+    /**
+     * 从订单表删除订单
+     * @param ids 订单ID列表
+     * @return 影响行数
+     */
+    int deleteOrders(@Param("ids") Collection<Integer> ids);
+    
+    /**
+     * 查询归档水位
+     * @return 包含 checkInDate（已归档订单的最晚入住日期）与 createdAt（最晚创建时间），没有归档订单时为 null
+     */
+    Map<String, Object> getArchiveWatermark();
+}
@@ -4,7 +4,9 @@ import org.apache.ibatis.annotations.*;
 import org.example.hotelmanagementsystem.entity.Orders;
 import org.example.hotelmanagementsystem.dto.OrderDto;
 import org.example.hotelmanagementsystem.dto.OrderQueryDto;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 @Mapper
 public interface OrderMapper {
@@ -12,9 +14,42 @@ public interface OrderMapper {
     /**
      * 根据条件查询订单列表
      * @param query 查询条件
+     * @param hotelIds 由酒店名称解析出的酒店ID（为空时按 LIKE 筛选）
+     * @param archived 是否合并归档订单
      * @return 订单列表
      */
-    List<OrderDto> findOrders(OrderQueryDto query);
+    List<OrderDto> findOrders(@Param("query") OrderQueryDto query, @Param("hotelIds") Collection<Integer> hotelIds,
+                              @Param("archived") boolean archived);
+    
+    /**
+     * 按 (创建时间, 订单ID) 倒序分页查询订单
+     * @param query 查询条件
+     * @param hotelIds 由酒店名称解析出的酒店ID（为空时按 LIKE 筛选）
+     * @param afterCreatedAt 上一页最后一条的创建时间（第一页为 null）
+     * @param afterId 上一页最后一条的订单ID（第一页为 null）
+     * @param limit 最多返回条数
+     * @param archived 是否合并归档订单
+     * @return 订单列表
+     */
+    List<OrderDto> findOrderPage(@Param("query") OrderQueryDto query, @Param("hotelIds") Collection<Integer> hotelIds,
+                                 @Param("afterCreatedAt") Long afterCreatedAt, @Param("afterId") Integer afterId,
+                                 @Param("limit") int limit, @Param("archived") boolean archived);
+    
+    /**
+     * 获取订单查询的执行计划，用于估算符合条件的订单数
+     * @param query 查询条件
+     * @param hotelIds 由酒店名称解析出的酒店ID（为空时按 LIKE 筛选）
+     * @param archived 是否合并归档订单
+     * @return 执行计划（每张表一行，含 id、rows 与 filtered）
+     */
+    List<Map<String, Object>> explainOrders(@Param("query") OrderQueryDto query, @Param("hotelIds") Collection<Integer> hotelIds,
+                                            @Param("archived") boolean archived);
+    
+    /**
+     * 按状态统计订单数
+     * @return 每行包含 status 与 total
+     */
+    List<Map<String, Object>> countOrdersByStatus();
     
     /**
      * 根据ID查询订单详情
@@ -23,6 +58,13 @@ public interface OrderMapper {
      */
     OrderDto getOrderById(Integer id);
     
+    /**
+     * 根据ID查询已归档的订单详情
+     * @param id 订单ID
+     * @return 订单详情
+     */
+    OrderDto getArchivedOrderById(Integer id);
+    
     /**
      * 根据ID查询订单实体
      * @param id 订单ID
@@ -38,10 +80,54 @@ public interface OrderMapper {
     int updateOrder(Orders order);
     
     /**
-     * 更新房间状态
-     * @param roomId 房间ID
-     * @param status 状态
+     * 查询所有待确认订单
+     * @return 订单列表（仅包含ID与创建时间）
+     */
+    List<Orders> findPendingOrders();
+    
+    /**
+     * 比较并设置订单状态：仅当订单处于允许的原状态之一时更新
+     * @param id 订单ID
+     * @param fromStatuses 允许的原状态
+     * @param toStatus 目标状态
+     * @return 影响行数，为 0 表示订单不存在或状态不允许
+     */
+    int transitionStatus(@Param("id") Integer id, @Param("fromStatuses") Collection<String> fromStatuses,
+                         @Param("toStatus") String toStatus);
+    
+    /**
+     * 根据ID批量查询处于允许状态之一的订单并加行锁
+     * @param ids 订单ID列表
+     * @param statuses 订单状态
+     * @return 订单列表
+     */
+    List<Orders> lockOrdersByIdsAndStatuses(@Param("ids") Collection<Integer> ids, @Param("statuses") Collection<String> statuses);
+    
+    /**
+     * 批量比较并设置订单状态
+     * @param ids 订单ID列表
+     * @param fromStatuses 允许的原状态
+     * @param toStatus 目标状态
      * @return 影响行数
      */
-    int updateRoomStatus(@Param("roomId") Integer roomId, @Param("status") String status);
-}
\ No newline at end of file
+    int transitionStatusByIds(@Param("ids") Collection<Integer> ids, @Param("fromStatuses") Collection<String> fromStatuses,
+                              @Param("toStatus") String toStatus);
+    
+    /**
+     * 查询酒店在指定日期入住或退房、且处于指定状态的订单ID
+     * @param hotelId 酒店ID
+     * @param status 订单状态
+     * @param checkInDate 入住日期（为 null 时不限）
+     * @param checkOutDate 退房日期（为 null 时不限）
+     * @return 订单ID列表
+     */
+    List<Integer> findOrderIdsByHotelAndDate(@Param("hotelId") Integer hotelId, @Param("status") String status,
+                                             @Param("checkInDate") String checkInDate, @Param("checkOutDate") String checkOutDate);
+    
+    /**
+     * 根据ID批量查询订单状态
+     * @param ids 订单ID列表
+     * @return 订单列表（仅包含ID、订单编号、房间ID与状态）
+     */
+    List<Orders> findOrderStatusesByIds(@Param("ids") Collection<Integer> ids);
+}
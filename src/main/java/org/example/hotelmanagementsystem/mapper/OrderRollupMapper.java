@@ -0,0 +1,16 @@
+package org.example.hotelmanagementsystem.mapper;
+
+import org.apache.ibatis.annotations.*;
+import org.example.hotelmanagementsystem.dto.OrderRollupDeltaDto;
+import java.util.Collection;
+
+@Mapper
+public interface OrderRollupMapper {
+    
+    /**
+     * 按房间所属酒店累加订单日汇总，汇总行不存在时插入
+     * @param deltas 按 (房间, 下单日, 状态) 合并后的增量
+     * @return 影响行数
+     */
+    int applyDeltas(@Param("deltas") Collection<OrderRollupDeltaDto> deltas);
+}
@@ -0,0 +1,36 @@
+package org.example.hotelmanagementsystem.mapper;
+
+import org.apache.ibatis.annotations.*;
+import java.util.Collection;
+
+@Mapper
+public interface OrderViewMapper {
+    
+    /**
+     * 按订单表及关联的客户、房间、酒店写入或覆盖订单读模型
+     * @param orderIds 订单ID列表
+     * @return 影响行数
+     */
+    int upsertOrderViews(@Param("orderIds") Collection<Integer> orderIds);
+    
+    /**
+     * 客户信息变更后刷新其订单读模型中的客户字段
+     * @param customerIds 客户ID列表
+     * @return 影响行数
+     */
+    int refreshCustomers(@Param("customerIds") Collection<Integer> customerIds);
+    
+    /**
+     * 酒店或房间信息变更后刷新其订单读模型中的酒店与房间字段
+     * @param hotelIds 酒店ID列表
+     * @return 影响行数
+     */
+    int refreshHotels(@Param("hotelIds") Collection<Integer> hotelIds);
+    
+    /**
+     * 删除订单读模型（订单归档后）
+     * @param orderIds 订单ID列表
+     * @return 影响行数
+     */
+    int deleteOrderViews(@Param("orderIds") Collection<Integer> orderIds);
+}
@@ -1,6 +1,7 @@
 package org.example.hotelmanagementsystem.mapper;
 
 import org.apache.ibatis.annotations.*;
+import org.apache.ibatis.cursor.Cursor;
 import org.example.hotelmanagementsystem.dto.BookingStatisticsDto;
 import org.example.hotelmanagementsystem.dto.RevenueStatisticsDto;
 import org.example.hotelmanagementsystem.dto.OccupancyRateDto;
@@ -10,28 +11,28 @@ import java.util.List;
 public interface ReportMapper {
     
     /**
-     * 查询预订统计信息
-     * @param startDate 开始日期
-     * @param endDate 结束日期
+     * 按订单日汇总查询预订统计信息
+     * @param startDate 开始日期（下单日，含，可选）
+     * @param endDate 结束日期（下单日，含，可选）
      * @param hotelId 酒店ID（可选）
      * @return 预订统计列表
      */
     List<BookingStatisticsDto> getBookingStatistics(
-        @Param("startDate") Long startDate,
-        @Param("endDate") Long endDate,
+        @Param("startDate") String startDate,
+        @Param("endDate") String endDate,
         @Param("hotelId") Integer hotelId
     );
     
     /**
-     * 查询收入统计信息
-     * @param startDate 开始日期
-     * @param endDate 结束日期
+     * 按订单日汇总查询收入统计信息
+     * @param startDate 开始日期（下单日，含，可选）
+     * @param endDate 结束日期（下单日，含，可选）
      * @param hotelId 酒店ID（可选）
      * @return 收入统计列表
      */
     List<RevenueStatisticsDto> getRevenueStatistics(
-        @Param("startDate") Long startDate,
-        @Param("endDate") Long endDate,
+        @Param("startDate") String startDate,
+        @Param("endDate") String endDate,
         @Param("hotelId") Integer hotelId
     );
     
@@ -40,11 +41,54 @@ public interface ReportMapper {
      * @param startDate 开始日期
      * @param endDate 结束日期
      * @param hotelId 酒店ID（可选）
+     * @param archived 是否合并归档订单
      * @return 入住率统计列表
      */
     List<OccupancyRateDto> getOccupancyRateStatistics(
+        @Param("startDate") String startDate,
+        @Param("endDate") String endDate,
+        @Param("hotelId") Integer hotelId,
+        @Param("archived") boolean archived
+    );
+    
+    /**
+     * 以游标逐行读取预订统计信息，供导出使用
+     * @param startDate 开始日期（下单日，含，可选）
+     * @param endDate 结束日期（下单日，含，可选）
+     * @param hotelId 酒店ID（可选）
+     * @return 预订统计游标
+     */
+    Cursor<BookingStatisticsDto> streamBookingStatistics(
+        @Param("startDate") String startDate,
+        @Param("endDate") String endDate,
+        @Param("hotelId") Integer hotelId
+    );
+    
+    /**
+     * 以游标逐行读取收入统计信息，供导出使用
+     * @param startDate 开始日期（下单日，含，可选）
+     * @param endDate 结束日期（下单日，含，可选）
+     * @param hotelId 酒店ID（可选）
+     * @return 收入统计游标
+     */
+    Cursor<RevenueStatisticsDto> streamRevenueStatistics(
         @Param("startDate") String startDate,
         @Param("endDate") String endDate,
         @Param("hotelId") Integer hotelId
     );
-}
\ No newline at end of file
+    
+    /**
+     * 以游标逐行读取入住率统计信息，供导出使用
+     * @param startDate 开始日期
+     * @param endDate 结束日期
+     * @param hotelId 酒店ID（可选）
+     * @param archived 是否合并归档订单
+     * @return 入住率统计游标
+     */
+    Cursor<OccupancyRateDto> streamOccupancyRateStatistics(
+        @Param("startDate") String startDate,
+        @Param("endDate") String endDate,
+        @Param("hotelId") Integer hotelId,
+        @Param("archived") boolean archived
+    );
+}
@@ -91,6 +91,13 @@ public interface RoomMapper {
     })
     List<Room> selectByRoomType(String roomType);
     
+    /**
+     * 查询所有不重复的房间类型
+     * @return 房间类型列表
+     */
+    @Select("SELECT DISTINCT room_type FROM rooms")
+    List<String> selectDistinctRoomTypes();
+    
     /**
      * 根据房间状态查询房间列表
      * @param status 房间状态
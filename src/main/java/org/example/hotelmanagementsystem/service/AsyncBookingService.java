@@ -0,0 +1,273 @@
+package org.example.hotelmanagementsystem.service;
+
+import org.example.hotelmanagementsystem.dto.BookingRequestDto;
+import org.example.hotelmanagementsystem.dto.BookingResultDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 异步预订服务（组提交）
+ * 预订请求校验后放入有界队列，由单个写入线程按批次取出，通过批量预订在一个事务中写入，
+ * 多个预订共用一次提交。队列已满时调用方最多等待设定的时间，超时即拒绝（背压）。
+ * 默认关闭，通过 hotel.booking.async.enabled 开启。
+ */
+@Service
+public class AsyncBookingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncBookingService.class);
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Value("${hotel.booking.async.enabled:false}")
+    private boolean enabled;
+    // 队列容量
+    @Value("${hotel.booking.async.capacity:10000}")
+    private int capacity;
+    // 每批最多写入的预订数（不超过批量预订上限）
+    @Value("${hotel.booking.async.batch-size:100}")
+    private int batchSize;
+    // 取到第一条后最多等待凑批的时间（毫秒）
+    @Value("${hotel.booking.async.linger-ms:5}")
+    private long lingerMs;
+    // 队列已满时调用方最多等待的时间（毫秒）
+    @Value("${hotel.booking.async.enqueue-timeout-ms:100}")
+    private long enqueueTimeoutMs;
+    @Value("${hotel.booking.max-batch-size:200}")
+    private int maxBatchSize;
+
+    private BlockingQueue<PendingBooking> queue;
+    private Thread writer;
+    private volatile boolean running;
+    // 入队持有读锁、停止持有写锁：停止之后不会再有请求入队，写入线程退出前能取到全部请求
+    private final ReentrantReadWriteLock stateLock = new ReentrantReadWriteLock();
+
+    private final AtomicLong submittedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong writtenCount = new AtomicLong();
+    private final AtomicLong fallbackCount = new AtomicLong();
+    private volatile long lastBatchSize;
+    private volatile long lastBatchMillis;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        batchSize = Math.max(1, Math.min(batchSize, maxBatchSize));
+        queue = new ArrayBlockingQueue<>(capacity);
+        running = true;
+        writer = new Thread(this::drainLoop, "booking-writer");
+        writer.setDaemon(true);
+        writer.start();
+        logger.info("异步预订已开启，队列容量: {}，批次大小: {}，等待凑批: {} ms", capacity, batchSize, lingerMs);
+    }
+
+    /**
+     * 停止时写完队列中剩余的预订
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        stopAccepting();
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    private void stopAccepting() {
+        stateLock.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            stateLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 提交预订
+     * @param bookingRequest 预订请求
+     * @return 预订结果，订单提交后完成；冲突等业务失败时结果状态为 failed
+     */
+    public CompletableFuture<BookingResultDto> submit(BookingRequestDto bookingRequest) {
+        if (!enabled) {
+            throw new RuntimeException("异步预订未开启");
+        }
+        validate(bookingRequest);
+        PendingBooking pending = new PendingBooking(bookingRequest);
+        boolean accepted;
+        stateLock.readLock().lock();
+        try {
+            accepted = running && queue.offer(pending, enqueueTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            accepted = false;
+        } finally {
+            stateLock.readLock().unlock();
+        }
+        if (!accepted) {
+            rejectedCount.incrementAndGet();
+            throw new RuntimeException("预订请求过多，请稍后重试");
+        }
+        submittedCount.incrementAndGet();
+        return pending.future;
+    }
+
+    /**
+     * 获取运行指标
+     * @return 指标名称与数值
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("enabled", enabled);
+        metrics.put("queued", queue == null ? 0 : queue.size());
+        metrics.put("capacity", capacity);
+        metrics.put("batchSize", batchSize);
+        metrics.put("lingerMs", lingerMs);
+        metrics.put("submitted", submittedCount.get());
+        metrics.put("rejected", rejectedCount.get());
+        metrics.put("batches", batchCount.get());
+        metrics.put("written", writtenCount.get());
+        metrics.put("fallbacks", fallbackCount.get());
+        metrics.put("lastBatchSize", lastBatchSize);
+        metrics.put("lastBatchMillis", lastBatchMillis);
+        return metrics;
+    }
+
+    private void drainLoop() {
+        List<PendingBooking> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingBooking first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // 凑批：在等待时间内尽量取满一批
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMs);
+                while (batch.size() < batchSize) {
+                    if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    PendingBooking next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                write(batch);
+            } catch (InterruptedException e) {
+                // 被中断时不再写入，已取出和仍在队列中的预订都以失败结束
+                Thread.currentThread().interrupt();
+                stopAccepting();
+                for (PendingBooking pending : batch) {
+                    pending.future.completeExceptionally(new RuntimeException("异步预订已停止，预订未写入"));
+                }
+                break;
+            } catch (Exception e) {
+                logger.error("异步预订写入线程异常", e);
+                for (PendingBooking pending : batch) {
+                    pending.future.completeExceptionally(e);
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+        // 写入线程被中断时队列中可能还有请求，结束它们的等待；正常停止时队列已为空
+        List<PendingBooking> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        for (PendingBooking pending : remaining) {
+            pending.future.completeExceptionally(new RuntimeException("异步预订已停止，预订未写入"));
+        }
+        logger.info("异步预订写入线程已停止，未写入的预订: {}", remaining.size());
+    }
+
+    private void write(List<PendingBooking> batch) {
+        long startTime = System.currentTimeMillis();
+        List<BookingRequestDto> requests = new ArrayList<>(batch.size());
+        for (PendingBooking pending : batch) {
+            requests.add(pending.request);
+        }
+        try {
+            List<BookingResultDto> results = bookingService.bookRooms(requests);
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).future.complete(results.get(i));
+            }
+        } catch (Exception e) {
+            // 整批失败时逐个预订，避免一个请求拖垮整批
+            logger.warn("批量写入失败，改为逐个预订，批次大小: {}", batch.size(), e);
+            fallbackCount.incrementAndGet();
+            for (PendingBooking pending : batch) {
+                try {
+                    pending.future.complete(bookingService.bookRoom(pending.request));
+                } catch (Exception ex) {
+                    pending.future.complete(failedResult(pending.request, ex.getMessage()));
+                }
+            }
+        }
+        batchCount.incrementAndGet();
+        writtenCount.addAndGet(batch.size());
+        lastBatchSize = batch.size();
+        lastBatchMillis = System.currentTimeMillis() - startTime;
+    }
+
+    // 入队前校验请求本身，明显无效的请求不占用队列
+    private static void validate(BookingRequestDto bookingRequest) {
+        if (bookingRequest.getRoomId() == null) {
+            throw new RuntimeException("房间不存在或不可用");
+        }
+        LocalDate checkIn;
+        LocalDate checkOut;
+        try {
+            checkIn = LocalDate.parse(bookingRequest.getCheckInDate());
+            checkOut = LocalDate.parse(bookingRequest.getCheckOutDate());
+        } catch (NullPointerException | DateTimeParseException e) {
+            throw new RuntimeException("日期格式错误");
+        }
+        if (!checkOut.isAfter(checkIn)) {
+            throw new RuntimeException("入住日期必须早于退房日期");
+        }
+    }
+
+    private static BookingResultDto failedResult(BookingRequestDto bookingRequest, String message) {
+        BookingResultDto result = new BookingResultDto();
+        result.setRoomId(bookingRequest.getRoomId());
+        result.setCheckInDate(bookingRequest.getCheckInDate());
+        result.setCheckOutDate(bookingRequest.getCheckOutDate());
+        result.setStatus("failed");
+        result.setMessage(message);
+        return result;
+    }
+
+    private static class PendingBooking {
+        final BookingRequestDto request;
+        final CompletableFuture<BookingResultDto> future = new CompletableFuture<>();
+
+        PendingBooking(BookingRequestDto request) {
+            this.request = request;
+        }
+    }
+}
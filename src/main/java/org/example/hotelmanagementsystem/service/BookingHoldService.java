@@ -0,0 +1,163 @@
+package org.example.hotelmanagementsystem.service;
+
+import org.example.hotelmanagementsystem.entity.Orders;
+import org.example.hotelmanagementsystem.event.OrderChangedEvent;
+import org.example.hotelmanagementsystem.mapper.OrderMapper;
+import org.example.hotelmanagementsystem.util.HashedTimingWheel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import jakarta.annotation.PostConstruct;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 预订保留服务
+ * 待确认订单在保留时长内未被确认或取消时自动取消。到期时间由内存中的哈希时间轮维护，
+ * 到期订单按批次通过一条 UPDATE 取消，无需定期扫描订单表。
+ */
+@Service
+public class BookingHoldService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingHoldService.class);
+
+    @Autowired
+    private OrderMapper orderMapper;
+    @Autowired
+    private OrderStateMachine orderStateMachine;
+
+    // 待确认订单的保留时长（分钟），0 表示不自动取消
+    @Value("${hotel.booking.hold-ttl-minutes:30}")
+    private long holdTtlMinutes;
+    // 时间轮刻度（毫秒）
+    @Value("${hotel.booking.hold-tick-ms:1000}")
+    private long tickMillis;
+    // 时间轮槽位数
+    @Value("${hotel.booking.hold-wheel-size:512}")
+    private int wheelSize;
+    // 每批取消的订单数
+    @Value("${hotel.booking.hold-expire-batch-size:200}")
+    private int expireBatchSize;
+
+    private HashedTimingWheel<Integer> wheel;
+
+    private final AtomicLong scheduledCount = new AtomicLong();
+    private final AtomicLong expiredCount = new AtomicLong();
+    private final AtomicLong cancelledCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+    private volatile long lastBatchMillis;
+
+    @PostConstruct
+    public void init() {
+        wheel = new HashedTimingWheel<>(tickMillis, wheelSize, System.currentTimeMillis());
+    }
+
+    /**
+     * 启动时为数据库中已有的待确认订单登记到期时间
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!isEnabled()) {
+            return;
+        }
+        try {
+            List<Orders> pendingOrders = orderMapper.findPendingOrders();
+            for (Orders order : pendingOrders) {
+                hold(order);
+            }
+            logger.info("已加载待确认订单的保留期限，订单数: {}", pendingOrders.size());
+        } catch (Exception e) {
+            logger.error("加载待确认订单失败，启动前创建的订单不会自动取消", e);
+        }
+    }
+
+    /**
+     * 新建订单时登记到期时间，订单离开待确认状态时注销（事务提交后执行）
+     * @param event 订单变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        if (!isEnabled()) {
+            return;
+        }
+        Orders order = event.getOrder();
+        if ("pending".equals(order.getStatus())) {
+            if (event.getFromStatus() == null) {
+                hold(order);
+            }
+        } else {
+            wheel.cancel(order.getId());
+        }
+    }
+
+    /**
+     * 推进时间轮并取消到期的待确认订单
+     */
+    @Scheduled(fixedDelayString = "${hotel.booking.hold-tick-ms:1000}")
+    public void expireHolds() {
+        if (!isEnabled()) {
+            return;
+        }
+        List<Integer> expired = wheel.advance(System.currentTimeMillis());
+        if (expired.isEmpty()) {
+            return;
+        }
+        expiredCount.addAndGet(expired.size());
+        for (int from = 0; from < expired.size(); from += expireBatchSize) {
+            List<Integer> batch = expired.subList(from, Math.min(from + expireBatchSize, expired.size()));
+            long startTime = System.currentTimeMillis();
+            try {
+                // 只取消仍处于待确认状态的订单，期间已被确认或取消的订单会被跳过
+                int cancelled = orderStateMachine.transitionAll(batch, OrderTransition.EXPIRE_HOLD).size();
+                cancelledCount.addAndGet(cancelled);
+                batchCount.incrementAndGet();
+                logger.info("已自动取消超时未确认订单，本批到期: {}，实际取消: {}", batch.size(), cancelled);
+            } catch (Exception e) {
+                failedCount.addAndGet(batch.size());
+                logger.error("自动取消超时订单失败，订单ID: {}", batch, e);
+            } finally {
+                lastBatchMillis = System.currentTimeMillis() - startTime;
+            }
+        }
+    }
+
+    /**
+     * 获取运行指标
+     * @return 指标名称与数值
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("enabled", isEnabled());
+        metrics.put("holdTtlMinutes", holdTtlMinutes);
+        metrics.put("activeHolds", wheel.size());
+        metrics.put("scheduled", scheduledCount.get());
+        metrics.put("expired", expiredCount.get());
+        metrics.put("cancelled", cancelledCount.get());
+        metrics.put("failed", failedCount.get());
+        metrics.put("batches", batchCount.get());
+        metrics.put("lastBatchMillis", lastBatchMillis);
+        return metrics;
+    }
+
+    private void hold(Orders order) {
+        long createdMillis = order.getCreatedAt() == null
+                ? System.currentTimeMillis() : TimeUnit.SECONDS.toMillis(order.getCreatedAt());
+        wheel.schedule(order.getId(), createdMillis + TimeUnit.MINUTES.toMillis(holdTtlMinutes));
+        scheduledCount.incrementAndGet();
+    }
+
+    private boolean isEnabled() {
+        return holdTtlMinutes > 0;
+    }
+}
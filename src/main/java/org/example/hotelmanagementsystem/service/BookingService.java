@@ -2,9 +2,11 @@ package org.example.hotelmanagementsystem.service;
 
 import org.example.hotelmanagementsystem.dto.BookingQueryDto;
 import org.example.hotelmanagementsystem.dto.AvailableRoomDto;
+import org.example.hotelmanagementsystem.dto.AvailableRoomPageDto;
 import org.example.hotelmanagementsystem.dto.BookingRequestDto;
 import org.example.hotelmanagementsystem.dto.BookingResultDto;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface BookingService {
     
@@ -15,10 +17,31 @@ public interface BookingService {
      */
     List<AvailableRoomDto> findAvailableRooms(BookingQueryDto query);
     
+    /**
+     * 分页查询可用房间（基于排序键的游标分页）
+     * @param query 查询条件（pageSize 为每页数量，cursor 为上一页返回的游标）
+     * @return 可用房间分页结果
+     */
+    AvailableRoomPageDto findAvailableRoomPage(BookingQueryDto query);
+    
+    /**
+     * 按排序顺序逐个输出可用房间，不在内存中保留完整结果
+     * @param query 查询条件
+     * @param consumer 房间处理函数
+     */
+    void streamAvailableRooms(BookingQueryDto query, Consumer<AvailableRoomDto> consumer);
+    
     /**
      * 预订房间
      * @param bookingRequest 预订请求
      * @return 预订结果
      */
     BookingResultDto bookRoom(BookingRequestDto bookingRequest);
+    
+    /**
+     * 批量预订房间（团队预订），全部订单在同一事务中写入
+     * @param bookingRequests 预订请求列表
+     * @return 与请求一一对应的预订结果，失败项的状态为 failed 并附带原因
+     */
+    List<BookingResultDto> bookRooms(List<BookingRequestDto> bookingRequests);
 }
\ No newline at end of file
@@ -0,0 +1,190 @@
+package org.example.hotelmanagementsystem.service;
+
+import org.example.hotelmanagementsystem.entity.Customer;
+import org.example.hotelmanagementsystem.event.CustomerChangedEvent;
+import org.example.hotelmanagementsystem.mapper.CustomerMapper;
+import org.example.hotelmanagementsystem.util.BloomFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import jakarta.annotation.PostConstruct;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 客户身份缓存
+ * 缓存身份证号到客户ID的映射，并用布隆过滤器记录所有已知的身份证号：
+ * 缓存命中时无需查询数据库；布隆过滤器判定不存在时说明是新客户，可直接创建。
+ * 布隆过滤器只在本节点内维护，其他节点创建的客户由 customers.id_card 唯一索引兜底。
+ */
+@Service
+public class CustomerIdentityCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerIdentityCache.class);
+
+    @Autowired
+    private CustomerMapper customerMapper;
+
+    // 布隆过滤器的预计客户数与误判率
+    @Value("${hotel.customer-cache.expected-customers:1000000}")
+    private long expectedCustomers;
+    @Value("${hotel.customer-cache.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+    // 最多缓存的身份证号数
+    @Value("${hotel.customer-cache.max-entries:100000}")
+    private int maxEntries;
+
+    private BloomFilter bloomFilter;
+    private volatile boolean ready;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // 身份证号 -> 客户ID，按访问顺序淘汰
+    private final LinkedHashMap<String, Integer> customerIds = new LinkedHashMap<>(16, 0.75f, true);
+    // 客户ID -> 身份证号，用于客户修改身份证号时移除旧映射
+    private final Map<Integer, String> idCards = new HashMap<>();
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong bloomNegativeCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        bloomFilter = new BloomFilter(expectedCustomers, falsePositiveRate);
+    }
+
+    /**
+     * 启动时把已有客户的身份证号加入布隆过滤器
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            List<Customer> customers = customerMapper.findCustomerIdentities();
+            for (Customer customer : customers) {
+                bloomFilter.put(customer.getIdCard());
+            }
+            ready = true;
+            logger.info("客户身份缓存加载完成，客户数: {}，布隆过滤器位数: {}，哈希函数数: {}",
+                    customers.size(), bloomFilter.bitSize(), bloomFilter.hashCount());
+        } catch (Exception e) {
+            logger.error("加载客户身份证号失败，预订时将始终查询数据库", e);
+        }
+    }
+
+    /**
+     * 从缓存获取客户ID
+     * @param idCard 身份证号
+     * @return 客户ID，未缓存时返回 null
+     */
+    public Integer getCustomerId(String idCard) {
+        Integer customerId;
+        lock.lock();
+        try {
+            customerId = customerIds.get(idCard);
+        } finally {
+            lock.unlock();
+        }
+        if (customerId != null) {
+            hitCount.incrementAndGet();
+        } else {
+            missCount.incrementAndGet();
+        }
+        return customerId;
+    }
+
+    /**
+     * 判断身份证号是否可能已有客户
+     * @param idCard 身份证号
+     * @return false 表示一定是新客户；未加载完成时总是返回 true
+     */
+    public boolean mightExist(String idCard) {
+        if (!ready || bloomFilter.mightContain(idCard)) {
+            return true;
+        }
+        bloomNegativeCount.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * 记录已确认存在的客户（由数据库查询得到）
+     * @param idCard 身份证号
+     * @param customerId 客户ID
+     */
+    public void put(String idCard, Integer customerId) {
+        if (idCard == null || idCard.isEmpty() || customerId == null) {
+            return;
+        }
+        bloomFilter.put(idCard);
+        lock.lock();
+        try {
+            String previous = idCards.put(customerId, idCard);
+            if (previous != null && !previous.equals(idCard)) {
+                customerIds.remove(previous);
+            }
+            customerIds.put(idCard, customerId);
+            while (customerIds.size() > maxEntries) {
+                Map.Entry<String, Integer> eldest = customerIds.entrySet().iterator().next();
+                customerIds.remove(eldest.getKey());
+                idCards.remove(eldest.getValue());
+                evictionCount.incrementAndGet();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 客户新增或修改后更新缓存（事务提交后执行）
+     * @param event 客户变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCustomerChanged(CustomerChangedEvent event) {
+        Customer customer = event.getCustomer();
+        if (customer == null || customer.getId() == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            String previous = idCards.remove(customer.getId());
+            if (previous != null) {
+                customerIds.remove(previous);
+            }
+        } finally {
+            lock.unlock();
+        }
+        put(customer.getIdCard(), customer.getId());
+    }
+
+    /**
+     * 获取运行指标
+     * @return 指标名称与数值
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("ready", ready);
+        lock.lock();
+        try {
+            metrics.put("size", customerIds.size());
+        } finally {
+            lock.unlock();
+        }
+        metrics.put("maxEntries", maxEntries);
+        metrics.put("hits", hitCount.get());
+        metrics.put("misses", missCount.get());
+        metrics.put("bloomNegatives", bloomNegativeCount.get());
+        metrics.put("evictions", evictionCount.get());
+        metrics.put("bloomBits", bloomFilter.bitSize());
+        metrics.put("bloomHashes", bloomFilter.hashCount());
+        return metrics;
+    }
+}
@@ -0,0 +1,170 @@
+package org.example.hotelmanagementsystem.service;
+
+import org.example.hotelmanagementsystem.entity.Hotel;
+import org.example.hotelmanagementsystem.entity.Room;
+import org.example.hotelmanagementsystem.event.HotelChangedEvent;
+import org.example.hotelmanagementsystem.mapper.HotelMapper;
+import org.example.hotelmanagementsystem.mapper.RoomMapper;
+import org.example.hotelmanagementsystem.util.NGramIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 酒店与房型文本索引
+ * 对酒店名称、地址和房间类型建立二元分词倒排索引，把 LIKE '%xxx%' 筛选先解析为酒店ID或房型列表，
+ * 再以 IN 条件下推到SQL，避免对酒店表和房间表做全表扫描。
+ * 返回 null 表示无法解析（索引未就绪、含通配符或候选过多），调用方应保留原来的 LIKE 条件。
+ * 本节点的酒店变更提交后立即同步；其他节点新增或修改的酒店由定时重建纳入索引。
+ */
+@Service
+public class HotelSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotelSearchIndex.class);
+
+    @Autowired
+    private HotelMapper hotelMapper;
+    @Autowired
+    private RoomMapper roomMapper;
+
+    // 下推的 IN 列表最大长度，超过时仍使用 LIKE
+    @Value("${hotel.search-index.max-in-list:1000}")
+    private int maxInList;
+
+    // 串行化加载、重建与增量同步；期间会查询数据库，用显式锁避免虚拟线程固定在载体线程上
+    private final ReentrantLock lock = new ReentrantLock();
+    // 重建时整体替换，查询读取同一份索引
+    private volatile Indexes indexes = new Indexes();
+    private volatile boolean ready;
+
+    /**
+     * 启动时加载全部酒店与房型
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * 定期从数据库重建索引，纳入其他节点新增、修改或删除的酒店与房型
+     */
+    @Scheduled(fixedDelayString = "${hotel.search-index.rebuild-interval-ms:300000}",
+            initialDelayString = "${hotel.search-index.rebuild-interval-ms:300000}")
+    public void rebuild() {
+        lock.lock();
+        try {
+            Indexes rebuilt = new Indexes();
+            List<Hotel> hotels = hotelMapper.selectAll();
+            for (Hotel hotel : hotels) {
+                rebuilt.putHotel(hotel);
+            }
+            for (String roomType : roomMapper.selectDistinctRoomTypes()) {
+                rebuilt.roomTypes.put(roomType, roomType);
+            }
+            indexes = rebuilt;
+            ready = true;
+            logger.info("酒店文本索引加载完成，酒店数: {}，房型数: {}，词元数: {}",
+                    hotels.size(), rebuilt.roomTypes.size(), rebuilt.hotelNames.tokenCount() + rebuilt.hotelAddresses.tokenCount());
+        } catch (Exception e) {
+            logger.error(ready ? "重建酒店文本索引失败，继续使用现有索引" : "加载酒店文本索引失败，筛选将使用 LIKE 查询", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 酒店新增或修改后同步索引（事务提交后执行）
+     * @param event 酒店变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHotelChanged(HotelChangedEvent event) {
+        lock.lock();
+        try {
+            Indexes current = indexes;
+            Integer hotelId = event.getHotelId();
+            Hotel hotel = hotelMapper.selectById(hotelId);
+            if (hotel == null) {
+                current.hotelNames.remove(hotelId);
+                current.hotelAddresses.remove(hotelId);
+                return;
+            }
+            current.putHotel(hotel);
+            // 房型在两次重建之间只增不减，残留的房型只会多出一个不命中的 IN 值
+            for (Room room : roomMapper.selectByHotelId(hotelId)) {
+                current.roomTypes.put(room.getRoomType(), room.getRoomType());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 解析地址与酒店名称筛选条件
+     * @param location 地址关键字
+     * @param hotelName 酒店名称关键字
+     * @return 同时满足两个条件的酒店ID；无需筛选或无法解析时返回 null
+     */
+    public Set<Integer> findHotelIds(String location, String hotelName) {
+        if (!ready || !isResolvable(location) || !isResolvable(hotelName)) {
+            return null;
+        }
+        Indexes current = indexes;
+        Set<Integer> byAddress = current.hotelAddresses.search(location);
+        Set<Integer> byName = current.hotelNames.search(hotelName);
+        Set<Integer> result;
+        if (byAddress == null) {
+            result = byName;
+        } else if (byName == null) {
+            result = byAddress;
+        } else {
+            result = new HashSet<>(byAddress);
+            result.retainAll(byName);
+        }
+        return result == null || result.size() > maxInList ? null : result;
+    }
+
+    /**
+     * 解析房型筛选条件
+     * @param roomType 房型关键字
+     * @return 匹配的房型；无需筛选或无法解析时返回 null
+     */
+    public Set<String> findRoomTypes(String roomType) {
+        if (!ready || !isResolvable(roomType)) {
+            return null;
+        }
+        Set<String> result = indexes.roomTypes.search(roomType);
+        return result == null || result.size() > maxInList ? null : result;
+    }
+
+
+    // 含 LIKE 通配符或转义符的关键字保留原语义，不走索引
+    private static boolean isResolvable(String keyword) {
+        return keyword == null || (keyword.indexOf('%') < 0 && keyword.indexOf('_') < 0 && keyword.indexOf('\\') < 0);
+    }
+
+    /**
+     * 酒店名称、地址与房型的倒排索引
+     */
+    private static final class Indexes {
+        final NGramIndex<Integer> hotelNames = new NGramIndex<>();
+        final NGramIndex<Integer> hotelAddresses = new NGramIndex<>();
+        // 房型文本本身即为键
+        final NGramIndex<String> roomTypes = new NGramIndex<>();
+
+        void putHotel(Hotel hotel) {
+            hotelNames.put(hotel.getId(), hotel.getName());
+            hotelAddresses.put(hotel.getId(), hotel.getAddress());
+        }
+    }
+}
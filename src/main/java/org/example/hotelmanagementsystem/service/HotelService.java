@@ -2,6 +2,8 @@ package org.example.hotelmanagementsystem.service;
 
 import org.example.hotelmanagementsystem.entity.Hotel;
 import org.example.hotelmanagementsystem.dto.HotelDto;
+import org.example.hotelmanagementsystem.dto.InventoryDto;
+import org.example.hotelmanagementsystem.dto.RoomOccupancyDto;
 import java.util.List;
 
 public interface HotelService {
@@ -39,4 +41,21 @@ public interface HotelService {
      * @return 酒店列表
      */
     List<Hotel> getHotelsByName(String name);
-}
\ No newline at end of file
+    
+    /**
+     * 查询酒店各房型每晚的可售房间数
+     * @param hotelId 酒店ID
+     * @param from 起始日期（含，为空时为当天）
+     * @param to 结束日期（不含，为空时为起始日期后90天）
+     * @return 房型库存表
+     */
+    InventoryDto getInventory(Integer hotelId, String from, String to);
+    
+    /**
+     * 查询酒店各房间在指定日期当晚的占用情况（前台视图）
+     * @param hotelId 酒店ID
+     * @param date 日期（为空时为当天）
+     * @return 房间占用列表
+     */
+    List<RoomOccupancyDto> getRoomOccupancy(Integer hotelId, String date);
+}
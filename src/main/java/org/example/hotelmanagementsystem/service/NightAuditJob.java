@@ -0,0 +1,253 @@
+package org.example.hotelmanagementsystem.service;
+
+import org.example.hotelmanagementsystem.dto.NightAuditOrderDto;
+import org.example.hotelmanagementsystem.entity.DailyHotelSnapshot;
+import org.example.hotelmanagementsystem.entity.NightAuditRun;
+import org.example.hotelmanagementsystem.mapper.NightAuditMapper;
+import org.example.hotelmanagementsystem.util.TimestampUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 夜审任务
+ * 每日对上一营业日做一次日结：一次遍历当日涉及的订单，将到店日已过仍未入住的已确认订单标记为未到店并释放房间，
+ * 同时按酒店汇总到店、离店、在住订单数与当晚房费收入写入每日快照；当日没有订单的酒店也写入全为零的快照。
+ * 按酒店记录检查点，中断或失败后由下次执行（含应用启动时）从检查点继续。
+ */
+@Service
+public class NightAuditJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(NightAuditJob.class);
+
+    @Autowired
+    private NightAuditService nightAuditService;
+    @Autowired
+    private NightAuditMapper nightAuditMapper;
+    @Autowired
+    private TaskScheduler taskScheduler;
+
+    // 是否执行夜审
+    @Value("${hotel.night-audit.enabled:true}")
+    private boolean enabled;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong runCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    // 当前（或最近一次）夜审的进度
+    private volatile String businessDate;
+    private volatile Integer currentHotelId;
+    private final AtomicLong hotelsProcessed = new AtomicLong();
+    private final AtomicLong ordersProcessed = new AtomicLong();
+    private final AtomicLong noShowCount = new AtomicLong();
+    private volatile long startedMillis;
+    private volatile long lastRunMillis;
+    private volatile String lastStatus;
+
+    /**
+     * 启动时继续上次未完成的夜审，交给调度线程执行，不阻塞应用启动
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeIncomplete() {
+        if (!enabled) {
+            return;
+        }
+        taskScheduler.schedule(this::resumeIncompleteRun, Instant.now());
+    }
+
+    private void resumeIncompleteRun() {
+        try {
+            NightAuditRun run = nightAuditMapper.findIncompleteRun();
+            if (run != null) {
+                audit(LocalDate.parse(run.getBusinessDate()));
+            }
+        } catch (Exception e) {
+            logger.error("继续未完成的夜审失败", e);
+        }
+    }
+
+    /**
+     * 每日日结上一营业日，先补完之前未完成的夜审
+     */
+    @Scheduled(cron = "${hotel.night-audit.cron:0 0 4 * * *}")
+    public void runNightly() {
+        if (!enabled) {
+            return;
+        }
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        NightAuditRun incomplete = nightAuditMapper.findIncompleteRun();
+        if (incomplete != null && LocalDate.parse(incomplete.getBusinessDate()).isBefore(yesterday)) {
+            audit(LocalDate.parse(incomplete.getBusinessDate()));
+        }
+        audit(yesterday);
+    }
+
+    /**
+     * 对营业日执行夜审，已完成的营业日跳过，未完成的从检查点继续
+     * @param date 营业日
+     */
+    public void audit(LocalDate date) {
+        if (!running.compareAndSet(false, true)) {
+            logger.warn("夜审正在进行，跳过营业日: {}", date);
+            return;
+        }
+        String day = date.toString();
+        try {
+            NightAuditRun run = nightAuditMapper.getRun(day);
+            if (run != null && "completed".equals(run.getStatus())) {
+                logger.info("营业日 {} 已完成夜审，跳过", day);
+                return;
+            }
+            Long now = TimestampUtil.getCurrentTimestamp();
+            Integer checkpoint = null;
+            if (run == null) {
+                run = new NightAuditRun();
+                run.setBusinessDate(day);
+                run.setStartedAt(now);
+                nightAuditMapper.insertRun(run);
+            } else {
+                checkpoint = run.getLastHotelId();
+                nightAuditMapper.restartRun(day, now);
+                logger.info("营业日 {} 的夜审从检查点继续，最后完成的酒店ID: {}", day, checkpoint);
+            }
+            execute(date, checkpoint);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void execute(LocalDate date, Integer checkpoint) {
+        String day = date.toString();
+        businessDate = day;
+        hotelsProcessed.set(0);
+        ordersProcessed.set(0);
+        noShowCount.set(0);
+        startedMillis = System.currentTimeMillis();
+        lastStatus = "running";
+        runCount.incrementAndGet();
+        logger.info("开始夜审，营业日: {}", day);
+        try {
+            AuditPass pass = new AuditPass(date);
+            nightAuditService.streamOrders(date, checkpoint, pass::accept);
+            pass.closeHotel();
+            nightAuditMapper.finishRun(day, "completed", TimestampUtil.getCurrentTimestamp());
+            lastStatus = "completed";
+            logger.info("夜审完成，营业日: {}，酒店数: {}，订单数: {}，未到店: {}，耗时: {} ms", day,
+                    hotelsProcessed.get(), ordersProcessed.get(), noShowCount.get(), System.currentTimeMillis() - startedMillis);
+        } catch (Exception e) {
+            failedCount.incrementAndGet();
+            lastStatus = "failed";
+            logger.error("夜审失败，营业日: {}，最后完成的酒店ID: {}", day, currentHotelId, e);
+            try {
+                nightAuditMapper.finishRun(day, "failed", TimestampUtil.getCurrentTimestamp());
+            } catch (Exception ex) {
+                logger.error("记录夜审失败状态失败，营业日: {}", day, ex);
+            }
+        } finally {
+            currentHotelId = null;
+            lastRunMillis = System.currentTimeMillis() - startedMillis;
+        }
+    }
+
+    /**
+     * 获取运行指标
+     * @return 指标名称与数值
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        boolean active = running.get();
+        metrics.put("enabled", enabled);
+        metrics.put("running", active);
+        metrics.put("businessDate", businessDate);
+        metrics.put("status", lastStatus);
+        metrics.put("currentHotelId", currentHotelId);
+        metrics.put("hotelsProcessed", hotelsProcessed.get());
+        metrics.put("ordersProcessed", ordersProcessed.get());
+        metrics.put("noShows", noShowCount.get());
+        metrics.put("elapsedMillis", active ? System.currentTimeMillis() - startedMillis : lastRunMillis);
+        metrics.put("runs", runCount.get());
+        metrics.put("failed", failedCount.get());
+        return metrics;
+    }
+
+    /**
+     * 一次遍历：订单按酒店排序到达，酒店变化时结算上一家酒店；没有订单的酒店只到达一条订单ID为空的记录
+     */
+    private class AuditPass {
+        final LocalDate date;
+        DailyHotelSnapshot snapshot;
+        final List<Integer> noShowIds = new ArrayList<>();
+        int orders;
+
+        AuditPass(LocalDate date) {
+            this.date = date;
+        }
+
+        void accept(NightAuditOrderDto order) {
+            if (snapshot == null || !snapshot.getHotelId().equals(order.getHotelId())) {
+                closeHotel();
+                snapshot = new DailyHotelSnapshot();
+                snapshot.setHotelId(order.getHotelId());
+                snapshot.setBusinessDate(date.toString());
+                currentHotelId = order.getHotelId();
+            }
+            if (order.getId() == null) {
+                return;
+            }
+            orders++;
+            LocalDate checkIn = LocalDate.parse(order.getCheckInDate().substring(0, 10));
+            LocalDate checkOut = LocalDate.parse(order.getCheckOutDate().substring(0, 10));
+            if ("confirmed".equals(order.getStatus())) {
+                // 查询只返回入住日期不晚于营业日的订单，仍为已确认即未到店
+                noShowIds.add(order.getId());
+                return;
+            }
+            if (checkIn.equals(date)) {
+                snapshot.setArrivals(snapshot.getArrivals() + 1);
+            }
+            if (checkOut.equals(date)) {
+                snapshot.setDepartures(snapshot.getDepartures() + 1);
+            }
+            if (checkOut.isAfter(date)) {
+                // 当晚在住，房费按晚数均摊
+                long nights = Math.max(1, ChronoUnit.DAYS.between(checkIn, checkOut));
+                snapshot.setInHouse(snapshot.getInHouse() + 1);
+                if (order.getTotalAmount() != null) {
+                    snapshot.setRevenue(snapshot.getRevenue().add(
+                            order.getTotalAmount().divide(BigDecimal.valueOf(nights), 2, RoundingMode.HALF_UP)));
+                }
+            }
+        }
+
+        void closeHotel() {
+            if (snapshot == null) {
+                return;
+            }
+            int noShows = nightAuditService.closeHotel(snapshot, noShowIds, orders);
+            hotelsProcessed.incrementAndGet();
+            ordersProcessed.addAndGet(orders);
+            noShowCount.addAndGet(noShows);
+            snapshot = null;
+            noShowIds.clear();
+            orders = 0;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package org.example.hotelmanagementsystem.service;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.example.hotelmanagementsystem.dto.NightAuditOrderDto;
+import org.example.hotelmanagementsystem.entity.DailyHotelSnapshot;
+import org.example.hotelmanagementsystem.mapper.NightAuditMapper;
+import org.example.hotelmanagementsystem.util.TimestampUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 夜审读写
+ * 营业日的订单在只读事务中通过游标逐行读取；每家酒店处理完成后在独立事务中标记未到店、写入每日快照并记录检查点，
+ * 三者同时提交，中断后从检查点之后的酒店继续不会重复处理。
+ */
+@Service
+public class NightAuditService {
+
+    @Autowired
+    private NightAuditMapper nightAuditMapper;
+    @Autowired
+    private OrderStateMachine orderStateMachine;
+
+    /**
+     * 流式读取营业日涉及的订单，按酒店ID、订单ID顺序逐条交给调用方（游标需要在事务内保持连接）
+     * @param businessDate 营业日
+     * @param afterHotelId 检查点酒店ID（为 null 时从头开始）
+     * @param consumer 逐条接收订单
+     */
+    @Transactional(readOnly = true)
+    public void streamOrders(LocalDate businessDate, Integer afterHotelId, Consumer<NightAuditOrderDto> consumer) {
+        try (Cursor<NightAuditOrderDto> cursor = nightAuditMapper.streamAuditOrders(businessDate.toString(), afterHotelId)) {
+            for (NightAuditOrderDto order : cursor) {
+                consumer.accept(order);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("读取夜审订单失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 完成一家酒店的夜审：标记未到店订单并释放房间、写入每日快照、记录检查点
+     * @param snapshot 酒店当日快照（未到店数由实际标记的订单数填入）
+     * @param noShowIds 待标记未到店的订单ID
+     * @param orders 该酒店处理的订单数
+     * @return 实际标记未到店的订单数（期间已入住或取消的订单跳过）
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int closeHotel(DailyHotelSnapshot snapshot, List<Integer> noShowIds, int orders) {
+        int noShows = noShowIds.isEmpty() ? 0 : orderStateMachine.transitionAll(noShowIds, OrderTransition.NO_SHOW).size();
+        snapshot.setNoShows(noShows);
+        snapshot.setCreatedAt(TimestampUtil.getCurrentTimestamp());
+        nightAuditMapper.upsertSnapshot(snapshot);
+        nightAuditMapper.recordCheckpoint(snapshot.getBusinessDate(), snapshot.getHotelId(), orders, noShows);
+        return noShows;
+    }
+}
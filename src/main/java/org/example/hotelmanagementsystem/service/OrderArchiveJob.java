@@ -0,0 +1,105 @@
+package org.example.hotelmanagementsystem.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 订单归档任务
+ * 定时将退房日期早于保留天数的终态订单分批归档，每批一个事务，批次之间暂停以减少对在线业务的影响。
+ */
+@Service
+public class OrderArchiveJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderArchiveJob.class);
+
+    @Autowired
+    private OrderArchiveService orderArchiveService;
+    @Autowired
+    private OrderCountEstimator orderCountEstimator;
+
+    // 订单退房后保留在订单表中的天数，0 表示不归档
+    @Value("${hotel.archive.retention-days:180}")
+    private int retentionDays;
+    // 每批归档的订单数
+    @Value("${hotel.archive.batch-size:500}")
+    private int batchSize;
+    // 批次之间的暂停时间（毫秒）
+    @Value("${hotel.archive.batch-pause-ms:200}")
+    private long batchPauseMillis;
+
+    private final AtomicLong runCount = new AtomicLong();
+    private final AtomicLong archivedCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private volatile long lastRunMillis;
+    private volatile int lastRunArchived;
+
+    /**
+     * 归档退房日期早于保留期限的订单，直到没有可归档的订单
+     */
+    @Scheduled(cron = "${hotel.archive.cron:0 30 3 * * *}")
+    public void archive() {
+        if (retentionDays <= 0) {
+            return;
+        }
+        LocalDate checkOutBefore = LocalDate.now().minusDays(retentionDays);
+        long startTime = System.currentTimeMillis();
+        int archived = 0;
+        orderArchiveService.loadWatermark();
+        try {
+            while (true) {
+                List<Integer> ids = orderArchiveService.archiveBatch(checkOutBefore, batchSize);
+                archived += ids.size();
+                archivedCount.addAndGet(ids.size());
+                batchCount.incrementAndGet();
+                if (ids.size() < batchSize) {
+                    break;
+                }
+                Thread.sleep(batchPauseMillis);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("订单归档被中断，已归档: {}", archived);
+        } catch (Exception e) {
+            failedCount.incrementAndGet();
+            logger.error("订单归档失败，已归档: {}", archived, e);
+        } finally {
+            runCount.incrementAndGet();
+            lastRunMillis = System.currentTimeMillis() - startTime;
+            lastRunArchived = archived;
+        }
+        if (archived > 0) {
+            // 归档订单已移出读模型，重新统计各状态的订单数
+            orderCountEstimator.refresh();
+        }
+        logger.info("订单归档完成，退房日期早于: {}，归档订单数: {}，耗时: {} ms", checkOutBefore, archived, lastRunMillis);
+    }
+
+    /**
+     * 获取运行指标
+     * @return 指标名称与数值
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("enabled", retentionDays > 0);
+        metrics.put("retentionDays", retentionDays);
+        metrics.put("runs", runCount.get());
+        metrics.put("archived", archivedCount.get());
+        metrics.put("batches", batchCount.get());
+        metrics.put("failed", failedCount.get());
+        metrics.put("lastRunMillis", lastRunMillis);
+        metrics.put("lastRunArchived", lastRunArchived);
+        metrics.putAll(orderArchiveService.getWatermark());
+        return metrics;
+    }
+}
@@ -0,0 +1,154 @@
+package org.example.hotelmanagementsystem.service;
+
+import org.example.hotelmanagementsystem.dto.OrderQueryDto;
+import org.example.hotelmanagementsystem.mapper.OrderArchiveMapper;
+import org.example.hotelmanagementsystem.mapper.OrderViewMapper;
+import org.example.hotelmanagementsystem.util.TimestampUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 订单归档
+ * 已退房、已取消或未到店，且退房日期早于保留期限的订单分批移入 orders_archive，订单表与读模型只保留近期订单。
+ * 维护归档水位（已归档订单的最晚入住日期与最晚创建时间），历史查询的范围早于水位时才需要合并归档表。
+ */
+@Service
+public class OrderArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderArchiveService.class);
+
+    // 可归档的订单状态（不会再流转的终态）
+    private static final List<String> ARCHIVABLE_STATUSES = Arrays.asList("checked_out", "cancelled", "no_show");
+
+    @Autowired
+    private OrderArchiveMapper orderArchiveMapper;
+    @Autowired
+    private OrderViewMapper orderViewMapper;
+
+    // 已归档订单的最晚入住日期与最晚创建时间，没有归档订单时为 null
+    private volatile LocalDate archivedCheckInThrough;
+    private volatile Long archivedCreatedThrough;
+
+    /**
+     * 启动时及每次归档前从归档表读取水位，其他节点归档的订单也能被查询到
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadWatermark() {
+        try {
+            Map<String, Object> watermark = orderArchiveMapper.getArchiveWatermark();
+            if (watermark != null && watermark.get("checkInDate") != null) {
+                archivedCheckInThrough = LocalDate.parse(watermark.get("checkInDate").toString().substring(0, 10));
+                archivedCreatedThrough = ((Number) watermark.get("createdAt")).longValue();
+            }
+            logger.debug("订单归档水位，入住日期: {}，创建时间: {}", archivedCheckInThrough, archivedCreatedThrough);
+        } catch (Exception e) {
+            logger.error("读取订单归档水位失败", e);
+        }
+    }
+
+    /**
+     * 归档一批订单：锁定可归档的订单，复制到归档表后从订单表和读模型中删除
+     * @param checkOutBefore 退房日期截止（不含）
+     * @param limit 本批最多归档的订单数
+     * @return 本批归档的订单ID
+     */
+    @Transactional
+    public List<Integer> archiveBatch(LocalDate checkOutBefore, int limit) {
+        List<Integer> ids = orderArchiveMapper.lockArchivableOrderIds(ARCHIVABLE_STATUSES, checkOutBefore.toString(), limit);
+        if (ids.isEmpty()) {
+            return ids;
+        }
+        orderArchiveMapper.insertArchivedOrders(ids, TimestampUtil.getCurrentTimestamp());
+        orderViewMapper.deleteOrderViews(ids);
+        orderArchiveMapper.deleteOrders(ids);
+        // 提交前提高水位（本事务可见刚写入的归档订单），提交后的查询不会漏掉这批订单
+        loadWatermark();
+        return ids;
+    }
+
+    /**
+     * 是否存在归档订单
+     */
+    public boolean hasArchivedOrders() {
+        return archivedCheckInThrough != null;
+    }
+
+    /**
+     * 订单查询是否需要合并归档订单：显式要求、按订单ID或编号精确查询，入住日期下限不晚于归档水位，
+     * 或只指定入住日期上限（范围向前不限，必然包含已归档的入住日期）。
+     * 入住日期上下限都未指定的列表查询只读取未归档订单
+     * @param query 查询条件
+     * @return 是否需要合并归档表
+     */
+    public boolean covers(OrderQueryDto query) {
+        if (!hasArchivedOrders()) {
+            return false;
+        }
+        if (Boolean.TRUE.equals(query.getIncludeArchived()) || query.getId() != null
+                || (query.getOrderNumber() != null && !query.getOrderNumber().isEmpty())) {
+            return true;
+        }
+        String start = query.getCheckInDateStart();
+        if (start != null && !start.isEmpty()) {
+            return coversCheckInFrom(start);
+        }
+        String end = query.getCheckInDateEnd();
+        return end != null && !end.isEmpty();
+    }
+
+    /**
+     * 从指定入住日期开始的查询是否需要合并归档订单
+     * @param startDate 入住日期下限（yyyy-MM-dd，为空表示不限）
+     * @return 是否需要合并归档表
+     */
+    public boolean coversCheckInFrom(String startDate) {
+        LocalDate through = archivedCheckInThrough;
+        if (through == null) {
+            return false;
+        }
+        if (startDate == null || startDate.isEmpty()) {
+            return true;
+        }
+        try {
+            return !LocalDate.parse(startDate).isAfter(through);
+        } catch (DateTimeParseException e) {
+            return true;
+        }
+    }
+
+    /**
+     * 从指定创建时间开始的查询是否需要合并归档订单
+     * @param startTimestamp 创建时间下限（为 null 表示不限）
+     * @return 是否需要合并归档表
+     */
+    public boolean coversCreatedFrom(Long startTimestamp) {
+        Long through = archivedCreatedThrough;
+        if (through == null) {
+            return false;
+        }
+        return startTimestamp == null || startTimestamp <= through;
+    }
+
+    /**
+     * 获取归档水位
+     * @return 已归档订单的最晚入住日期与最晚创建时间
+     */
+    public Map<String, Object> getWatermark() {
+        Map<String, Object> watermark = new LinkedHashMap<>();
+        watermark.put("archivedCheckInThrough", archivedCheckInThrough == null ? null : archivedCheckInThrough.toString());
+        watermark.put("archivedCreatedThrough", archivedCreatedThrough);
+        return watermark;
+    }
+}
@@ -0,0 +1,137 @@
+package org.example.hotelmanagementsystem.service;
+
+import org.example.hotelmanagementsystem.dto.OrderQueryDto;
+import org.example.hotelmanagementsystem.entity.Orders;
+import org.example.hotelmanagementsystem.event.OrderChangedEvent;
+import org.example.hotelmanagementsystem.mapper.OrderMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 订单数估算
+ * 无筛选条件或只按状态筛选时，由内存中按状态维护的订单数直接给出（订单变更提交后增减，并定期从数据库校正）；
+ * 其他筛选条件取数据库优化器对查询的行数估算（EXPLAIN），两种方式都不需要扫描订单表。
+ */
+@Service
+public class OrderCountEstimator {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderCountEstimator.class);
+
+    @Autowired
+    private OrderMapper orderMapper;
+
+    // 订单状态 -> 订单数，未加载完成时为 null
+    private volatile Map<String, AtomicLong> statusCounts;
+
+    /**
+     * 启动时及定期从数据库统计各状态的订单数，校正其他节点产生的变更
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${hotel.order.count-refresh-cron:0 */10 * * * *}")
+    public void refresh() {
+        try {
+            Map<String, AtomicLong> counts = new ConcurrentHashMap<>();
+            for (Map<String, Object> row : orderMapper.countOrdersByStatus()) {
+                Object status = row.get("status");
+                if (status != null) {
+                    counts.put(status.toString(), new AtomicLong(((Number) row.get("total")).longValue()));
+                }
+            }
+            statusCounts = counts;
+            logger.debug("订单数统计已刷新: {}", counts);
+        } catch (Exception e) {
+            logger.error("统计订单数失败，总数将改用执行计划估算", e);
+        }
+    }
+
+    /**
+     * 订单新增或状态变更后调整计数（事务提交后执行）
+     * @param event 订单变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        Map<String, AtomicLong> counts = statusCounts;
+        Orders order = event.getOrder();
+        if (counts == null || order == null) {
+            return;
+        }
+        String fromStatus = event.getFromStatus();
+        String toStatus = order.getStatus();
+        if (toStatus == null || toStatus.equals(fromStatus)) {
+            return;
+        }
+        if (fromStatus != null) {
+            counts.computeIfAbsent(fromStatus, k -> new AtomicLong()).decrementAndGet();
+        }
+        counts.computeIfAbsent(toStatus, k -> new AtomicLong()).incrementAndGet();
+    }
+
+    /**
+     * 估算符合条件的订单数
+     * @param query 查询条件
+     * @param hotelIds 由酒店名称解析出的酒店ID（为空时按 LIKE 筛选）
+     * @param archived 是否合并归档订单（内存计数只包含未归档订单，合并时改用执行计划估算）
+     * @return 估算的订单数
+     */
+    public long estimate(OrderQueryDto query, Collection<Integer> hotelIds, boolean archived) {
+        Map<String, AtomicLong> counts = statusCounts;
+        if (counts != null && hotelIds == null && !archived && hasOnlyStatusFilter(query)) {
+            if (isEmpty(query.getStatus())) {
+                long total = 0;
+                for (AtomicLong count : counts.values()) {
+                    total += count.get();
+                }
+                return Math.max(total, 0);
+            }
+            AtomicLong count = counts.get(query.getStatus());
+            return count == null ? 0 : Math.max(count.get(), 0);
+        }
+        // 执行计划中每张表一行，估算行数为最外层查询各表扫描行数与过滤比例的乘积；
+        // 合并归档表时最外层为派生表，其行数已是两张表估算之和
+        double estimate = 1;
+        List<Map<String, Object>> plan = orderMapper.explainOrders(query, hotelIds, archived);
+        Object outerId = plan.isEmpty() ? null : plan.get(0).get("id");
+        for (Map<String, Object> row : plan) {
+            if (outerId != null && !outerId.toString().equals(String.valueOf(row.get("id")))) {
+                continue;
+            }
+            Object rows = row.get("rows");
+            Object filtered = row.get("filtered");
+            if (rows instanceof Number) {
+                estimate *= ((Number) rows).doubleValue();
+            }
+            if (filtered instanceof Number) {
+                estimate *= ((Number) filtered).doubleValue() / 100;
+            }
+        }
+        return plan.isEmpty() ? 0 : Math.round(estimate);
+    }
+
+    private static boolean hasOnlyStatusFilter(OrderQueryDto query) {
+        return query.getId() == null
+                && isEmpty(query.getOrderNumber())
+                && query.getCustomerId() == null
+                && isEmpty(query.getCustomerName())
+                && query.getRoomId() == null
+                && query.getHotelId() == null
+                && isEmpty(query.getHotelName())
+                && isEmpty(query.getCheckInDateStart())
+                && isEmpty(query.getCheckInDateEnd());
+    }
+
+    private static boolean isEmpty(String value) {
+        return value == null || value.isEmpty();
+    }
+}
@@ -0,0 +1,298 @@
+package org.example.hotelmanagementsystem.service;
+
+import org.example.hotelmanagementsystem.dto.OrderDto;
+import org.example.hotelmanagementsystem.event.CustomerChangedEvent;
+import org.example.hotelmanagementsystem.event.HotelChangedEvent;
+import org.example.hotelmanagementsystem.event.OrderChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 订单详情缓存
+ * 按订单ID缓存订单详情，按最近最少使用淘汰。订单变更提交后失效该订单；
+ * 客户、酒店或房间信息变更提交后，按客户ID、酒店ID反查并失效引用它们的订单。
+ */
+@Service
+public class OrderDetailCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderDetailCache.class);
+
+    // 最多缓存的订单数，0 表示不缓存
+    @Value("${hotel.order-cache.max-entries:10000}")
+    private int maxEntries;
+    // 条目存活时间（秒），用于兜底其他节点产生的变更
+    @Value("${hotel.order-cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // 订单ID -> 条目，按访问顺序排列，最久未访问的条目在最前
+    private final LinkedHashMap<Integer, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // 客户ID、酒店ID -> 引用它们的已缓存订单ID
+    private final Map<Integer, Set<Integer>> ordersByCustomer = new HashMap<>();
+    private final Map<Integer, Set<Integer>> ordersByHotel = new HashMap<>();
+    // 失效时钟，每次失效时递增；分别记录每个订单、客户、酒店最近一次失效时的时钟值，
+    // 读取开始后该订单或其关联的客户、酒店发生过失效时结果不再写入，其他订单的失效不影响写入
+    private long generation;
+    private final Map<Integer, Long> orderInvalidatedAt = new HashMap<>();
+    private final Map<Integer, Long> customerInvalidatedAt = new HashMap<>();
+    private final Map<Integer, Long> hotelInvalidatedAt = new HashMap<>();
+    // 失效记录超过上限时整体清空，此前开始的读取一律不写入
+    private long invalidatedThrough;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong putCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+    private final AtomicLong expiredCount = new AtomicLong();
+    private final AtomicLong invalidationCount = new AtomicLong();
+
+    /**
+     * 查询缓存
+     * @param id 订单ID
+     * @return 缓存的订单详情，未命中时返回 null
+     */
+    public OrderDto get(Integer id) {
+        if (!isEnabled()) {
+            return null;
+        }
+        lock.lock();
+        try {
+            Entry entry = entries.get(id);
+            if (entry != null && entry.expiresAt < System.currentTimeMillis()) {
+                remove(id);
+                expiredCount.incrementAndGet();
+                entry = null;
+            }
+            if (entry == null) {
+                missCount.incrementAndGet();
+                return null;
+            }
+            hitCount.incrementAndGet();
+            return copy(entry.order);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 获取当前失效时钟，查询数据库前调用，写入缓存时传回
+     * @return 失效时钟
+     */
+    public long generation() {
+        lock.lock();
+        try {
+            return generation;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 写入订单详情，读取期间该订单或其客户、酒店发生过失效时放弃写入，避免缓存旧数据
+     * @param order 订单详情
+     * @param expectedGeneration 查询前获取的失效时钟
+     */
+    public void put(OrderDto order, long expectedGeneration) {
+        if (!isEnabled() || order == null || order.getId() == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (isInvalidatedSince(order, expectedGeneration)) {
+                return;
+            }
+            remove(order.getId());
+            entries.put(order.getId(), new Entry(copy(order),
+                    System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(ttlSeconds)));
+            link(ordersByCustomer, order.getCustomerId(), order.getId());
+            link(ordersByHotel, order.getHotelId(), order.getId());
+            putCount.incrementAndGet();
+            while (entries.size() > maxEntries) {
+                remove(entries.keySet().iterator().next());
+                evictionCount.incrementAndGet();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 订单新增或变更后失效该订单（事务提交后执行）
+     * @param event 订单变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        if (event.getOrder() != null) {
+            invalidate(event.getOrder().getId());
+        }
+    }
+
+    /**
+     * 客户信息变更后失效该客户的订单（事务提交后执行）
+     * @param event 客户变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCustomerChanged(CustomerChangedEvent event) {
+        if (event.getCustomer() != null) {
+            invalidateAll(ordersByCustomer, customerInvalidatedAt, event.getCustomer().getId());
+        }
+    }
+
+    /**
+     * 酒店或房间信息变更后失效该酒店的订单（事务提交后执行）
+     * @param event 酒店变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHotelChanged(HotelChangedEvent event) {
+        invalidateAll(ordersByHotel, hotelInvalidatedAt, event.getHotelId());
+    }
+
+    /**
+     * 获取运行指标
+     * @return 指标名称与数值
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        long hits = hitCount.get();
+        long misses = missCount.get();
+        metrics.put("enabled", isEnabled());
+        metrics.put("maxEntries", maxEntries);
+        lock.lock();
+        try {
+            metrics.put("size", entries.size());
+        } finally {
+            lock.unlock();
+        }
+        metrics.put("hits", hits);
+        metrics.put("misses", misses);
+        metrics.put("hitRate", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+        metrics.put("puts", putCount.get());
+        metrics.put("evictions", evictionCount.get());
+        metrics.put("expirations", expiredCount.get());
+        metrics.put("invalidations", invalidationCount.get());
+        return metrics;
+    }
+
+    private void invalidate(Integer orderId) {
+        if (!isEnabled() || orderId == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            recordInvalidation(orderInvalidatedAt, orderId);
+            if (remove(orderId)) {
+                invalidationCount.incrementAndGet();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void invalidateAll(Map<Integer, Set<Integer>> index, Map<Integer, Long> invalidatedAt, Integer key) {
+        if (!isEnabled() || key == null) {
+            return;
+        }
+        int removed = 0;
+        lock.lock();
+        try {
+            recordInvalidation(invalidatedAt, key);
+            Set<Integer> orderIds = index.get(key);
+            if (orderIds != null) {
+                for (Integer orderId : new HashSet<>(orderIds)) {
+                    if (remove(orderId)) {
+                        removed++;
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        invalidationCount.addAndGet(removed);
+        logger.debug("关联信息变更，失效订单详情缓存 {} 个", removed);
+    }
+
+    // 调用方需持有锁
+    private void recordInvalidation(Map<Integer, Long> invalidatedAt, Integer key) {
+        generation++;
+        if (orderInvalidatedAt.size() + customerInvalidatedAt.size() + hotelInvalidatedAt.size() >= maxEntries) {
+            orderInvalidatedAt.clear();
+            customerInvalidatedAt.clear();
+            hotelInvalidatedAt.clear();
+            invalidatedThrough = generation;
+        }
+        invalidatedAt.put(key, generation);
+    }
+
+    // 调用方需持有锁
+    private boolean isInvalidatedSince(OrderDto order, long expectedGeneration) {
+        return expectedGeneration < invalidatedThrough
+                || isAfter(orderInvalidatedAt.get(order.getId()), expectedGeneration)
+                || isAfter(order.getCustomerId() == null ? null : customerInvalidatedAt.get(order.getCustomerId()), expectedGeneration)
+                || isAfter(order.getHotelId() == null ? null : hotelInvalidatedAt.get(order.getHotelId()), expectedGeneration);
+    }
+
+    private static boolean isAfter(Long invalidatedAt, long expectedGeneration) {
+        return invalidatedAt != null && invalidatedAt > expectedGeneration;
+    }
+
+    // 调用方需持有锁
+    private boolean remove(Integer orderId) {
+        Entry entry = entries.remove(orderId);
+        if (entry == null) {
+            return false;
+        }
+        unlink(ordersByCustomer, entry.order.getCustomerId(), orderId);
+        unlink(ordersByHotel, entry.order.getHotelId(), orderId);
+        return true;
+    }
+
+    private static void link(Map<Integer, Set<Integer>> index, Integer key, Integer orderId) {
+        if (key != null) {
+            index.computeIfAbsent(key, k -> new HashSet<>()).add(orderId);
+        }
+    }
+
+    private static void unlink(Map<Integer, Set<Integer>> index, Integer key, Integer orderId) {
+        Set<Integer> orderIds = key == null ? null : index.get(key);
+        if (orderIds != null) {
+            orderIds.remove(orderId);
+            if (orderIds.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    // 缓存中保存副本，调用方修改返回值不会影响缓存
+    private static OrderDto copy(OrderDto order) {
+        OrderDto copy = new OrderDto();
+        BeanUtils.copyProperties(order, copy);
+        return copy;
+    }
+
+    private boolean isEnabled() {
+        return maxEntries > 0;
+    }
+
+    private static class Entry {
+        final OrderDto order;
+        final long expiresAt;
+
+        Entry(OrderDto order, long expiresAt) {
+            this.order = order;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,492 @@
+package org.example.hotelmanagementsystem.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import org.example.hotelmanagementsystem.dto.OrderStatusChangeDto;
+import org.example.hotelmanagementsystem.entity.Orders;
+import org.example.hotelmanagementsystem.event.OrderChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * 订单状态变更日志
+ * 订单状态变更提交后追加一条二进制记录（订单ID、原状态、新状态、毫秒时间戳、操作人）到内存映射的分段文件，
+ * 定期刷盘；按订单或时间段回放历史时只读取日志文件，不访问数据库。
+ * <p>
+ * 分段文件头：魔数(4) 版本(4) 首条记录时间下限(8)；
+ * 记录：长度(4) CRC32C(4) 订单ID(4) 时间戳(8) 原状态 新状态 操作人，
+ * 状态为 1 字节编码（{@link #STATUS_CODES} 的下标，未登记的状态写 0x7F 后跟字符串），字符串为 1 字节长度加 UTF-8 内容。
+ * 长度为 0 表示已写入的末尾；长度或校验和不正确的记录（进程中断时写了一半）视为末尾。
+ * 时间戳单调不减，按时间段回放时可跳过不相关的分段。
+ */
+@Service
+public class OrderEventJournal {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderEventJournal.class);
+
+    private static final int MAGIC = 0x4F4A4E4C;
+    private static final int VERSION = 1;
+    private static final int SEGMENT_HEADER_BYTES = 16;
+    private static final int RECORD_HEADER_BYTES = 8;
+    // 订单ID + 时间戳 + 两个状态编码 + 操作人长度
+    private static final int MIN_BODY_BYTES = 4 + 8 + 1 + 1 + 1;
+    // 两个状态都写为字符串、操作人取满 255 字节时的长度
+    private static final int MAX_BODY_BYTES = MIN_BODY_BYTES + 2 * 256 + 255;
+    // 回放已写满的分段时每次读取的字节数，远大于单条记录的最大长度
+    private static final int READ_BUFFER_BYTES = 64 * 1024;
+    private static final String SEGMENT_PREFIX = "orders-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+    // 状态编码，只能在末尾追加，不能调整已有顺序
+    private static final String[] STATUS_CODES = {null, "pending", "confirmed", "cancelled", "checked_in", "checked_out", "no_show"};
+    private static final byte LITERAL_STATUS = 0x7F;
+    private static final String OPERATOR_HEADER = "X-Operator";
+
+    // 日志目录，留空时不记录
+    @Value("${hotel.order-journal.dir:data/order-journal}")
+    private String dir;
+    // 单个分段文件大小（MB）
+    @Value("${hotel.order-journal.segment-size-mb:64}")
+    private int segmentSizeMb;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private Path directory;
+    // 已有分段，按序号递增排列，最后一个为当前写入的分段
+    private final List<Segment> segments = new ArrayList<>();
+    private MappedByteBuffer active;
+    private long lastTimestamp;
+    private boolean dirty;
+
+    private final AtomicLong appendCount = new AtomicLong();
+    private final AtomicLong appendFailureCount = new AtomicLong();
+    private final AtomicLong fsyncCount = new AtomicLong();
+    private final AtomicLong rollCount = new AtomicLong();
+
+    /**
+     * 打开日志目录，定位最后一个分段的写入位置
+     */
+    @PostConstruct
+    public void open() throws IOException {
+        if (!isEnabled()) {
+            logger.info("未配置订单状态变更日志目录，不记录状态变更");
+            return;
+        }
+        directory = Paths.get(dir);
+        Files.createDirectories(directory);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                long firstTimestamp = readSegmentHeader(file);
+                if (firstTimestamp >= 0) {
+                    segments.add(new Segment(parseSequence(file), file, firstTimestamp));
+                } else {
+                    logger.warn("忽略无法识别的订单日志文件: {}", file);
+                }
+            }
+        }
+        segments.sort((a, b) -> Long.compare(a.sequence, b.sequence));
+        if (segments.isEmpty()) {
+            createSegment(0, System.currentTimeMillis());
+        } else {
+            Segment last = segments.get(segments.size() - 1);
+            active = mapForWrite(last.path);
+            int end = scan(active, SEGMENT_HEADER_BYTES, active.capacity(), record -> lastTimestamp = Math.max(lastTimestamp, record.getChangedAt()));
+            if (end + 4 <= active.capacity() && active.getInt(end) != 0) {
+                // 进程中断时写了一半的记录，清零后从该位置继续写入
+                logger.warn("订单日志 {} 在位置 {} 处记录不完整，已截断", last.path, end);
+                for (int i = end; i < active.capacity(); i++) {
+                    active.put(i, (byte) 0);
+                }
+                active.force();
+            }
+            active.position(end);
+            lastTimestamp = Math.max(lastTimestamp, last.firstTimestamp);
+        }
+        logger.info("订单状态变更日志已打开，目录: {}，分段数: {}", directory.toAbsolutePath(), segments.size());
+    }
+
+    /**
+     * 订单状态变更后追加记录（事务提交后执行）
+     * @param event 订单变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        Orders order = event.getOrder();
+        if (order == null || order.getId() == null || Objects.equals(event.getFromStatus(), order.getStatus())) {
+            return;
+        }
+        try {
+            append(order.getId(), event.getFromStatus(), order.getStatus(), currentActor());
+        } catch (Exception e) {
+            appendFailureCount.incrementAndGet();
+            logger.error("写入订单状态变更日志失败，订单ID: {}", order.getId(), e);
+        }
+    }
+
+    /**
+     * 追加一条状态变更记录
+     * @param orderId 订单ID
+     * @param fromStatus 原状态（新建订单为 null）
+     * @param toStatus 新状态
+     * @param actor 操作人
+     */
+    public void append(Integer orderId, String fromStatus, String toStatus, String actor) throws IOException {
+        if (!isEnabled()) {
+            return;
+        }
+        ByteBuffer body = ByteBuffer.allocate(MAX_BODY_BYTES);
+        body.putInt(orderId);
+        body.putLong(0);
+        putStatus(body, fromStatus);
+        putStatus(body, toStatus);
+        putString(body, actor);
+        body.flip();
+        int length = RECORD_HEADER_BYTES + body.remaining();
+        lock.lock();
+        try {
+            // 时间戳单调不减，时间段回放可据此提前结束
+            long timestamp = Math.max(System.currentTimeMillis(), lastTimestamp);
+            body.putLong(4, timestamp);
+            if (active.remaining() < length + 4) {
+                roll(timestamp);
+            }
+            CRC32C crc = new CRC32C();
+            crc.update(body.duplicate());
+            int position = active.position();
+            active.position(position + RECORD_HEADER_BYTES);
+            active.put(body);
+            active.putInt(position + 4, (int) crc.getValue());
+            // 长度最后写入，读到非 0 长度时记录内容已完整
+            active.putInt(position, length);
+            lastTimestamp = timestamp;
+            dirty = true;
+            appendCount.incrementAndGet();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 定期将当前分段刷盘
+     */
+    @Scheduled(fixedDelayString = "${hotel.order-journal.fsync-interval-ms:1000}")
+    public void flush() {
+        MappedByteBuffer buffer;
+        lock.lock();
+        try {
+            if (!dirty) {
+                return;
+            }
+            buffer = active;
+            dirty = false;
+        } finally {
+            lock.unlock();
+        }
+        buffer.force();
+        fsyncCount.incrementAndGet();
+    }
+
+    @PreDestroy
+    public void close() {
+        if (isEnabled() && active != null) {
+            flush();
+        }
+    }
+
+    /**
+     * 回放订单的全部状态变更
+     * @param orderId 订单ID
+     * @return 状态变更记录，按时间先后排列
+     */
+    public List<OrderStatusChangeDto> replayOrder(Integer orderId) {
+        List<OrderStatusChangeDto> changes = new ArrayList<>();
+        replay(Long.MIN_VALUE, Long.MAX_VALUE, orderId, changes::add);
+        return changes;
+    }
+
+    /**
+     * 回放时间段内的全部状态变更
+     * @param from 起始时间（毫秒时间戳，含）
+     * @param to 结束时间（毫秒时间戳，含）
+     * @return 状态变更记录，按时间先后排列
+     */
+    public List<OrderStatusChangeDto> replayRange(long from, long to) {
+        List<OrderStatusChangeDto> changes = new ArrayList<>();
+        replay(from, to, null, changes::add);
+        return changes;
+    }
+
+    /**
+     * 按时间段和订单回放状态变更
+     * @param from 起始时间（毫秒时间戳，含）
+     * @param to 结束时间（毫秒时间戳，含）
+     * @param orderId 订单ID（为 null 时不限）
+     * @param consumer 逐条接收记录
+     */
+    public void replay(long from, long to, Integer orderId, Consumer<OrderStatusChangeDto> consumer) {
+        if (!isEnabled()) {
+            return;
+        }
+        List<Segment> snapshot;
+        ByteBuffer activeView;
+        lock.lock();
+        try {
+            snapshot = new ArrayList<>(segments);
+            // 当前分段只读取已写入的部分，之后的追加不影响本次回放
+            activeView = active.duplicate();
+            activeView.limit(active.position());
+        } finally {
+            lock.unlock();
+        }
+        for (int i = 0; i < snapshot.size(); i++) {
+            Segment segment = snapshot.get(i);
+            if (segment.firstTimestamp > to) {
+                break;
+            }
+            if (i + 1 < snapshot.size() && snapshot.get(i + 1).firstTimestamp < from) {
+                continue;
+            }
+            Consumer<OrderStatusChangeDto> filter = record -> {
+                if (record.getChangedAt() >= from && record.getChangedAt() <= to
+                        && (orderId == null || orderId.equals(record.getOrderId()))) {
+                    consumer.accept(record);
+                }
+            };
+            if (i == snapshot.size() - 1) {
+                scan(activeView, SEGMENT_HEADER_BYTES, activeView.limit(), filter);
+                continue;
+            }
+            // 已写满的分段不再映射，用固定大小的缓冲区顺序读取，回放不会累积映射的地址空间
+            try {
+                scanSealed(segment.path, filter);
+            } catch (IOException e) {
+                throw new RuntimeException("读取订单日志失败: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 获取运行指标
+     * @return 指标名称与数值
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("enabled", isEnabled());
+        if (isEnabled()) {
+            lock.lock();
+            try {
+                metrics.put("segments", segments.size());
+                metrics.put("activeSegmentBytes", active.position());
+            } finally {
+                lock.unlock();
+            }
+        }
+        metrics.put("appended", appendCount.get());
+        metrics.put("appendFailures", appendFailureCount.get());
+        metrics.put("fsyncs", fsyncCount.get());
+        metrics.put("rolls", rollCount.get());
+        return metrics;
+    }
+
+    // 调用方需持有锁
+    private void roll(long timestamp) throws IOException {
+        active.force();
+        dirty = false;
+        createSegment(segments.get(segments.size() - 1).sequence + 1, timestamp);
+        rollCount.incrementAndGet();
+    }
+
+    private void createSegment(long sequence, long firstTimestamp) throws IOException {
+        Path path = directory.resolve(String.format("%s%010d%s", SEGMENT_PREFIX, sequence, SEGMENT_SUFFIX));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            active = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) segmentSizeMb * 1024 * 1024);
+        }
+        active.putInt(MAGIC);
+        active.putInt(VERSION);
+        active.putLong(firstTimestamp);
+        active.force();
+        segments.add(new Segment(sequence, path, firstTimestamp));
+        logger.info("创建订单日志分段: {}", path);
+    }
+
+    /**
+     * 从指定位置开始逐条读取完整的记录
+     * @return 最后一条完整记录之后的位置
+     */
+    private static int scan(ByteBuffer buffer, int start, int limit, Consumer<OrderStatusChangeDto> consumer) {
+        int position = start;
+        CRC32C crc = new CRC32C();
+        while (position + RECORD_HEADER_BYTES + MIN_BODY_BYTES <= limit) {
+            int length = buffer.getInt(position);
+            if (!isValidLength(length) || position + length > limit) {
+                break;
+            }
+            ByteBuffer body = buffer.duplicate();
+            body.limit(position + length).position(position + RECORD_HEADER_BYTES);
+            crc.reset();
+            crc.update(body.duplicate());
+            if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                break;
+            }
+            OrderStatusChangeDto record = new OrderStatusChangeDto();
+            record.setOrderId(body.getInt());
+            record.setChangedAt(body.getLong());
+            record.setFromStatus(getStatus(body));
+            record.setToStatus(getStatus(body));
+            record.setActor(getString(body));
+            consumer.accept(record);
+            position += length;
+        }
+        return position;
+    }
+
+    /**
+     * 通过文件通道顺序读取已写满的分段，每次读入固定大小的缓冲区，末尾不完整的记录移到缓冲区开头后继续读取
+     */
+    private static void scanSealed(Path path, Consumer<OrderStatusChangeDto> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            channel.position(SEGMENT_HEADER_BYTES);
+            ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_BYTES);
+            boolean eof = false;
+            while (true) {
+                while (!eof && buffer.hasRemaining()) {
+                    eof = channel.read(buffer) < 0;
+                }
+                buffer.flip();
+                int end = scan(buffer, 0, buffer.limit(), consumer);
+                if (eof || !isCutOff(buffer, end)) {
+                    return;
+                }
+                buffer.position(end);
+                buffer.compact();
+            }
+        }
+    }
+
+    // 缓冲区末尾的记录是否只读入了一部分（而不是已到末尾或记录损坏）
+    private static boolean isCutOff(ByteBuffer buffer, int position) {
+        int remaining = buffer.limit() - position;
+        if (remaining < RECORD_HEADER_BYTES + MIN_BODY_BYTES) {
+            return true;
+        }
+        int length = buffer.getInt(position);
+        return isValidLength(length) && length > remaining;
+    }
+
+    private static boolean isValidLength(int length) {
+        return length >= RECORD_HEADER_BYTES + MIN_BODY_BYTES && length <= RECORD_HEADER_BYTES + MAX_BODY_BYTES;
+    }
+
+    private static void putStatus(ByteBuffer buffer, String status) {
+        int code = Arrays.asList(STATUS_CODES).indexOf(status);
+        if (code >= 0) {
+            buffer.put((byte) code);
+        } else {
+            buffer.put(LITERAL_STATUS);
+            putString(buffer, status);
+        }
+    }
+
+    private static String getStatus(ByteBuffer buffer) {
+        byte code = buffer.get();
+        if (code == LITERAL_STATUS) {
+            return getString(buffer);
+        }
+        return code >= 0 && code < STATUS_CODES.length ? STATUS_CODES[code] : null;
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        byte[] bytes = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, 255);
+        buffer.put((byte) length);
+        buffer.put(bytes, 0, length);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.get() & 0xFF;
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static MappedByteBuffer mapForWrite(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        }
+    }
+
+    // 返回分段的首条记录时间下限，不是分段文件时返回 -1
+    private static long readSegmentHeader(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_BYTES);
+            while (header.hasRemaining() && channel.read(header) > 0) {
+                // 读满文件头
+            }
+            header.flip();
+            if (header.remaining() < SEGMENT_HEADER_BYTES || header.getInt() != MAGIC || header.getInt() != VERSION) {
+                return -1;
+            }
+            return header.getLong();
+        }
+    }
+
+    private static long parseSequence(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    // 操作人取自请求头，没有请求上下文（定时任务、异步写入线程）时为 system
+    private static String currentActor() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            HttpServletRequest request = servletAttributes.getRequest();
+            String operator = request.getHeader(OPERATOR_HEADER);
+            return operator == null || operator.isBlank() ? "api" : operator;
+        }
+        return "system";
+    }
+
+    private boolean isEnabled() {
+        return dir != null && !dir.isEmpty();
+    }
+
+    private static class Segment {
+        final long sequence;
+        final Path path;
+        final long firstTimestamp;
+
+        Segment(long sequence, Path path, long firstTimestamp) {
+            this.sequence = sequence;
+            this.path = path;
+            this.firstTimestamp = firstTimestamp;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package org.example.hotelmanagementsystem.service;
+
+public interface OrderNumberGenerator {
+    
+    /**
+     * 生成订单编号（按生成时间递增，全局唯一）
+     * @return 订单编号
+     */
+    String nextOrderNumber();
+}
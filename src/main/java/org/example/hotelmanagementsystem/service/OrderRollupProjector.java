@@ -0,0 +1,95 @@
+package org.example.hotelmanagementsystem.service;
+
+import org.example.hotelmanagementsystem.dto.OrderRollupDeltaDto;
+import org.example.hotelmanagementsystem.entity.Orders;
+import org.example.hotelmanagementsystem.event.OrderChangedEvent;
+import org.example.hotelmanagementsystem.mapper.OrderRollupMapper;
+import org.example.hotelmanagementsystem.util.TimestampUtil;
+import org.example.hotelmanagementsystem.util.TransactionalBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 订单日汇总投影
+ * 订单新增或变更时，按 (房间, 下单日, 状态) 记录订单数与金额的增量：原状态减一、新状态加一，
+ * 在同一事务提交前合并写入 order_daily_rollups，汇总与订单同时提交或回滚。
+ */
+@Service
+public class OrderRollupProjector {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderRollupProjector.class);
+
+    @Autowired
+    private OrderRollupMapper orderRollupMapper;
+
+    private final TransactionalBuffer<PendingRollup> buffer = new TransactionalBuffer<>(PendingRollup::new, this::flush);
+
+    /**
+     * 订单新增或变更
+     * @param event 订单变更事件
+     */
+    @EventListener
+    public void onOrderChanged(OrderChangedEvent event) {
+        Orders order = event.getOrder();
+        if (order == null || order.getId() == null) {
+            return;
+        }
+        Orders previous = event.getPrevious();
+        buffer.add(pending -> {
+            if (previous != null) {
+                // 修改订单时按变更前后的快照整体替换
+                pending.add(previous, previous.getStatus(), -1);
+            } else if (event.getFromStatus() != null) {
+                pending.add(order, event.getFromStatus(), -1);
+            }
+            pending.add(order, order.getStatus(), 1);
+        });
+    }
+
+    private void flush(PendingRollup pending) {
+        // 状态变更后又变回等相互抵消的增量不写入
+        List<OrderRollupDeltaDto> deltas = new ArrayList<>();
+        for (OrderRollupDeltaDto delta : pending.deltas.values()) {
+            if (delta.getOrderCount() != 0 || delta.getTotalAmount().signum() != 0) {
+                deltas.add(delta);
+            }
+        }
+        if (!deltas.isEmpty()) {
+            orderRollupMapper.applyDeltas(deltas);
+        }
+        logger.debug("订单日汇总已更新，增量: {}", deltas.size());
+    }
+
+    private static class PendingRollup {
+        // 房间ID、下单日、状态 -> 增量
+        final Map<String, OrderRollupDeltaDto> deltas = new LinkedHashMap<>();
+
+        void add(Orders order, String status, int sign) {
+            if (order.getRoomId() == null || order.getCreatedAt() == null || status == null) {
+                return;
+            }
+            String day = TimestampUtil.fromTimestamp(order.getCreatedAt()).toLocalDate().toString();
+            OrderRollupDeltaDto delta = deltas.computeIfAbsent(order.getRoomId() + "|" + day + "|" + status, k -> {
+                OrderRollupDeltaDto created = new OrderRollupDeltaDto();
+                created.setRoomId(order.getRoomId());
+                created.setDay(day);
+                created.setStatus(status);
+                created.setOrderCount(0);
+                created.setTotalAmount(BigDecimal.ZERO);
+                return created;
+            });
+            BigDecimal amount = order.getTotalAmount() == null ? BigDecimal.ZERO : order.getTotalAmount();
+            delta.setOrderCount(delta.getOrderCount() + sign);
+            delta.setTotalAmount(sign > 0 ? delta.getTotalAmount().add(amount) : delta.getTotalAmount().subtract(amount));
+        }
+    }
+}
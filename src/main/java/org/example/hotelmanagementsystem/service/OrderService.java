@@ -1,7 +1,12 @@
 package org.example.hotelmanagementsystem.service;
 
+import org.example.hotelmanagementsystem.dto.BulkTransitionRequestDto;
 import org.example.hotelmanagementsystem.dto.OrderDto;
+import org.example.hotelmanagementsystem.dto.OrderPageDto;
 import org.example.hotelmanagementsystem.dto.OrderQueryDto;
+import org.example.hotelmanagementsystem.dto.OrderStatusChangeDto;
+import org.example.hotelmanagementsystem.dto.OrderTransitionItemDto;
+import org.example.hotelmanagementsystem.dto.OrderTransitionResultDto;
 import org.example.hotelmanagementsystem.dto.OrderUpdateDto;
 import java.util.List;
 
@@ -14,6 +19,13 @@ public interface OrderService {
      */
     List<OrderDto> findOrders(OrderQueryDto query);
     
+    /**
+     * 分页查询订单列表（按创建时间倒序）
+     * @param query 查询条件（pageSize、cursor、withTotal）
+     * @return 订单分页结果
+     */
+    OrderPageDto findOrderPage(OrderQueryDto query);
+    
     /**
      * 根据ID获取订单详情
      * @param id 订单ID
@@ -55,4 +67,41 @@ public interface OrderService {
      * @return 是否办理成功
      */
     boolean checkOutOrder(Integer id);
-}
\ No newline at end of file
+    
+    /**
+     * 批量流转订单状态，不存在或状态不允许该操作的订单跳过
+     * @param action 操作名（confirm、cancel、check-in、check-out）
+     * @param ids 订单ID列表
+     * @return 流转结果
+     */
+    OrderTransitionResultDto transitionOrders(String action, List<Integer> ids);
+    
+    /**
+     * 批量办理入住
+     * @param request 订单ID列表，或酒店ID与入住日期（处理当日全部已确认的到店订单）
+     * @return 每个订单的处理结果
+     */
+    List<OrderTransitionItemDto> bulkCheckIn(BulkTransitionRequestDto request);
+    
+    /**
+     * 批量办理退房
+     * @param request 订单ID列表，或酒店ID与退房日期（处理当日全部已入住的离店订单）
+     * @return 每个订单的处理结果
+     */
+    List<OrderTransitionItemDto> bulkCheckOut(BulkTransitionRequestDto request);
+    
+    /**
+     * 查询订单的状态变更记录（读取状态变更日志）
+     * @param id 订单ID
+     * @return 状态变更记录，按时间先后排列
+     */
+    List<OrderStatusChangeDto> getOrderHistory(Integer id);
+    
+    /**
+     * 查询时间段内的订单状态变更记录（读取状态变更日志）
+     * @param from 起始时间（毫秒时间戳，为 null 时为结束时间前 24 小时）
+     * @param to 结束时间（毫秒时间戳，为 null 时为当前时间）
+     * @return 状态变更记录，按时间先后排列
+     */
+    List<OrderStatusChangeDto> findStatusChanges(Long from, Long to);
+}
@@ -0,0 +1,126 @@
+package org.example.hotelmanagementsystem.service;
+
+import org.example.hotelmanagementsystem.entity.Orders;
+import org.example.hotelmanagementsystem.event.OrderChangedEvent;
+import org.example.hotelmanagementsystem.exception.OrderStateConflictException;
+import org.example.hotelmanagementsystem.mapper.OrderMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * 订单状态流转
+ * 按 {@link OrderTransition} 状态表，以一条带原状态条件的 UPDATE（比较并设置）完成状态检查与写入，
+ * 影响行数为 0 即说明订单不存在或状态已被其他请求改变。
+ * 成功的流转共两条语句：UPDATE 加一次读取（多个原状态时在 UPDATE 之前加锁读取，否则在之后读取），读到的订单用于发布变更事件。
+ */
+@Service
+public class OrderStateMachine {
+    
+    private static final Logger logger = LoggerFactory.getLogger(OrderStateMachine.class);
+    
+    @Autowired
+    private OrderMapper orderMapper;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    /**
+     * 流转单个订单
+     * @param id 订单ID
+     * @param transition 流转
+     * @return 流转后的订单
+     * @throws OrderStateConflictException 订单当前状态不允许该操作
+     */
+    @Transactional
+    public Orders transition(Integer id, OrderTransition transition) {
+        List<String> expected = transition.getFromStatuses();
+        Orders order = null;
+        if (expected.size() > 1) {
+            // 有多个原状态时先锁定订单，以其当前状态作为比较值，事件中才能带上准确的原状态；
+            // 行锁保证读到的订单在本事务结束前不被修改，流转后可直接用于发布事件
+            List<Orders> locked = orderMapper.lockOrdersByIdsAndStatuses(Collections.singletonList(id), expected);
+            if (locked.isEmpty()) {
+                throw rejection(id, transition);
+            }
+            order = locked.get(0);
+            expected = Collections.singletonList(order.getStatus());
+        }
+        int result = orderMapper.transitionStatus(id, expected, transition.getToStatus());
+        if (result == 0) {
+            throw rejection(id, transition);
+        }
+        if (order == null) {
+            // 只有一个原状态时流转前没有读取，订单行锁由本事务持有，读到的即为本次流转后的订单
+            order = orderMapper.getOrderEntityById(id);
+        } else {
+            order.setStatus(transition.getToStatus());
+        }
+        eventPublisher.publishEvent(new OrderChangedEvent(order, expected.get(0)));
+        return order;
+    }
+    
+    /**
+     * 批量流转订单：先锁定处于允许原状态的订单，再用一条 UPDATE 完成流转，
+     * 不存在或状态不允许的订单跳过
+     * @param ids 订单ID列表
+     * @param transition 流转
+     * @return 实际完成流转的订单
+     */
+    @Transactional
+    public List<Orders> transitionAll(Collection<Integer> ids, OrderTransition transition) {
+        if (ids == null || ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Orders> orders = orderMapper.lockOrdersByIdsAndStatuses(new LinkedHashSet<>(ids), transition.getFromStatuses());
+        if (orders.isEmpty()) {
+            return orders;
+        }
+        List<Integer> lockedIds = new ArrayList<>(orders.size());
+        for (Orders order : orders) {
+            lockedIds.add(order.getId());
+        }
+        orderMapper.transitionStatusByIds(lockedIds, transition.getFromStatuses(), transition.getToStatus());
+        for (Orders order : orders) {
+            String fromStatus = order.getStatus();
+            order.setStatus(transition.getToStatus());
+            eventPublisher.publishEvent(new OrderChangedEvent(order, fromStatus));
+        }
+        logger.info("批量{}订单，请求: {}，完成: {}", transition.getLabel(), ids.size(), orders.size());
+        return orders;
+    }
+    
+    /**
+     * 流转未生效时读取订单，区分订单不存在与状态冲突
+     */
+    private RuntimeException rejection(Integer id, OrderTransition transition) {
+        Orders current = orderMapper.getOrderEntityById(id);
+        checkTransitionable(id, current, transition);
+        // 读到的状态允许流转，说明比较值已被并发请求改变
+        return conflict(id, current.getStatus(), transition);
+    }
+    
+    private static void checkTransitionable(Integer id, Orders order, OrderTransition transition) {
+        if (order == null) {
+            logger.warn("订单不存在，订单ID: {}", id);
+            throw new RuntimeException("订单不存在");
+        }
+        if (!transition.getFromStatuses().contains(order.getStatus())) {
+            throw conflict(id, order.getStatus(), transition);
+        }
+    }
+    
+    private static OrderStateConflictException conflict(Integer id, String currentStatus, OrderTransition transition) {
+        logger.warn("订单状态不正确，无法{}，订单ID: {}，当前状态: {}", transition.getLabel(), id, currentStatus);
+        return new OrderStateConflictException(id, currentStatus, transition.getToStatus(),
+                "订单状态不正确，无法" + transition.getLabel() + "（当前状态: " + currentStatus + "）");
+    }
+}
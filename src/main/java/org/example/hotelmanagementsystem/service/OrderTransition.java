@@ -0,0 +1,68 @@
+package org.example.hotelmanagementsystem.service;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 订单状态流转表
+ * 每种操作声明允许的原状态与目标状态。房间是否被占用由有效订单的入住区间推导，流转时不再修改房间状态
+ */
+public enum OrderTransition {
+    
+    CONFIRM("confirm", "确认", true, "confirmed", "pending"),
+    CANCEL("cancel", "取消", true, "cancelled", "pending", "confirmed"),
+    CHECK_IN("check-in", "办理入住", true, "checked_in", "confirmed"),
+    CHECK_OUT("check-out", "办理退房", true, "checked_out", "checked_in"),
+    // 保留超时自动取消：只针对待确认订单，仅由定时任务执行
+    EXPIRE_HOLD("expire-hold", "自动取消", false, "cancelled", "pending"),
+    // 夜审时到店日已过仍未入住的已确认订单标记为未到店，释放其入住区间，仅由夜审执行
+    NO_SHOW("no-show", "标记未到店", false, "no_show", "confirmed");
+    
+    // 接口中使用的操作名
+    private final String action;
+    // 是否允许通过接口执行，内部任务使用的流转不对外开放
+    private final boolean exposed;
+    // 操作的中文描述
+    private final String label;
+    private final String toStatus;
+    private final List<String> fromStatuses;
+    
+    OrderTransition(String action, String label, boolean exposed, String toStatus, String... fromStatuses) {
+        this.action = action;
+        this.exposed = exposed;
+        this.label = label;
+        this.toStatus = toStatus;
+        this.fromStatuses = Collections.unmodifiableList(Arrays.asList(fromStatuses));
+    }
+    
+    /**
+     * 根据操作名查找允许通过接口执行的流转
+     * @param action 操作名（如 confirm、check-in）
+     * @return 对应的流转
+     */
+    public static OrderTransition fromAction(String action) {
+        for (OrderTransition transition : values()) {
+            if (transition.exposed && transition.action.equals(action)) {
+                return transition;
+            }
+        }
+        throw new RuntimeException("不支持的订单操作: " + action);
+    }
+    
+    public String getAction() {
+        return action;
+    }
+    
+    public String getLabel() {
+        return label;
+    }
+    
+    public String getToStatus() {
+        return toStatus;
+    }
+    
+    public List<String> getFromStatuses() {
+        return fromStatuses;
+    }
+}
@@ -0,0 +1,85 @@
+package org.example.hotelmanagementsystem.service;
+
+import org.example.hotelmanagementsystem.event.CustomerChangedEvent;
+import org.example.hotelmanagementsystem.event.HotelChangedEvent;
+import org.example.hotelmanagementsystem.event.OrderChangedEvent;
+import org.example.hotelmanagementsystem.mapper.OrderViewMapper;
+import org.example.hotelmanagementsystem.util.TransactionalBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 订单读模型投影
+ * 订单、客户、酒店的写入发布变更事件时记录受影响的ID，在同一事务提交前一次性更新 order_views，
+ * 读模型与业务数据同时提交或回滚；批量预订等一个事务内的多次变更合并为一条语句。
+ */
+@Service
+public class OrderViewProjector {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderViewProjector.class);
+
+    @Autowired
+    private OrderViewMapper orderViewMapper;
+
+    private final TransactionalBuffer<PendingProjection> buffer = new TransactionalBuffer<>(PendingProjection::new, this::flush);
+
+    /**
+     * 订单新增或变更
+     * @param event 订单变更事件
+     */
+    @EventListener
+    public void onOrderChanged(OrderChangedEvent event) {
+        if (event.getOrder() != null && event.getOrder().getId() != null) {
+            buffer.add(pending -> pending.orderIds.add(event.getOrder().getId()));
+        }
+    }
+
+    /**
+     * 客户信息变更
+     * @param event 客户变更事件
+     */
+    @EventListener
+    public void onCustomerChanged(CustomerChangedEvent event) {
+        if (event.getCustomer() != null && event.getCustomer().getId() != null) {
+            buffer.add(pending -> pending.customerIds.add(event.getCustomer().getId()));
+        }
+    }
+
+    /**
+     * 酒店或房间信息变更
+     * @param event 酒店变更事件
+     */
+    @EventListener
+    public void onHotelChanged(HotelChangedEvent event) {
+        if (event.getHotelId() != null) {
+            buffer.add(pending -> pending.hotelIds.add(event.getHotelId()));
+        }
+    }
+
+    private void flush(PendingProjection pending) {
+        // 先刷新客户与酒店字段，再写入订单行（新订单行直接从最新的关联数据生成）
+        if (!pending.customerIds.isEmpty()) {
+            orderViewMapper.refreshCustomers(pending.customerIds);
+        }
+        if (!pending.hotelIds.isEmpty()) {
+            orderViewMapper.refreshHotels(pending.hotelIds);
+        }
+        if (!pending.orderIds.isEmpty()) {
+            orderViewMapper.upsertOrderViews(pending.orderIds);
+        }
+        logger.debug("订单读模型已更新，订单: {}，客户: {}，酒店: {}",
+                pending.orderIds.size(), pending.customerIds.size(), pending.hotelIds.size());
+    }
+
+    private static class PendingProjection {
+        final Set<Integer> orderIds = new LinkedHashSet<>();
+        final Set<Integer> customerIds = new LinkedHashSet<>();
+        final Set<Integer> hotelIds = new LinkedHashSet<>();
+    }
+}
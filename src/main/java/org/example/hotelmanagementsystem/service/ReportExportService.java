@@ -0,0 +1,415 @@
+package org.example.hotelmanagementsystem.service;
+
+import org.example.hotelmanagementsystem.dto.ReportExportJobDto;
+import org.example.hotelmanagementsystem.dto.ReportExportRequestDto;
+import org.example.hotelmanagementsystem.dto.ReportQueryDto;
+import org.example.hotelmanagementsystem.util.ReportFormat;
+import org.example.hotelmanagementsystem.util.TimestampUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 报表异步导出
+ * 导出任务提交到有界线程池，立即返回任务ID，由调用方轮询状态并下载文件；线程池与队列已满时拒绝提交。
+ * 报表、格式与查询条件相同的任务只执行一次：排队中、导出中或已完成且未过期的任务直接复用。
+ * 导出的文件保存在本地目录，按最近最少下载淘汰，总大小不超过上限。
+ */
+@Service
+public class ReportExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportExportService.class);
+
+    private static final List<String> REPORTS = Arrays.asList("booking-statistics", "revenue-statistics", "occupancy-rate-statistics");
+
+    @Autowired
+    private ReportService reportService;
+
+    // 导出文件目录
+    @Value("${hotel.report-export.dir:${java.io.tmpdir}/hotel-report-exports}")
+    private String dir;
+    // 导出线程数
+    @Value("${hotel.report-export.threads:2}")
+    private int threads;
+    // 等待执行的任务数上限
+    @Value("${hotel.report-export.queue-capacity:20}")
+    private int queueCapacity;
+    // 导出文件占用的磁盘空间上限（MB）
+    @Value("${hotel.report-export.cache-max-mb:512}")
+    private long cacheMaxMb;
+    // 已完成任务的保留时间（秒），过期后相同的导出重新执行
+    @Value("${hotel.report-export.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    private Path directory;
+    private ThreadPoolExecutor executor;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // 任务ID -> 任务
+    private final Map<String, Job> jobs = new HashMap<>();
+    // 去重键 -> 排队中、导出中或已完成的任务
+    private final Map<String, Job> jobsByKey = new HashMap<>();
+    // 已完成的任务，按访问顺序排列，最久未下载的在最前
+    private final LinkedHashMap<String, Job> completed = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedBytes;
+
+    private final AtomicLong submittedCount = new AtomicLong();
+    private final AtomicLong deduplicatedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong completedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+    private final AtomicLong expiredCount = new AtomicLong();
+
+    @PostConstruct
+    public void init() throws IOException {
+        directory = Paths.get(dir);
+        Files.createDirectories(directory);
+        // 任务不跨进程保留，清理上次运行留下的导出文件；目录中的其他文件不受影响
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                if (Files.isRegularFile(file) && isExportFile(file.getFileName().toString())) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "report-export-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        logger.info("报表异步导出已就绪，目录: {}，线程数: {}，队列容量: {}", directory.toAbsolutePath(), threads, queueCapacity);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 提交导出任务，已有相同的任务时直接返回该任务
+     * @param request 导出请求
+     * @return 任务状态
+     */
+    public ReportExportJobDto submit(ReportExportRequestDto request) {
+        if (request.getReport() == null || !REPORTS.contains(request.getReport())) {
+            throw new RuntimeException("不支持的报表: " + request.getReport());
+        }
+        ReportFormat format = ReportFormat.of(request.getFormat(), request.isGzip());
+        ReportQueryDto query = request.getQuery() == null ? new ReportQueryDto() : request.getQuery();
+        String key = String.join("|", request.getReport(), format.name(),
+                String.valueOf(query.getHotelId()), String.valueOf(query.getStartDate()), String.valueOf(query.getEndDate()));
+        lock.lock();
+        try {
+            Job existing = jobsByKey.get(key);
+            if (existing != null && isExpired(existing)) {
+                evict(existing);
+                expiredCount.incrementAndGet();
+                existing = null;
+            }
+            if (existing != null) {
+                deduplicatedCount.incrementAndGet();
+                return toDto(existing, true);
+            }
+            Job job = new Job(UUID.randomUUID().toString().replace("-", ""), key, request.getReport(), format, query);
+            jobs.put(job.id, job);
+            jobsByKey.put(key, job);
+            try {
+                executor.execute(() -> run(job));
+            } catch (RejectedExecutionException e) {
+                jobs.remove(job.id);
+                jobsByKey.remove(key);
+                rejectedCount.incrementAndGet();
+                throw new RuntimeException("导出任务过多，请稍后重试");
+            }
+            submittedCount.incrementAndGet();
+            logger.info("提交报表导出任务，任务ID: {}，报表: {}，格式: {}，查询条件: {}", job.id, job.report, format, query);
+            return toDto(job, false);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 查询任务状态
+     * @param jobId 任务ID
+     * @return 任务状态
+     */
+    public ReportExportJobDto getJob(String jobId) {
+        lock.lock();
+        try {
+            return toDto(findJob(jobId), false);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 打开已完成任务的导出文件，并记为最近访问
+     * @param jobId 任务ID
+     * @return 文件输入流，由调用方关闭；文件被淘汰后已打开的流仍可读完
+     * @throws IOException IO异常
+     */
+    public InputStream openFile(String jobId) throws IOException {
+        lock.lock();
+        try {
+            Job job = findJob(jobId);
+            if (!"completed".equals(job.status)) {
+                throw new RuntimeException("导出任务尚未完成");
+            }
+            completed.get(job.id);
+            return Files.newInputStream(job.file);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 定期清理过期的已完成任务与失败任务
+     */
+    @Scheduled(fixedDelayString = "${hotel.report-export.cleanup-interval-ms:60000}")
+    public void cleanup() {
+        lock.lock();
+        try {
+            for (Job job : new ArrayList<>(jobs.values())) {
+                if (isExpired(job)) {
+                    evict(job);
+                    expiredCount.incrementAndGet();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 获取运行指标
+     * @return 指标名称与数值
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("threads", threads);
+        metrics.put("active", executor == null ? 0 : executor.getActiveCount());
+        metrics.put("queued", executor == null ? 0 : executor.getQueue().size());
+        metrics.put("queueCapacity", queueCapacity);
+        lock.lock();
+        try {
+            metrics.put("jobs", jobs.size());
+            metrics.put("cachedFiles", completed.size());
+            metrics.put("cachedBytes", cachedBytes);
+        } finally {
+            lock.unlock();
+        }
+        metrics.put("cacheMaxBytes", cacheMaxMb * 1024 * 1024);
+        metrics.put("submitted", submittedCount.get());
+        metrics.put("deduplicated", deduplicatedCount.get());
+        metrics.put("rejected", rejectedCount.get());
+        metrics.put("completed", completedCount.get());
+        metrics.put("failed", failedCount.get());
+        metrics.put("evictions", evictionCount.get());
+        metrics.put("expirations", expiredCount.get());
+        return metrics;
+    }
+
+    private void run(Job job) {
+        lock.lock();
+        try {
+            job.status = "running";
+        } finally {
+            lock.unlock();
+        }
+        long startTime = System.currentTimeMillis();
+        Path temp = directory.resolve(job.id + ".tmp");
+        try {
+            try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                export(job, output);
+            }
+            Path file = directory.resolve(job.id + "." + job.format.getExtension());
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+            long size = Files.size(file);
+            lock.lock();
+            try {
+                job.file = file;
+                job.sizeBytes = size;
+                job.status = "completed";
+                job.finishedAt = TimestampUtil.getCurrentTimestamp();
+                completed.put(job.id, job);
+                cachedBytes += size;
+                evictOverflow();
+            } finally {
+                lock.unlock();
+            }
+            completedCount.incrementAndGet();
+            logger.info("报表导出任务完成，任务ID: {}，文件大小: {} 字节，耗时: {} ms", job.id, size, System.currentTimeMillis() - startTime);
+        } catch (Exception e) {
+            deleteQuietly(temp);
+            lock.lock();
+            try {
+                job.status = "failed";
+                job.error = e.getMessage();
+                job.finishedAt = TimestampUtil.getCurrentTimestamp();
+                // 失败的任务不参与去重，相同的导出可以重新提交
+                jobsByKey.remove(job.key, job);
+            } finally {
+                lock.unlock();
+            }
+            failedCount.incrementAndGet();
+            logger.error("报表导出任务失败，任务ID: {}", job.id, e);
+        }
+    }
+
+    private void export(Job job, OutputStream output) throws IOException {
+        switch (job.report) {
+            case "booking-statistics":
+                reportService.exportBookingStatistics(job.query, job.format, output);
+                break;
+            case "revenue-statistics":
+                reportService.exportRevenueStatistics(job.query, job.format, output);
+                break;
+            default:
+                reportService.exportOccupancyRateStatistics(job.query, job.format, output);
+                break;
+        }
+    }
+
+    // 调用方需持有锁；总大小超过上限时淘汰最久未下载的文件，至少保留最新完成的一个
+    private void evictOverflow() {
+        long maxBytes = cacheMaxMb * 1024 * 1024;
+        Iterator<Job> iterator = completed.values().iterator();
+        while (cachedBytes > maxBytes && completed.size() > 1) {
+            Job eldest = iterator.next();
+            iterator.remove();
+            cachedBytes -= eldest.sizeBytes;
+            remove(eldest);
+            evictionCount.incrementAndGet();
+        }
+    }
+
+    // 调用方需持有锁
+    private void evict(Job job) {
+        if (completed.remove(job.id) != null) {
+            cachedBytes -= job.sizeBytes;
+        }
+        remove(job);
+    }
+
+    // 调用方需持有锁；正在下载的文件删除后，已打开的流仍可读完
+    private void remove(Job job) {
+        jobs.remove(job.id);
+        jobsByKey.remove(job.key, job);
+        if (job.file != null) {
+            deleteQuietly(job.file);
+        }
+    }
+
+    // 调用方需持有锁；已完成或失败超过保留时间的任务视为过期
+    private boolean isExpired(Job job) {
+        return job.finishedAt != null
+                && TimestampUtil.getCurrentTimestamp() - job.finishedAt > ttlSeconds;
+    }
+
+    // 调用方需持有锁
+    private Job findJob(String jobId) {
+        Job job = jobId == null ? null : jobs.get(jobId);
+        if (job == null) {
+            throw new RuntimeException("导出任务不存在或已过期");
+        }
+        return job;
+    }
+
+    // 本服务生成的文件：导出中的临时文件或某种导出格式的文件
+    private static boolean isExportFile(String name) {
+        if (name.endsWith(".tmp")) {
+            return true;
+        }
+        for (ReportFormat format : ReportFormat.values()) {
+            if (name.endsWith("." + format.getExtension())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("删除导出文件失败: {}", file, e);
+        }
+    }
+
+    // 调用方需持有锁
+    private static ReportExportJobDto toDto(Job job, boolean deduplicated) {
+        ReportExportJobDto dto = new ReportExportJobDto();
+        dto.setJobId(job.id);
+        dto.setReport(job.report);
+        dto.setFormat(job.format.getExtension());
+        dto.setStatus(job.status);
+        dto.setDeduplicated(deduplicated);
+        dto.setSizeBytes(job.file == null ? null : job.sizeBytes);
+        dto.setError(job.error);
+        dto.setCreatedAt(job.createdAt);
+        dto.setFinishedAt(job.finishedAt);
+        return dto;
+    }
+
+    /**
+     * 导出任务，状态字段只在锁内读写
+     */
+    private static class Job {
+        final String id;
+        // 去重键：报表、格式与查询条件
+        final String key;
+        final String report;
+        final ReportFormat format;
+        final ReportQueryDto query;
+        final Long createdAt = TimestampUtil.getCurrentTimestamp();
+        String status = "queued";
+        Path file;
+        long sizeBytes;
+        String error;
+        Long finishedAt;
+
+        Job(String id, String key, String report, ReportFormat format, ReportQueryDto query) {
+            this.id = id;
+            this.key = key;
+            this.report = report;
+            this.format = format;
+            this.query = query;
+        }
+    }
+}
@@ -4,7 +4,9 @@ import org.example.hotelmanagementsystem.dto.BookingStatisticsDto;
 import org.example.hotelmanagementsystem.dto.RevenueStatisticsDto;
 import org.example.hotelmanagementsystem.dto.OccupancyRateDto;
 import org.example.hotelmanagementsystem.dto.ReportQueryDto;
+import org.example.hotelmanagementsystem.util.ReportFormat;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 
 public interface ReportService {
@@ -31,26 +33,29 @@ public interface ReportService {
     List<OccupancyRateDto> getOccupancyRateStatistics(ReportQueryDto query);
     
     /**
-     * 导出预订统计报表到Excel
+     * 导出预订统计报表，逐行读取并直接写入输出流
      * @param query 查询条件
-     * @return Excel文件路径
+     * @param format 导出格式
+     * @param output 输出流（不会被关闭）
      * @throws IOException IO异常
      */
-    String exportBookingStatisticsToExcel(ReportQueryDto query) throws IOException;
+    void exportBookingStatistics(ReportQueryDto query, ReportFormat format, OutputStream output) throws IOException;
     
     /**
-     * 导出收入统计报表到Excel
+     * 导出收入统计报表，逐行读取并直接写入输出流
      * @param query 查询条件
-     * @return Excel文件路径
+     * @param format 导出格式
+     * @param output 输出流（不会被关闭）
      * @throws IOException IO异常
      */
-    String exportRevenueStatisticsToExcel(ReportQueryDto query) throws IOException;
+    void exportRevenueStatistics(ReportQueryDto query, ReportFormat format, OutputStream output) throws IOException;
     
     /**
-     * 导出入住率统计报表到Excel
+     * 导出入住率统计报表，逐行读取并直接写入输出流
      * @param query 查询条件
-     * @return Excel文件路径
+     * @param format 导出格式
+     * @param output 输出流（不会被关闭）
      * @throws IOException IO异常
      */
-    String exportOccupancyRateStatisticsToExcel(ReportQueryDto query) throws IOException;
-}
\ No newline at end of file
+    void exportOccupancyRateStatistics(ReportQueryDto query, ReportFormat format, OutputStream output) throws IOException;
+}
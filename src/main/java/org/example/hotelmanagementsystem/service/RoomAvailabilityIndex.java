@@ -0,0 +1,530 @@
+package org.example.hotelmanagementsystem.service;
+
+import org.example.hotelmanagementsystem.dto.AvailableRoomDto;
+import org.example.hotelmanagementsystem.dto.BookingQueryDto;
+import org.example.hotelmanagementsystem.dto.RoomOccupancyDto;
+import org.example.hotelmanagementsystem.dto.RoomStateDto;
+import org.example.hotelmanagementsystem.entity.Orders;
+import org.example.hotelmanagementsystem.event.HotelChangedEvent;
+import org.example.hotelmanagementsystem.event.OrderChangedEvent;
+import org.example.hotelmanagementsystem.mapper.BookingMapper;
+import org.example.hotelmanagementsystem.util.CursorUtil;
+import org.example.hotelmanagementsystem.util.IntervalTree;
+import org.example.hotelmanagementsystem.util.InventoryCounters;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 房间可用性内存索引
+ * 按房间以区间树维护有效订单的入住区间，启动时从订单表加载，之后由订单变更事件增量维护，
+ * 可用房间查询与前台的当晚占用视图都由区间重叠查询（O(log n)）得出，无需访问数据库；
+ * 房间表的状态字段只表示是否维修。索引未就绪或查询早于索引起始日时返回 null，由调用方回退到SQL查询。
+ * 同时按 (酒店, 房型) 维护窗口内每晚的可售房间计数，随入住区间的变化增量调整。
+ */
+@Service
+public class RoomAvailabilityIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoomAvailabilityIndex.class);
+
+    // 占用房间的订单状态
+    private static final List<String> ACTIVE_STATUSES = Arrays.asList("pending", "confirmed", "checked_in");
+
+    // 与 BookingMapper 中 availableRoomsOrder 按二进制比较的排序保持一致，两条路径返回顺序相同，生成的游标可以互相续读
+    private static final Comparator<RoomStateDto> ROOM_ORDER = Comparator
+            .comparing(RoomStateDto::getHotelName, Comparator.nullsFirst(CursorUtil.BINARY_ORDER))
+            .thenComparing(RoomStateDto::getRoomType, Comparator.nullsFirst(CursorUtil.BINARY_ORDER))
+            .thenComparing((RoomStateDto room) -> room.getRoomNumber() == null ? "" : room.getRoomNumber(), CursorUtil.BINARY_ORDER)
+            .thenComparing(RoomStateDto::getId);
+
+    @Autowired
+    private BookingMapper bookingMapper;
+
+    // 库存计数覆盖的天数（从重建当天起），可用房间查询不受此限制
+    @Value("${hotel.availability.horizon-days:365}")
+    private int horizonDays;
+
+    // 房间ID -> 房间槽位
+    private volatile Map<Integer, RoomSlot> rooms = new ConcurrentHashMap<>();
+    // 订单ID -> 入住区间
+    private volatile Map<Integer, Stay> stays = new ConcurrentHashMap<>();
+    // 按 (酒店, 房型) 统计每晚可售房间数，仅在写锁内访问
+    private InventoryCounters inventory;
+    // 索引起始日（epoch day），早于该日的订单未加载
+    private volatile long baseDay;
+    private volatile boolean ready;
+
+    // 所有写操作串行执行，读操作无锁
+    private final ReentrantLock writeLock = new ReentrantLock();
+    // 重建期间到达的变更，重建完成后在新索引上重放
+    private List<Runnable> replayLog;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * 从数据库全量重建索引，并将窗口滚动到当天
+     */
+    @Scheduled(cron = "${hotel.availability.rebuild-cron:0 0 3 * * *}")
+    public void rebuild() {
+        writeLock.lock();
+        try {
+            if (replayLog != null) {
+                return;
+            }
+            replayLog = new ArrayList<>();
+        } finally {
+            writeLock.unlock();
+        }
+
+        long startTime = System.currentTimeMillis();
+        try {
+            long today = LocalDate.now().toEpochDay();
+            Map<Integer, RoomSlot> newRooms = new ConcurrentHashMap<>();
+            for (RoomStateDto room : bookingMapper.findRoomStates(null)) {
+                newRooms.put(room.getId(), new RoomSlot(room));
+            }
+            Map<Integer, Stay> newStays = new ConcurrentHashMap<>();
+            for (Orders order : bookingMapper.findActiveStays(LocalDate.ofEpochDay(today).toString())) {
+                Stay stay = toStay(order);
+                RoomSlot slot = stay == null ? null : newRooms.get(stay.roomId);
+                if (slot != null) {
+                    slot.stays = insert(slot.stays, stay);
+                    newStays.put(stay.orderId, stay);
+                }
+            }
+            InventoryCounters newInventory = new InventoryCounters(horizonDays);
+            for (RoomSlot slot : newRooms.values()) {
+                if (isSellable(slot.room)) {
+                    newInventory.addRoom(slot.room.getHotelId(), slot.room.getRoomType(), nights(slot.stays, today), 1);
+                }
+            }
+
+            writeLock.lock();
+            try {
+                rooms = newRooms;
+                stays = newStays;
+                inventory = newInventory;
+                baseDay = today;
+                for (Runnable mutation : replayLog) {
+                    mutation.run();
+                }
+                ready = true;
+            } finally {
+                replayLog = null;
+                writeLock.unlock();
+            }
+            logger.info("房间可用性索引重建完成，房间数: {}，有效订单数: {}，耗时: {}ms",
+                    newRooms.size(), newStays.size(), System.currentTimeMillis() - startTime);
+        } catch (Exception e) {
+            writeLock.lock();
+            try {
+                replayLog = null;
+            } finally {
+                writeLock.unlock();
+            }
+            logger.error("房间可用性索引重建失败，可用房间查询将回退到数据库", e);
+        }
+    }
+
+    /**
+     * 从内存中查询可用房间
+     * @param query 查询条件
+     * @return 可用房间列表；索引未就绪、日期无效或早于索引起始日时返回 null
+     */
+    public List<AvailableRoomDto> findAvailableRooms(BookingQueryDto query) {
+        return findAvailableRooms(query, null, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 从内存中按排序键分页查询可用房间（只对排在游标之后的前 limit 个房间排序）
+     * @param query 查询条件
+     * @param after 上一页最后一个房间，为空时从第一个开始
+     * @param limit 最多返回的房间数
+     * @return 可用房间列表；索引未就绪、日期无效或早于索引起始日时返回 null
+     */
+    public List<AvailableRoomDto> findAvailableRooms(BookingQueryDto query, AvailableRoomDto after, int limit) {
+        if (!ready) {
+            return null;
+        }
+        long checkIn;
+        long checkOut;
+        try {
+            checkIn = LocalDate.parse(query.getCheckInDate()).toEpochDay();
+            checkOut = LocalDate.parse(query.getCheckOutDate()).toEpochDay();
+        } catch (NullPointerException | DateTimeParseException e) {
+            return null;
+        }
+        if (checkIn < baseDay) {
+            return null;
+        }
+
+        RoomStateDto probe = after == null ? null : toProbe(after);
+        String location = normalize(query.getLocation());
+        String roomType = normalize(query.getRoomType());
+        String hotelName = normalize(query.getHotelName());
+        boolean bounded = limit < Integer.MAX_VALUE;
+        // 有界时用大顶堆保留最小的 limit 个房间
+        PriorityQueue<RoomStateDto> heap = bounded ? new PriorityQueue<>(Collections.reverseOrder(ROOM_ORDER)) : null;
+        List<RoomStateDto> matched = new ArrayList<>();
+        for (RoomSlot slot : rooms.values()) {
+            RoomStateDto room = slot.room;
+            if (!isSellable(room)) {
+                continue;
+            }
+            if ((location != null && !slot.hotelAddressKey.contains(location))
+                    || (roomType != null && !slot.roomTypeKey.contains(roomType))
+                    || (hotelName != null && !slot.hotelNameKey.contains(hotelName))) {
+                continue;
+            }
+            if (probe != null && ROOM_ORDER.compare(room, probe) <= 0) {
+                continue;
+            }
+            if (checkOut > checkIn && !slot.stays.overlaps(checkIn, checkOut)) {
+                if (bounded) {
+                    heap.offer(room);
+                    if (heap.size() > limit) {
+                        heap.poll();
+                    }
+                } else {
+                    matched.add(room);
+                }
+            }
+        }
+        if (bounded) {
+            matched.addAll(heap);
+        }
+        matched.sort(ROOM_ORDER);
+
+        List<AvailableRoomDto> result = new ArrayList<>(matched.size());
+        for (RoomStateDto room : matched) {
+            result.add(toAvailableRoom(room));
+        }
+        return result;
+    }
+
+    /**
+     * 查询酒店各房型每晚的可售房间数
+     * @param hotelId 酒店ID
+     * @param from 起始日期（含）
+     * @param to 结束日期（不含）
+     * @return 房型 -> [可售房间总数, 每晚可售数...]；索引未就绪或超出索引窗口时返回 null
+     */
+    public Map<String, int[]> getInventory(Integer hotelId, LocalDate from, LocalDate to) {
+        writeLock.lock();
+        try {
+            if (!ready || inventory == null) {
+                return null;
+            }
+            long fromDay = from.toEpochDay() - baseDay;
+            long toDay = to.toEpochDay() - baseDay;
+            if (fromDay < 0 || toDay > horizonDays || fromDay > toDay) {
+                return null;
+            }
+            return inventory.snapshot(hotelId, (int) fromDay, (int) toDay);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 查询酒店各房间在指定日期当晚的占用情况，供前台查看
+     * @param hotelId 酒店ID
+     * @param date 日期
+     * @return 房间占用列表，按房型、房间号排序；索引未就绪或日期早于索引起始日时返回 null
+     */
+    public List<RoomOccupancyDto> getRoomOccupancy(Integer hotelId, LocalDate date) {
+        long day = date.toEpochDay();
+        if (!ready || day < baseDay) {
+            return null;
+        }
+        List<RoomSlot> hotelRooms = new ArrayList<>();
+        for (RoomSlot slot : rooms.values()) {
+            if (hotelId.equals(slot.room.getHotelId())) {
+                hotelRooms.add(slot);
+            }
+        }
+        hotelRooms.sort((a, b) -> ROOM_ORDER.compare(a.room, b.room));
+        List<RoomOccupancyDto> result = new ArrayList<>(hotelRooms.size());
+        for (RoomSlot slot : hotelRooms) {
+            List<Stay> tonight = slot.stays.overlapping(day, day + 1);
+            result.add(toOccupancy(slot.room, tonight.isEmpty() ? null : tonight.get(0).toOrder()));
+        }
+        return result;
+    }
+
+    /**
+     * 根据房间信息与当晚占用该房间的订单生成前台视图中的一行
+     * @param room 房间信息
+     * @param order 当晚占用该房间的订单，没有时为 null
+     * @return 房间占用信息
+     */
+    public static RoomOccupancyDto toOccupancy(RoomStateDto room, Orders order) {
+        RoomOccupancyDto dto = new RoomOccupancyDto();
+        dto.setRoomId(room.getId());
+        dto.setRoomNumber(room.getRoomNumber());
+        dto.setRoomType(room.getRoomType());
+        if (!isSellable(room)) {
+            dto.setStatus("maintenance");
+        } else if (order == null) {
+            dto.setStatus("available");
+        } else {
+            dto.setStatus("checked_in".equals(order.getStatus()) ? "occupied" : "reserved");
+        }
+        if (order != null) {
+            dto.setOrderId(order.getId());
+            dto.setOrderStatus(order.getStatus());
+            dto.setCheckInDate(order.getCheckInDate());
+            dto.setCheckOutDate(order.getCheckOutDate());
+        }
+        return dto;
+    }
+
+    /**
+     * 获取房间及所属酒店的信息
+     * @param roomId 房间ID
+     * @return 房间信息；索引未就绪或房间不存在时返回 null
+     */
+    public RoomStateDto getRoomState(Integer roomId) {
+        if (!ready || roomId == null) {
+            return null;
+        }
+        RoomSlot slot = rooms.get(roomId);
+        return slot == null ? null : slot.room;
+    }
+
+    /**
+     * 订单变更后同步索引（事务提交后执行，先于查询缓存的失效）
+     * @param event 订单变更事件
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        final Orders order = event.getOrder();
+        mutate(() -> applyOrder(order));
+    }
+
+    /**
+     * 酒店或房间信息变更后重新加载该酒店的房间（事务提交后执行，先于查询缓存的失效）
+     * @param event 酒店变更事件
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHotelChanged(HotelChangedEvent event) {
+        final List<RoomStateDto> hotelRooms = bookingMapper.findRoomStates(event.getHotelId());
+        mutate(() -> applyRooms(hotelRooms));
+    }
+
+    private void mutate(Runnable mutation) {
+        writeLock.lock();
+        try {
+            if (replayLog != null) {
+                replayLog.add(mutation);
+            }
+            mutation.run();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void applyOrder(Orders order) {
+        Map<Integer, RoomSlot> currentRooms = rooms;
+        Map<Integer, Stay> currentStays = stays;
+
+        Stay previous = currentStays.remove(order.getId());
+        if (previous != null) {
+            RoomSlot slot = currentRooms.get(previous.roomId);
+            if (slot != null) {
+                setStays(slot, slot.stays.remove(previous.checkInDay, previous.checkOutDay, previous.orderId));
+            }
+        }
+
+        Stay stay = ACTIVE_STATUSES.contains(order.getStatus()) ? toStay(order) : null;
+        if (stay != null) {
+            RoomSlot slot = currentRooms.get(stay.roomId);
+            if (slot != null) {
+                setStays(slot, insert(slot.stays, stay));
+                currentStays.put(stay.orderId, stay);
+            }
+        }
+    }
+
+    private void applyRooms(List<RoomStateDto> hotelRooms) {
+        Map<Integer, RoomSlot> currentRooms = rooms;
+        for (RoomStateDto room : hotelRooms) {
+            RoomSlot slot = currentRooms.get(room.getId());
+            if (slot == null) {
+                slot = new RoomSlot(room);
+                currentRooms.put(room.getId(), slot);
+                if (isSellable(room) && inventory != null) {
+                    inventory.addRoom(room.getHotelId(), room.getRoomType(), new BitSet(), 1);
+                }
+            } else {
+                setRoom(slot, room);
+            }
+        }
+    }
+
+    // 替换房间信息，房型或可售状态变化时同步库存计数
+    private void setRoom(RoomSlot slot, RoomStateDto room) {
+        RoomStateDto previous = slot.room;
+        if (inventory != null && (isSellable(previous) || isSellable(room))) {
+            BitSet nights = nights(slot.stays, baseDay);
+            if (isSellable(previous)) {
+                inventory.addRoom(previous.getHotelId(), previous.getRoomType(), nights, -1);
+            }
+            if (isSellable(room)) {
+                inventory.addRoom(room.getHotelId(), room.getRoomType(), nights, 1);
+            }
+        }
+        slot.setRoom(room);
+    }
+
+    // 替换入住区间树，并按变化的夜晚调整库存计数
+    private void setStays(RoomSlot slot, IntervalTree<Stay> roomStays) {
+        if (inventory != null && isSellable(slot.room)) {
+            inventory.updateNights(slot.room.getHotelId(), slot.room.getRoomType(),
+                    nights(slot.stays, baseDay), nights(roomStays, baseDay));
+        }
+        slot.stays = roomStays;
+    }
+
+    // 维修中的房间不计入可售库存
+    private static boolean isSellable(RoomStateDto room) {
+        return !"maintenance".equals(room.getStatus());
+    }
+
+    // 库存计数窗口内被占用的夜晚（第 i 位表示起始日后第 i 晚）
+    private BitSet nights(IntervalTree<Stay> roomStays, long base) {
+        BitSet nights = new BitSet(horizonDays);
+        for (Stay stay : roomStays.overlapping(base, base + horizonDays)) {
+            int from = (int) Math.max(stay.checkInDay - base, 0);
+            int to = (int) Math.min(stay.checkOutDay - base, horizonDays);
+            nights.set(from, to);
+        }
+        return nights;
+    }
+
+    private static IntervalTree<Stay> insert(IntervalTree<Stay> roomStays, Stay stay) {
+        return roomStays.insert(stay.checkInDay, stay.checkOutDay, stay.orderId, stay);
+    }
+
+    private Stay toStay(Orders order) {
+        try {
+            long checkIn = LocalDate.parse(order.getCheckInDate()).toEpochDay();
+            long checkOut = LocalDate.parse(order.getCheckOutDate()).toEpochDay();
+            if (checkIn >= checkOut) {
+                logger.warn("订单入住日期不早于退房日期，忽略该订单，订单ID: {}", order.getId());
+                return null;
+            }
+            return new Stay(order, checkIn, checkOut);
+        } catch (NullPointerException | DateTimeParseException e) {
+            logger.warn("订单日期无法解析，忽略该订单，订单ID: {}", order.getId());
+            return null;
+        }
+    }
+
+    private static String normalize(String value) {
+        return value == null || value.isEmpty() ? null : value.toLowerCase(Locale.ROOT);
+    }
+
+    private static AvailableRoomDto toAvailableRoom(RoomStateDto room) {
+        AvailableRoomDto dto = new AvailableRoomDto();
+        dto.setId(room.getId());
+        dto.setHotelId(room.getHotelId());
+        dto.setHotelName(room.getHotelName());
+        dto.setHotelAddress(room.getHotelAddress());
+        dto.setRoomType(room.getRoomType());
+        dto.setRoomNumber(room.getRoomNumber());
+        dto.setPrice(room.getPrice());
+        return dto;
+    }
+
+    private static RoomStateDto toProbe(AvailableRoomDto after) {
+        RoomStateDto probe = new RoomStateDto();
+        probe.setId(after.getId());
+        probe.setHotelName(after.getHotelName());
+        probe.setRoomType(after.getRoomType());
+        probe.setRoomNumber(after.getRoomNumber());
+        return probe;
+    }
+
+    /**
+     * 房间槽位：房间快照与入住区间树均以整体替换的方式发布，读线程无需加锁
+     */
+    private static class RoomSlot {
+        volatile RoomStateDto room;
+        volatile String hotelNameKey;
+        volatile String hotelAddressKey;
+        volatile String roomTypeKey;
+        volatile IntervalTree<Stay> stays = IntervalTree.empty();
+
+        RoomSlot(RoomStateDto room) {
+            setRoom(room);
+        }
+
+        void setRoom(RoomStateDto room) {
+            this.hotelNameKey = room.getHotelName() == null ? "" : room.getHotelName().toLowerCase(Locale.ROOT);
+            this.hotelAddressKey = room.getHotelAddress() == null ? "" : room.getHotelAddress().toLowerCase(Locale.ROOT);
+            this.roomTypeKey = room.getRoomType() == null ? "" : room.getRoomType().toLowerCase(Locale.ROOT);
+            this.room = room;
+        }
+    }
+
+    /**
+     * 订单占用的入住区间 [checkInDay, checkOutDay)
+     */
+    private static class Stay {
+        final Integer orderId;
+        final Integer roomId;
+        final String status;
+        final String checkInDate;
+        final String checkOutDate;
+        final long checkInDay;
+        final long checkOutDay;
+
+        Stay(Orders order, long checkInDay, long checkOutDay) {
+            this.orderId = order.getId();
+            this.roomId = order.getRoomId();
+            this.status = order.getStatus();
+            this.checkInDate = order.getCheckInDate();
+            this.checkOutDate = order.getCheckOutDate();
+            this.checkInDay = checkInDay;
+            this.checkOutDay = checkOutDay;
+        }
+
+        Orders toOrder() {
+            Orders order = new Orders();
+            order.setId(orderId);
+            order.setRoomId(roomId);
+            order.setStatus(status);
+            order.setCheckInDate(checkInDate);
+            order.setCheckOutDate(checkOutDate);
+            return order;
+        }
+    }
+}
@@ -0,0 +1,355 @@
+package org.example.hotelmanagementsystem.service;
+
+import org.example.hotelmanagementsystem.dto.AvailableRoomDto;
+import org.example.hotelmanagementsystem.dto.BookingQueryDto;
+import org.example.hotelmanagementsystem.dto.RoomStateDto;
+import org.example.hotelmanagementsystem.entity.Orders;
+import org.example.hotelmanagementsystem.event.HotelChangedEvent;
+import org.example.hotelmanagementsystem.event.OrderChangedEvent;
+import org.example.hotelmanagementsystem.mapper.BookingMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 可用房间查询结果缓存
+ * 以原样的查询条件为键缓存查询结果，按最近最少使用淘汰。订单或酒店变更提交后，
+ * 只失效筛选条件能匹配到该房间、且入住日期与变更区间重叠的条目。
+ */
+@Service
+public class SearchResultCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchResultCache.class);
+
+    // 占用房间的订单状态
+    private static final List<String> ACTIVE_STATUSES = Arrays.asList("pending", "confirmed", "checked_in");
+
+    @Autowired
+    private RoomAvailabilityIndex availabilityIndex;
+    @Autowired
+    private BookingMapper bookingMapper;
+
+    // 最多缓存的查询数，0 表示不缓存
+    @Value("${hotel.search-cache.max-entries:1000}")
+    private int maxEntries;
+    // 条目存活时间（秒），用于兜底其他节点产生的变更
+    @Value("${hotel.search-cache.ttl-seconds:30}")
+    private long ttlSeconds;
+
+    // 用显式锁而非 synchronized，虚拟线程等待时不占用载体线程
+    private final ReentrantLock lock = new ReentrantLock();
+    // 按访问顺序排列，最久未访问的条目在最前
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // 每次失效时递增，查询期间发生过失效的结果不再写入
+    private long generation;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong putCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+    private final AtomicLong expiredCount = new AtomicLong();
+    private final AtomicLong invalidationCount = new AtomicLong();
+
+    /**
+     * 查询缓存
+     * @param query 查询条件
+     * @return 缓存的可用房间列表，未命中时返回 null
+     */
+    public List<AvailableRoomDto> get(BookingQueryDto query) {
+        lock.lock();
+        try {
+            if (!isEnabled()) {
+                return null;
+            }
+            Key key = new Key(query);
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAt < System.currentTimeMillis()) {
+                entries.remove(key);
+                expiredCount.incrementAndGet();
+                entry = null;
+            }
+            if (entry == null) {
+                missCount.incrementAndGet();
+                return null;
+            }
+            hitCount.incrementAndGet();
+            return entry.rooms;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 获取当前失效版本，查询数据库前调用，写入缓存时传回
+     * @return 失效版本
+     */
+    public long generation() {
+        lock.lock();
+        try {
+            return generation;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 写入查询结果，查询期间发生过失效时放弃写入，避免缓存旧数据
+     * @param query 查询条件
+     * @param rooms 可用房间列表
+     * @param expectedGeneration 查询前获取的失效版本
+     */
+    public void put(BookingQueryDto query, List<AvailableRoomDto> rooms, long expectedGeneration) {
+        lock.lock();
+        try {
+            if (!isEnabled() || expectedGeneration != generation) {
+                return;
+            }
+            Key key = new Key(query);
+            entries.put(key, new Entry(key, rooms, System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(ttlSeconds)));
+            putCount.incrementAndGet();
+            Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+            while (entries.size() > maxEntries && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+                evictionCount.incrementAndGet();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 订单变更后失效受影响的条目（事务提交后执行）
+     * @param event 订单变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        Orders order = event.getOrder();
+        Orders previous = event.getPrevious();
+        if (order == null) {
+            return;
+        }
+        if (previous != null) {
+            // 修改订单时原区间释放、新区间占用
+            if (ACTIVE_STATUSES.contains(previous.getStatus())) {
+                invalidateRoom(previous.getRoomId(), previous.getCheckInDate(), previous.getCheckOutDate());
+            }
+            if (ACTIVE_STATUSES.contains(order.getStatus())) {
+                invalidateRoom(order.getRoomId(), order.getCheckInDate(), order.getCheckOutDate());
+            }
+            return;
+        }
+        boolean wasActive = event.getFromStatus() != null && ACTIVE_STATUSES.contains(event.getFromStatus());
+        boolean isActive = ACTIVE_STATUSES.contains(order.getStatus());
+        if (wasActive != isActive) {
+            invalidateRoom(order.getRoomId(), order.getCheckInDate(), order.getCheckOutDate());
+        }
+    }
+
+    /**
+     * 酒店或房间信息变更后失效受影响的条目（事务提交后执行）
+     * @param event 酒店变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHotelChanged(HotelChangedEvent event) {
+        if (!isEnabled()) {
+            return;
+        }
+        Integer hotelId = event.getHotelId();
+        List<RoomStateDto> hotelRooms = bookingMapper.findRoomStates(hotelId);
+        int removed = 0;
+        lock.lock();
+        try {
+            generation++;
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                Entry entry = iterator.next();
+                // 结果中含有该酒店，或按新的酒店信息可能出现在结果中
+                boolean affected = entry.hotelIds.contains(hotelId);
+                for (int i = 0; !affected && i < hotelRooms.size(); i++) {
+                    affected = entry.key.matches(hotelRooms.get(i));
+                }
+                if (affected) {
+                    iterator.remove();
+                    removed++;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        invalidationCount.addAndGet(removed);
+        logger.debug("酒店信息变更，失效缓存条目 {} 个，酒店ID: {}", removed, hotelId);
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void clear() {
+        lock.lock();
+        try {
+            generation++;
+            invalidationCount.addAndGet(entries.size());
+            entries.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 获取运行指标
+     * @return 指标名称与数值
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        long hits = hitCount.get();
+        long misses = missCount.get();
+        metrics.put("enabled", isEnabled());
+        metrics.put("maxEntries", maxEntries);
+        lock.lock();
+        try {
+            metrics.put("size", entries.size());
+        } finally {
+            lock.unlock();
+        }
+        metrics.put("hits", hits);
+        metrics.put("misses", misses);
+        metrics.put("hitRate", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+        metrics.put("puts", putCount.get());
+        metrics.put("evictions", evictionCount.get());
+        metrics.put("expirations", expiredCount.get());
+        metrics.put("invalidations", invalidationCount.get());
+        return metrics;
+    }
+
+    private void invalidateRoom(Integer roomId, String fromDate, String toDate) {
+        if (!isEnabled()) {
+            return;
+        }
+        // 房间信息来自内存索引，索引未就绪时按日期失效所有条目
+        RoomStateDto room = availabilityIndex.getRoomState(roomId);
+        int removed = 0;
+        lock.lock();
+        try {
+            generation++;
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                Entry entry = iterator.next();
+                if (entry.key.overlaps(fromDate, toDate) && (room == null || entry.key.matches(room))) {
+                    iterator.remove();
+                    removed++;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        invalidationCount.addAndGet(removed);
+        logger.debug("房间可用性变更，失效缓存条目 {} 个，房间ID: {}，日期: {} ~ {}", removed, roomId, fromDate, toDate);
+    }
+
+    private boolean isEnabled() {
+        return maxEntries > 0;
+    }
+
+    // 空字符串与 null 在查询中都表示不限，其余取值原样作为键
+    private static String exact(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    // 失效时不区分大小写地匹配，匹配范围不小于任何排序规则下 LIKE 的匹配范围
+    private static String filterOf(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean containsKey(String value, String filter) {
+        return filter == null || (value != null && value.toLowerCase(Locale.ROOT).contains(filter));
+    }
+
+    /**
+     * 查询条件
+     * 文本条件按原值区分，不做去空格或大小写转换：查询本身使用原值，
+     * 在区分大小写或空格的排序规则下，规范化后相同的条件可能查到不同的结果
+     */
+    private static final class Key {
+        final String checkInDate;
+        final String checkOutDate;
+        final String location;
+        final String roomType;
+        final String hotelName;
+
+        Key(BookingQueryDto query) {
+            this.checkInDate = query.getCheckInDate();
+            this.checkOutDate = query.getCheckOutDate();
+            this.location = exact(query.getLocation());
+            this.roomType = exact(query.getRoomType());
+            this.hotelName = exact(query.getHotelName());
+        }
+
+        boolean matches(RoomStateDto room) {
+            return containsKey(room.getHotelAddress(), filterOf(location))
+                    && containsKey(room.getRoomType(), filterOf(roomType))
+                    && containsKey(room.getHotelName(), filterOf(hotelName));
+        }
+
+        // 日期为 yyyy-MM-dd 格式，字符串比较即日期比较；任一区间未知时视为重叠
+        boolean overlaps(String fromDate, String toDate) {
+            if (fromDate == null || toDate == null || checkInDate == null || checkOutDate == null) {
+                return true;
+            }
+            return checkInDate.trim().compareTo(toDate) < 0 && fromDate.compareTo(checkOutDate.trim()) < 0;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return Objects.equals(checkInDate, other.checkInDate)
+                    && Objects.equals(checkOutDate, other.checkOutDate)
+                    && Objects.equals(location, other.location)
+                    && Objects.equals(roomType, other.roomType)
+                    && Objects.equals(hotelName, other.hotelName);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(checkInDate, checkOutDate, location, roomType, hotelName);
+        }
+    }
+
+    private static final class Entry {
+        final Key key;
+        final List<AvailableRoomDto> rooms;
+        final Set<Integer> hotelIds = new HashSet<>();
+        final long expiresAt;
+
+        Entry(Key key, List<AvailableRoomDto> rooms, long expiresAt) {
+            this.key = key;
+            this.rooms = Collections.unmodifiableList(rooms);
+            this.expiresAt = expiresAt;
+            for (AvailableRoomDto room : rooms) {
+                hotelIds.add(room.getHotelId());
+            }
+        }
+    }
+}
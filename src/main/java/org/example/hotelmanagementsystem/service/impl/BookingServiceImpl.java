@@ -2,25 +2,57 @@ package org.example.hotelmanagementsystem.service.impl;
 
 import org.example.hotelmanagementsystem.dto.BookingQueryDto;
 import org.example.hotelmanagementsystem.dto.AvailableRoomDto;
+import org.example.hotelmanagementsystem.dto.AvailableRoomPageDto;
 import org.example.hotelmanagementsystem.dto.BookingRequestDto;
 import org.example.hotelmanagementsystem.dto.BookingResultDto;
 import org.example.hotelmanagementsystem.entity.Customer;
 import org.example.hotelmanagementsystem.entity.Orders;
 import org.example.hotelmanagementsystem.entity.Room;
+import org.example.hotelmanagementsystem.event.CustomerChangedEvent;
+import org.example.hotelmanagementsystem.event.OrderChangedEvent;
 import org.example.hotelmanagementsystem.mapper.BookingMapper;
 import org.example.hotelmanagementsystem.service.BookingService;
+import org.example.hotelmanagementsystem.service.CustomerIdentityCache;
+import org.example.hotelmanagementsystem.service.HotelSearchIndex;
+import org.example.hotelmanagementsystem.service.OrderNumberGenerator;
+import org.example.hotelmanagementsystem.service.RoomAvailabilityIndex;
+import org.example.hotelmanagementsystem.service.SearchResultCache;
+import org.example.hotelmanagementsystem.util.CursorUtil;
+import org.example.hotelmanagementsystem.util.StripedLock;
 import org.example.hotelmanagementsystem.util.TimestampUtil;
+import org.apache.ibatis.cursor.Cursor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
 
 @Service
 public class BookingServiceImpl implements BookingService {
@@ -29,54 +61,159 @@ public class BookingServiceImpl implements BookingService {
     
     @Autowired
     private BookingMapper bookingMapper;
+    @Autowired
+    private RoomAvailabilityIndex availabilityIndex;
+    @Autowired
+    private SearchResultCache searchResultCache;
+    @Autowired
+    private HotelSearchIndex hotelSearchIndex;
+    @Autowired
+    private OrderNumberGenerator orderNumberGenerator;
+    @Autowired
+    private CustomerIdentityCache customerIdentityCache;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    // 房间锁分段数
+    @Value("${hotel.booking.lock-stripes:256}")
+    private int lockStripes;
+    // 等待房间锁的最长时间（毫秒）
+    @Value("${hotel.booking.lock-timeout-ms:3000}")
+    private long lockTimeoutMs;
+    
+    // 单次批量预订的最大房间数
+    @Value("${hotel.booking.max-batch-size:200}")
+    private int maxBatchSize;
+    
+    // 分页查询的默认与最大每页数量
+    @Value("${hotel.booking.search-page-size:50}")
+    private int defaultPageSize;
+    @Value("${hotel.booking.search-max-page-size:500}")
+    private int maxPageSize;
+    
+    // 按房间ID分段的锁，同一房间的预订串行执行，不同房间互不阻塞
+    private StripedLock roomLocks;
+    
+    @PostConstruct
+    public void init() {
+        roomLocks = new StripedLock(lockStripes);
+    }
     
     @Override
     public List<AvailableRoomDto> findAvailableRooms(BookingQueryDto query) {
         logger.debug("查询可用房间，参数: {}", query);
-        List<AvailableRoomDto> rooms = bookingMapper.findAvailableRooms(
-            query.getCheckInDate(),
-            query.getCheckOutDate(),
-            query.getLocation(),
-            query.getRoomType(),
-            query.getHotelName()
-        );
-        logger.debug("查询到 {} 个可用房间", rooms.size());
+        List<AvailableRoomDto> rooms = searchResultCache.get(query);
+        if (rooms != null) {
+            logger.debug("缓存命中，{} 个可用房间", rooms.size());
+            return rooms;
+        }
+        long generation = searchResultCache.generation();
+        // 优先从内存索引查询，索引无法回答时回退到数据库
+        rooms = availabilityIndex.findAvailableRooms(query);
+        if (rooms != null) {
+            logger.debug("内存索引查询到 {} 个可用房间", rooms.size());
+        } else {
+            // 文本条件先由索引解析为酒店ID与房型，没有候选时无需查询数据库
+            Set<Integer> hotelIds = hotelSearchIndex.findHotelIds(query.getLocation(), query.getHotelName());
+            Set<String> roomTypes = hotelSearchIndex.findRoomTypes(query.getRoomType());
+            if (isEmpty(hotelIds) || isEmpty(roomTypes)) {
+                rooms = new ArrayList<>();
+            } else {
+                rooms = bookingMapper.findAvailableRooms(
+                    query.getCheckInDate(),
+                    query.getCheckOutDate(),
+                    query.getLocation(),
+                    query.getRoomType(),
+                    query.getHotelName(),
+                    hotelIds,
+                    roomTypes
+                );
+            }
+            logger.debug("查询到 {} 个可用房间", rooms.size());
+        }
+        searchResultCache.put(query, rooms, generation);
         return rooms;
     }
     
+    @Override
+    public AvailableRoomPageDto findAvailableRoomPage(BookingQueryDto query) {
+        logger.debug("分页查询可用房间，参数: {}", query);
+        int pageSize = query.getPageSize() == null || query.getPageSize() <= 0
+                ? defaultPageSize : Math.min(query.getPageSize(), maxPageSize);
+        AvailableRoomDto after = decodeRoomCursor(query.getCursor());
+        
+        // 多取一条用于判断是否还有下一页
+        List<AvailableRoomDto> rooms = availabilityIndex.findAvailableRooms(query, after, pageSize + 1);
+        if (rooms == null) {
+            Set<Integer> hotelIds = hotelSearchIndex.findHotelIds(query.getLocation(), query.getHotelName());
+            Set<String> roomTypes = hotelSearchIndex.findRoomTypes(query.getRoomType());
+            if (isEmpty(hotelIds) || isEmpty(roomTypes)) {
+                rooms = new ArrayList<>();
+            } else {
+                rooms = bookingMapper.findAvailableRoomPage(
+                    query.getCheckInDate(),
+                    query.getCheckOutDate(),
+                    query.getLocation(),
+                    query.getRoomType(),
+                    query.getHotelName(),
+                    hotelIds,
+                    roomTypes,
+                    after,
+                    pageSize + 1
+                );
+            }
+        }
+        
+        AvailableRoomPageDto page = new AvailableRoomPageDto();
+        boolean hasMore = rooms.size() > pageSize;
+        if (hasMore) {
+            rooms = new ArrayList<>(rooms.subList(0, pageSize));
+            AvailableRoomDto last = rooms.get(pageSize - 1);
+            page.setNextCursor(CursorUtil.encode(last.getHotelName(), last.getRoomType(), last.getRoomNumber(), last.getId()));
+        }
+        page.setRooms(rooms);
+        page.setHasMore(hasMore);
+        logger.debug("本页返回 {} 个可用房间，是否还有下一页: {}", rooms.size(), hasMore);
+        return page;
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAvailableRooms(BookingQueryDto query, Consumer<AvailableRoomDto> consumer) {
+        logger.debug("流式查询可用房间，参数: {}", query);
+        List<AvailableRoomDto> rooms = availabilityIndex.findAvailableRooms(query);
+        if (rooms != null) {
+            rooms.forEach(consumer);
+            return;
+        }
+        Set<Integer> hotelIds = hotelSearchIndex.findHotelIds(query.getLocation(), query.getHotelName());
+        Set<String> roomTypes = hotelSearchIndex.findRoomTypes(query.getRoomType());
+        if (isEmpty(hotelIds) || isEmpty(roomTypes)) {
+            return;
+        }
+        // 索引无法回答时以数据库游标逐行读取，游标在事务结束时关闭
+        try (Cursor<AvailableRoomDto> cursor = bookingMapper.streamAvailableRooms(
+                query.getCheckInDate(),
+                query.getCheckOutDate(),
+                query.getLocation(),
+                query.getRoomType(),
+                query.getHotelName(),
+                hotelIds,
+                roomTypes)) {
+            cursor.forEach(consumer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
     @Override
     @Transactional
     public BookingResultDto bookRoom(BookingRequestDto bookingRequest) {
         logger.info("开始处理房间预订请求: {}", bookingRequest);
-        
-        // 检查房间是否存在且可用
-        Room room = bookingMapper.findRoomById(bookingRequest.getRoomId());
-        if (room == null || !"available".equals(room.getStatus())) {
-            logger.warn("房间不存在或不可用，房间ID: {}", bookingRequest.getRoomId());
+        if (bookingRequest.getRoomId() == null) {
             throw new RuntimeException("房间不存在或不可用");
         }
         
-        // 检查客户是否已存在，如果不存在则创建新客户
-        Customer customer = null;
-        if (bookingRequest.getCustomerIdCard() != null && !bookingRequest.getCustomerIdCard().isEmpty()) {
-            customer = bookingMapper.findCustomerByIdCard(bookingRequest.getCustomerIdCard());
-        }
-        
-        // 如果客户不存在，则创建新客户
-        if (customer == null) {
-            logger.debug("创建新客户: {}", bookingRequest.getCustomerName());
-            customer = new Customer();
-            customer.setName(bookingRequest.getCustomerName());
-            customer.setPhone(bookingRequest.getCustomerPhone());
-            customer.setEmail(bookingRequest.getCustomerEmail());
-            customer.setIdCard(bookingRequest.getCustomerIdCard());
-            customer.setCreatedAt(TimestampUtil.getCurrentTimestamp());
-            bookingMapper.insertCustomer(customer);
-        } else {
-            logger.debug("使用现有客户信息，客户ID: {}", customer.getId());
-        }
-
-        
         // 计算天数
         int days = calculateDays(bookingRequest.getCheckInDate(), bookingRequest.getCheckOutDate());
         if (days <= 0) {
@@ -84,39 +221,343 @@ public class BookingServiceImpl implements BookingService {
             throw new RuntimeException("入住日期必须早于退房日期");
         }
         
+        // 锁定房间直到事务结束，保证同一房间的重叠检查与订单插入不会交错执行
+        lockRoomsUntilCompletion(Collections.singletonList(bookingRequest.getRoomId()));
+        
+        // 检查房间是否存在且可用（行锁保证多实例部署时同样串行）
+        Room room = bookingMapper.findRoomByIdForUpdate(bookingRequest.getRoomId());
+        if (room == null || !"available".equals(room.getStatus())) {
+            logger.warn("房间不存在或不可用，房间ID: {}", bookingRequest.getRoomId());
+            throw new RuntimeException("房间不存在或不可用");
+        }
+        
+        // 检查所选日期内是否已有占用该房间的订单
+        if (bookingMapper.countOverlappingOrders(bookingRequest.getRoomId(), bookingRequest.getCheckInDate(), bookingRequest.getCheckOutDate()) > 0) {
+            logger.warn("房间在所选日期已被预订，房间ID: {}，入住日期: {}，退房日期: {}", bookingRequest.getRoomId(), bookingRequest.getCheckInDate(), bookingRequest.getCheckOutDate());
+            throw new RuntimeException("房间在所选日期已被预订");
+        }
+        
+        // 检查客户是否已存在，如果不存在则创建新客户
+        Integer customerId = resolveCustomerId(bookingRequest);
+        
         // 计算总金额
         BigDecimal totalAmount = room.getPrice().multiply(new BigDecimal(days));
         logger.debug("计算订单总金额: {} = {} × {}天", totalAmount, room.getPrice(), days);
         
         // 创建订单
+        Orders order = newOrder(bookingRequest, customerId, totalAmount);
+        bookingMapper.insertOrder(order);
+        eventPublisher.publishEvent(new OrderChangedEvent(order, null));
+        logger.info("订单创建成功，订单号: {}，订单ID: {}", order.getOrderNumber(), order.getId());
+        
+        // 返回预订结果
+        BookingResultDto result = toResult(order);
+        logger.info("房间预订完成，订单号: {}", order.getOrderNumber());
+        return result;
+    }
+    
+    @Override
+    @Transactional
+    public List<BookingResultDto> bookRooms(List<BookingRequestDto> bookingRequests) {
+        logger.info("开始处理批量预订请求，预订数: {}", bookingRequests.size());
+        if (bookingRequests.size() > maxBatchSize) {
+            throw new RuntimeException("单次批量预订最多支持 " + maxBatchSize + " 间房");
+        }
+        
+        // 第一轮：校验请求本身（房间ID、日期），不访问数据库
+        int size = bookingRequests.size();
+        BookingResultDto[] results = new BookingResultDto[size];
+        long[] checkInDays = new long[size];
+        long[] checkOutDays = new long[size];
+        Set<Integer> roomIds = new TreeSet<>();
+        for (int i = 0; i < size; i++) {
+            BookingRequestDto request = bookingRequests.get(i);
+            if (request.getRoomId() == null) {
+                results[i] = failedResult(request, "房间不存在或不可用");
+                continue;
+            }
+            try {
+                checkInDays[i] = LocalDate.parse(request.getCheckInDate()).toEpochDay();
+                checkOutDays[i] = LocalDate.parse(request.getCheckOutDate()).toEpochDay();
+            } catch (NullPointerException | DateTimeParseException e) {
+                results[i] = failedResult(request, "日期格式错误");
+                continue;
+            }
+            if (checkOutDays[i] <= checkInDays[i]) {
+                results[i] = failedResult(request, "入住日期必须早于退房日期");
+                continue;
+            }
+            roomIds.add(request.getRoomId());
+        }
+        if (roomIds.isEmpty()) {
+            return Arrays.asList(results);
+        }
+        
+        // 第二轮：一次性锁定并读取全部房间及其在整个日期范围内的占用订单
+        lockRoomsUntilCompletion(roomIds);
+        List<Integer> roomIdList = new ArrayList<>(roomIds);
+        Map<Integer, Room> rooms = new HashMap<>();
+        for (Room room : bookingMapper.findRoomsByIdsForUpdate(roomIdList)) {
+            rooms.put(room.getId(), room);
+        }
+        long minCheckIn = Long.MAX_VALUE;
+        long maxCheckOut = Long.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            if (results[i] == null) {
+                minCheckIn = Math.min(minCheckIn, checkInDays[i]);
+                maxCheckOut = Math.max(maxCheckOut, checkOutDays[i]);
+            }
+        }
+        Map<Integer, List<long[]>> occupied = new HashMap<>();
+        for (Orders stay : bookingMapper.findOverlappingOrders(roomIdList,
+                LocalDate.ofEpochDay(minCheckIn).toString(), LocalDate.ofEpochDay(maxCheckOut).toString())) {
+            occupied.computeIfAbsent(stay.getRoomId(), k -> new ArrayList<>()).add(new long[]{
+                    LocalDate.parse(stay.getCheckInDate()).toEpochDay(), LocalDate.parse(stay.getCheckOutDate()).toEpochDay()});
+        }
+        
+        // 第三轮：逐个判定房间状态与日期冲突（含同一批次内部的冲突）
+        List<Integer> accepted = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            BookingRequestDto request = bookingRequests.get(i);
+            Room room = rooms.get(request.getRoomId());
+            if (room == null || !"available".equals(room.getStatus())) {
+                results[i] = failedResult(request, "房间不存在或不可用");
+                continue;
+            }
+            List<long[]> roomStays = occupied.computeIfAbsent(request.getRoomId(), k -> new ArrayList<>());
+            boolean overlaps = false;
+            for (long[] stay : roomStays) {
+                if (stay[0] < checkOutDays[i] && stay[1] > checkInDays[i]) {
+                    overlaps = true;
+                    break;
+                }
+            }
+            if (overlaps) {
+                results[i] = failedResult(request, "房间在所选日期已被预订");
+                continue;
+            }
+            roomStays.add(new long[]{checkInDays[i], checkOutDays[i]});
+            accepted.add(i);
+        }
+        if (accepted.isEmpty()) {
+            return Arrays.asList(results);
+        }
+        
+        // 批量解析客户：已存在的客户一次查询，新客户一次插入（同一身份证号只创建一次）
+        Set<String> idCards = new HashSet<>();
+        for (Integer i : accepted) {
+            String idCard = bookingRequests.get(i).getCustomerIdCard();
+            if (idCard != null && !idCard.isEmpty()) {
+                idCards.add(idCard);
+            }
+        }
+        Map<String, Customer> customersByIdCard = new HashMap<>();
+        List<String> uncachedIdCards = new ArrayList<>();
+        for (String idCard : idCards) {
+            Integer customerId = customerIdentityCache.getCustomerId(idCard);
+            if (customerId != null) {
+                Customer customer = new Customer();
+                customer.setId(customerId);
+                customer.setIdCard(idCard);
+                customersByIdCard.put(idCard, customer);
+            } else {
+                uncachedIdCards.add(idCard);
+            }
+        }
+        if (!uncachedIdCards.isEmpty()) {
+            for (Customer customer : bookingMapper.findCustomersByIdCards(uncachedIdCards)) {
+                customersByIdCard.putIfAbsent(customer.getIdCard(), customer);
+                customerIdentityCache.put(customer.getIdCard(), customer.getId());
+            }
+        }
+        Customer[] customers = new Customer[size];
+        List<Customer> newCustomers = new ArrayList<>();
+        for (Integer i : accepted) {
+            BookingRequestDto request = bookingRequests.get(i);
+            String idCard = request.getCustomerIdCard();
+            Customer customer = idCard == null || idCard.isEmpty() ? null : customersByIdCard.get(idCard);
+            if (customer == null) {
+                customer = newCustomer(request);
+                newCustomers.add(customer);
+                if (idCard != null && !idCard.isEmpty()) {
+                    customersByIdCard.put(idCard, customer);
+                }
+            }
+            customers[i] = customer;
+        }
+        if (!newCustomers.isEmpty()) {
+            bookingMapper.insertCustomers(newCustomers);
+            for (Customer customer : newCustomers) {
+                eventPublisher.publishEvent(new CustomerChangedEvent(customer));
+            }
+            logger.debug("批量创建新客户，客户数: {}", newCustomers.size());
+        }
+        
+        // 一条多行INSERT写入全部订单
+        List<Orders> orders = new ArrayList<>(accepted.size());
+        for (Integer i : accepted) {
+            BookingRequestDto request = bookingRequests.get(i);
+            BigDecimal totalAmount = rooms.get(request.getRoomId()).getPrice().multiply(new BigDecimal(checkOutDays[i] - checkInDays[i]));
+            orders.add(newOrder(request, customers[i].getId(), totalAmount));
+        }
+        bookingMapper.insertOrders(orders);
+        for (int k = 0; k < accepted.size(); k++) {
+            Orders order = orders.get(k);
+            eventPublisher.publishEvent(new OrderChangedEvent(order, null));
+            results[accepted.get(k)] = toResult(order);
+        }
+        
+        logger.info("批量预订完成，成功: {}，失败: {}", accepted.size(), size - accepted.size());
+        return Arrays.asList(results);
+    }
+    
+    // 索引解析出的候选为空集合时不会有匹配的房间
+    private static boolean isEmpty(Set<?> candidates) {
+        return candidates != null && candidates.isEmpty();
+    }
+    
+    private AvailableRoomDto decodeRoomCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        String[] values = CursorUtil.decode(cursor, 4);
+        AvailableRoomDto after = new AvailableRoomDto();
+        after.setHotelName(values[0]);
+        after.setRoomType(values[1]);
+        after.setRoomNumber(values[2]);
+        try {
+            after.setId(Integer.valueOf(values[3]));
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("无效的分页游标");
+        }
+        return after;
+    }
+    
+    /**
+     * 解析预订客户：先查身份缓存，布隆过滤器判定为新客户时跳过查询直接创建
+     */
+    private Integer resolveCustomerId(BookingRequestDto bookingRequest) {
+        String idCard = bookingRequest.getCustomerIdCard();
+        boolean hasIdCard = idCard != null && !idCard.isEmpty();
+        if (hasIdCard) {
+            Integer customerId = customerIdentityCache.getCustomerId(idCard);
+            if (customerId != null) {
+                logger.debug("使用现有客户信息，客户ID: {}", customerId);
+                return customerId;
+            }
+            if (customerIdentityCache.mightExist(idCard)) {
+                Customer existing = bookingMapper.findCustomerByIdCard(idCard);
+                if (existing != null) {
+                    logger.debug("使用现有客户信息，客户ID: {}", existing.getId());
+                    customerIdentityCache.put(idCard, existing.getId());
+                    return existing.getId();
+                }
+            }
+        }
+        
+        logger.debug("创建新客户: {}", bookingRequest.getCustomerName());
+        Customer customer = newCustomer(bookingRequest);
+        try {
+            bookingMapper.insertCustomer(customer);
+        } catch (DuplicateKeyException e) {
+            // 客户已由其他节点或并发请求创建，加锁读取以看到刚提交的记录
+            Customer existing = hasIdCard ? bookingMapper.findCustomerByIdCardForUpdate(idCard) : null;
+            if (existing == null) {
+                throw e;
+            }
+            logger.debug("客户已存在，使用现有客户信息，客户ID: {}", existing.getId());
+            customerIdentityCache.put(idCard, existing.getId());
+            return existing.getId();
+        }
+        eventPublisher.publishEvent(new CustomerChangedEvent(customer));
+        return customer.getId();
+    }
+    
+    private Customer newCustomer(BookingRequestDto bookingRequest) {
+        Customer customer = new Customer();
+        customer.setName(bookingRequest.getCustomerName());
+        customer.setPhone(bookingRequest.getCustomerPhone());
+        customer.setEmail(bookingRequest.getCustomerEmail());
+        customer.setIdCard(bookingRequest.getCustomerIdCard());
+        customer.setCreatedAt(TimestampUtil.getCurrentTimestamp());
+        return customer;
+    }
+    
+    private Orders newOrder(BookingRequestDto bookingRequest, Integer customerId, BigDecimal totalAmount) {
         Orders order = new Orders();
-        String orderNumber = "ORD" + System.currentTimeMillis() + UUID.randomUUID().toString().substring(0, 6).toUpperCase();
-        order.setOrderNumber(orderNumber);
-        order.setCustomerId(customer.getId());
+        order.setOrderNumber(orderNumberGenerator.nextOrderNumber());
+        order.setCustomerId(customerId);
         order.setRoomId(bookingRequest.getRoomId());
         order.setCheckInDate(bookingRequest.getCheckInDate());
         order.setCheckOutDate(bookingRequest.getCheckOutDate());
         order.setTotalAmount(totalAmount);
         order.setStatus("pending");
         order.setCreatedAt(TimestampUtil.getCurrentTimestamp());
-        bookingMapper.insertOrder(order);
-        logger.info("订单创建成功，订单号: {}，订单ID: {}", orderNumber, order.getId());
-        
-        // 返回预订结果
+        return order;
+    }
+    
+    private BookingResultDto toResult(Orders order) {
         BookingResultDto result = new BookingResultDto();
         result.setOrderId(order.getId());
-        result.setOrderNumber(orderNumber);
-        result.setCustomerId(customer.getId());
+        result.setOrderNumber(order.getOrderNumber());
+        result.setCustomerId(order.getCustomerId());
+        result.setRoomId(order.getRoomId());
+        result.setCheckInDate(order.getCheckInDate());
+        result.setCheckOutDate(order.getCheckOutDate());
+        result.setTotalAmount(order.getTotalAmount());
+        result.setStatus(order.getStatus());
+        return result;
+    }
+    
+    private BookingResultDto failedResult(BookingRequestDto bookingRequest, String message) {
+        BookingResultDto result = new BookingResultDto();
         result.setRoomId(bookingRequest.getRoomId());
         result.setCheckInDate(bookingRequest.getCheckInDate());
         result.setCheckOutDate(bookingRequest.getCheckOutDate());
-        result.setTotalAmount(totalAmount);
-        result.setStatus("pending");
-        
-        logger.info("房间预订完成，订单号: {}", orderNumber);
+        result.setStatus("failed");
+        result.setMessage(message);
         return result;
     }
     
+    /**
+     * 按固定顺序锁定房间，锁在当前事务提交或回滚后释放
+     * @param roomIds 房间ID集合
+     */
+    private void lockRoomsUntilCompletion(Collection<Integer> roomIds) {
+        final List<Lock> acquired = new ArrayList<>();
+        try {
+            for (Lock lock : roomLocks.getAll(roomIds)) {
+                if (!lock.tryLock(lockTimeoutMs, TimeUnit.MILLISECONDS)) {
+                    logger.warn("等待房间锁超时，房间ID: {}", roomIds);
+                    throw new RuntimeException("房间正在被其他请求预订，请稍后重试");
+                }
+                acquired.add(lock);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            unlockAll(acquired);
+            throw new RuntimeException("预订请求被中断", e);
+        } catch (RuntimeException e) {
+            unlockAll(acquired);
+            throw e;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                unlockAll(acquired);
+            }
+        });
+    }
+    
+    private void unlockAll(List<Lock> locks) {
+        for (int i = locks.size() - 1; i >= 0; i--) {
+            locks.get(i).unlock();
+        }
+    }
+    
     /**
      * 计算两个日期之间的天数
      * @param checkInDate 入住日期
@@ -4,13 +4,17 @@ import org.example.hotelmanagementsystem.entity.Customer;
 import org.example.hotelmanagementsystem.dto.CustomerDto;
 import org.example.hotelmanagementsystem.dto.CustomerQueryDto;
 import org.example.hotelmanagementsystem.dto.OrderDto;
+import org.example.hotelmanagementsystem.event.CustomerChangedEvent;
 import org.example.hotelmanagementsystem.mapper.CustomerMapper;
+import org.example.hotelmanagementsystem.service.CustomerIdentityCache;
 import org.example.hotelmanagementsystem.service.CustomerService;
+import org.example.hotelmanagementsystem.service.OrderArchiveService;
 import org.example.hotelmanagementsystem.util.TimestampUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import java.util.List;
 
@@ -21,6 +25,12 @@ public class CustomerServiceImpl implements CustomerService {
     
     @Autowired
     private CustomerMapper customerMapper;
+    @Autowired
+    private CustomerIdentityCache customerIdentityCache;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private OrderArchiveService orderArchiveService;
     
     @Override
     public List<Customer> findCustomers(CustomerQueryDto query) {
@@ -39,8 +49,8 @@ public class CustomerServiceImpl implements CustomerService {
             return null;
         }
         
-        // 获取客户的历史订单
-        List<OrderDto> orderHistory = customerMapper.getCustomerOrderHistory(id);
+        // 获取客户的历史订单（有归档订单时合并归档表）
+        List<OrderDto> orderHistory = customerMapper.getCustomerOrderHistory(id, orderArchiveService.hasArchivedOrders());
         
         // 组装客户详情
         CustomerDto customerDto = new CustomerDto();
@@ -60,8 +70,8 @@ public class CustomerServiceImpl implements CustomerService {
             return null;
         }
         
-        // 获取客户的历史订单
-        List<OrderDto> orderHistory = customerMapper.getCustomerOrderHistory(customer.getId());
+        // 获取客户的历史订单（有归档订单时合并归档表）
+        List<OrderDto> orderHistory = customerMapper.getCustomerOrderHistory(customer.getId(), orderArchiveService.hasArchivedOrders());
         
         // 组装客户详情
         CustomerDto customerDto = new CustomerDto();
@@ -77,7 +87,8 @@ public class CustomerServiceImpl implements CustomerService {
         logger.info("添加新客户，客户姓名: {}", customer.getName());
         
         // 检查身份证号是否已存在
-        if (customer.getIdCard() != null && !customer.getIdCard().isEmpty()) {
+        if (customer.getIdCard() != null && !customer.getIdCard().isEmpty()
+                && customerIdentityCache.mightExist(customer.getIdCard())) {
             Customer existingCustomer = customerMapper.getCustomerByIdCard(customer.getIdCard());
             if (existingCustomer != null) {
                 logger.warn("身份证号 {} 已存在", customer.getIdCard());
@@ -93,6 +104,7 @@ public class CustomerServiceImpl implements CustomerService {
         int result = customerMapper.insertCustomer(customer);
         boolean success = result > 0;
         if (success) {
+            eventPublisher.publishEvent(new CustomerChangedEvent(customer));
             logger.info("客户添加成功，客户ID: {}", customer.getId());
         } else {
             logger.error("客户添加失败，客户信息: {}", customer);
@@ -109,6 +121,7 @@ public class CustomerServiceImpl implements CustomerService {
         int result = customerMapper.updateCustomer(customer);
         boolean success = result > 0;
         if (success) {
+            eventPublisher.publishEvent(new CustomerChangedEvent(customer));
             logger.info("客户信息更新成功，客户ID: {}", customer.getId());
         } else {
             logger.error("客户信息更新失败，客户ID: {}", customer.getId());
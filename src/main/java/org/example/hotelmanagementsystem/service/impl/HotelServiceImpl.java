@@ -2,19 +2,39 @@ package org.example.hotelmanagementsystem.service.impl;
 
 import org.example.hotelmanagementsystem.entity.Hotel;
 import org.example.hotelmanagementsystem.dto.HotelDto;
+import org.example.hotelmanagementsystem.dto.InventoryDto;
+import org.example.hotelmanagementsystem.dto.RoomOccupancyDto;
+import org.example.hotelmanagementsystem.dto.RoomStateDto;
+import org.example.hotelmanagementsystem.entity.Orders;
 import org.example.hotelmanagementsystem.entity.Room;
+import org.example.hotelmanagementsystem.event.HotelChangedEvent;
+import org.example.hotelmanagementsystem.mapper.BookingMapper;
 import org.example.hotelmanagementsystem.mapper.HotelMapper;
 import org.example.hotelmanagementsystem.mapper.RoomMapper;
+import org.example.hotelmanagementsystem.service.HotelSearchIndex;
 import org.example.hotelmanagementsystem.service.HotelService;
+import org.example.hotelmanagementsystem.service.RoomAvailabilityIndex;
+import org.example.hotelmanagementsystem.util.InventoryCounters;
 import org.example.hotelmanagementsystem.util.TimestampUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public class HotelServiceImpl implements HotelService {
@@ -25,6 +45,20 @@ public class HotelServiceImpl implements HotelService {
     private HotelMapper hotelMapper;
     @Autowired
     private RoomMapper roomMapper;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private HotelSearchIndex hotelSearchIndex;
+    @Autowired
+    private RoomAvailabilityIndex availabilityIndex;
+    @Autowired
+    private BookingMapper bookingMapper;
+    
+    // 库存查询的默认与最大天数
+    @Value("${hotel.inventory.default-days:90}")
+    private int defaultInventoryDays;
+    @Value("${hotel.inventory.max-days:366}")
+    private int maxInventoryDays;
     
     @Override
     @Transactional
@@ -57,6 +91,7 @@ public class HotelServiceImpl implements HotelService {
 
         boolean success = result > 0;
         if (success) {
+            eventPublisher.publishEvent(new HotelChangedEvent(hotel.getId()));
             logger.info("酒店添加成功，酒店ID: {}", hotel.getId());
         } else {
             logger.error("酒店添加失败，酒店信息: {}", hotelDto);
@@ -90,6 +125,7 @@ public class HotelServiceImpl implements HotelService {
         }
         boolean success = result > 0;
         if (success) {
+            eventPublisher.publishEvent(new HotelChangedEvent(hotel.getId()));
             logger.info("酒店信息更新成功，酒店ID: {}", hotelDto.getId());
         } else {
             logger.error("酒店信息更新失败，酒店ID: {}", hotelDto.getId());
@@ -136,8 +172,110 @@ public class HotelServiceImpl implements HotelService {
     @Override
     public List<Hotel> getHotelsByName(String name) {
         logger.debug("根据名称模糊查询酒店，酒店名称: {}", name);
-        List<Hotel> hotels = hotelMapper.selectByName(name);
+        // 优先由文本索引解析出酒店ID，索引无法解析时使用 LIKE 查询
+        Set<Integer> hotelIds = hotelSearchIndex.findHotelIds(null, name);
+        List<Hotel> hotels;
+        if (hotelIds == null) {
+            hotels = hotelMapper.selectByName(name);
+        } else if (hotelIds.isEmpty()) {
+            hotels = new ArrayList<>();
+        } else {
+            hotels = hotelMapper.selectByIds(hotelIds);
+        }
         logger.debug("查询到 {} 个匹配的酒店", hotels.size());
         return hotels;
     }
-}
\ No newline at end of file
+    
+    @Override
+    public InventoryDto getInventory(Integer hotelId, String from, String to) {
+        LocalDate fromDate;
+        LocalDate toDate;
+        try {
+            fromDate = from == null || from.isEmpty() ? LocalDate.now() : LocalDate.parse(from);
+            toDate = to == null || to.isEmpty() ? fromDate.plusDays(defaultInventoryDays) : LocalDate.parse(to);
+        } catch (DateTimeParseException e) {
+            throw new RuntimeException("日期格式错误");
+        }
+        long days = toDate.toEpochDay() - fromDate.toEpochDay();
+        if (days <= 0 || days > maxInventoryDays) {
+            throw new RuntimeException("查询天数必须在 1 到 " + maxInventoryDays + " 天之间");
+        }
+        logger.debug("查询酒店房型库存，酒店ID: {}，日期: {} ~ {}", hotelId, fromDate, toDate);
+        
+        // 优先读取内存中的库存计数，索引无法回答时从数据库统计
+        Map<String, int[]> grid = availabilityIndex.getInventory(hotelId, fromDate, toDate);
+        if (grid == null) {
+            grid = loadInventory(hotelId, fromDate, (int) days);
+        }
+        
+        InventoryDto inventory = new InventoryDto();
+        inventory.setHotelId(hotelId);
+        inventory.setFrom(fromDate.toString());
+        inventory.setTo(toDate.toString());
+        List<String> dates = new ArrayList<>((int) days);
+        for (LocalDate date = fromDate; date.isBefore(toDate); date = date.plusDays(1)) {
+            dates.add(date.toString());
+        }
+        inventory.setDates(dates);
+        List<InventoryDto.RoomTypeInventoryDto> roomTypes = new ArrayList<>();
+        for (Map.Entry<String, int[]> entry : grid.entrySet()) {
+            int[] row = entry.getValue();
+            InventoryDto.RoomTypeInventoryDto roomType = new InventoryDto.RoomTypeInventoryDto();
+            roomType.setRoomType(entry.getKey());
+            roomType.setTotalRooms(row[0]);
+            roomType.setAvailable(Arrays.copyOfRange(row, 1, row.length));
+            roomTypes.add(roomType);
+        }
+        inventory.setRoomTypes(roomTypes);
+        return inventory;
+    }
+    
+    @Override
+    public List<RoomOccupancyDto> getRoomOccupancy(Integer hotelId, String date) {
+        LocalDate day;
+        try {
+            day = date == null || date.isEmpty() ? LocalDate.now() : LocalDate.parse(date);
+        } catch (DateTimeParseException e) {
+            throw new RuntimeException("日期格式错误");
+        }
+        logger.debug("查询酒店房间占用，酒店ID: {}，日期: {}", hotelId, day);
+        
+        // 优先由内存中的入住区间树得出，索引无法回答时从数据库查询当晚的有效订单
+        List<RoomOccupancyDto> occupancy = availabilityIndex.getRoomOccupancy(hotelId, day);
+        if (occupancy != null) {
+            return occupancy;
+        }
+        Map<Integer, Orders> tonight = new HashMap<>();
+        for (Orders stay : bookingMapper.findHotelActiveStays(hotelId, day.toString(), day.plusDays(1).toString())) {
+            tonight.put(stay.getRoomId(), stay);
+        }
+        List<RoomStateDto> rooms = bookingMapper.findRoomStates(hotelId);
+        rooms.sort(Comparator.comparing((RoomStateDto room) -> room.getRoomType() == null ? "" : room.getRoomType())
+                .thenComparing(room -> room.getRoomNumber() == null ? "" : room.getRoomNumber())
+                .thenComparing(RoomStateDto::getId));
+        occupancy = new ArrayList<>(rooms.size());
+        for (RoomStateDto room : rooms) {
+            occupancy.add(RoomAvailabilityIndex.toOccupancy(room, tonight.get(room.getId())));
+        }
+        return occupancy;
+    }
+    
+    private Map<String, int[]> loadInventory(Integer hotelId, LocalDate fromDate, int days) {
+        Map<Integer, BitSet> nightsByRoom = new HashMap<>();
+        List<Orders> stays = bookingMapper.findHotelActiveStays(hotelId, fromDate.toString(), fromDate.plusDays(days).toString());
+        for (Orders stay : stays) {
+            int checkIn = (int) Math.max(LocalDate.parse(stay.getCheckInDate()).toEpochDay() - fromDate.toEpochDay(), 0);
+            int checkOut = (int) Math.min(LocalDate.parse(stay.getCheckOutDate()).toEpochDay() - fromDate.toEpochDay(), days);
+            if (checkIn < checkOut) {
+                nightsByRoom.computeIfAbsent(stay.getRoomId(), k -> new BitSet(days)).set(checkIn, checkOut);
+            }
+        }
+        InventoryCounters counters = new InventoryCounters(days);
+        for (RoomStateDto room : bookingMapper.findRoomStates(hotelId)) {
+            if (!"maintenance".equals(room.getStatus())) {
+                counters.addRoom(hotelId, room.getRoomType(), nightsByRoom.getOrDefault(room.getId(), new BitSet()), 1);
+            }
+        }
+        return counters.snapshot(hotelId, 0, days);
+    }
+}
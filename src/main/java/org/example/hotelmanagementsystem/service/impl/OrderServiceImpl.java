@@ -1,19 +1,42 @@
 package org.example.hotelmanagementsystem.service.impl;
 
+import org.example.hotelmanagementsystem.dto.BulkTransitionRequestDto;
 import org.example.hotelmanagementsystem.dto.OrderDto;
+import org.example.hotelmanagementsystem.dto.OrderPageDto;
 import org.example.hotelmanagementsystem.dto.OrderQueryDto;
+import org.example.hotelmanagementsystem.dto.OrderStatusChangeDto;
+import org.example.hotelmanagementsystem.dto.OrderTransitionItemDto;
+import org.example.hotelmanagementsystem.dto.OrderTransitionResultDto;
 import org.example.hotelmanagementsystem.dto.OrderUpdateDto;
 import org.example.hotelmanagementsystem.entity.Orders;
+import org.example.hotelmanagementsystem.event.OrderChangedEvent;
 import org.example.hotelmanagementsystem.mapper.OrderMapper;
+import org.example.hotelmanagementsystem.service.HotelSearchIndex;
+import org.example.hotelmanagementsystem.service.OrderArchiveService;
+import org.example.hotelmanagementsystem.service.OrderCountEstimator;
+import org.example.hotelmanagementsystem.service.OrderDetailCache;
+import org.example.hotelmanagementsystem.service.OrderEventJournal;
 import org.example.hotelmanagementsystem.service.OrderService;
-import org.example.hotelmanagementsystem.util.TimestampUtil;
+import org.example.hotelmanagementsystem.service.OrderStateMachine;
+import org.example.hotelmanagementsystem.service.OrderTransition;
+import org.example.hotelmanagementsystem.util.CursorUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class OrderServiceImpl implements OrderService {
@@ -22,20 +45,111 @@ public class OrderServiceImpl implements OrderService {
     
     @Autowired
     private OrderMapper orderMapper;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private HotelSearchIndex hotelSearchIndex;
+    @Autowired
+    private OrderStateMachine orderStateMachine;
+    @Autowired
+    private OrderCountEstimator orderCountEstimator;
+    @Autowired
+    private OrderDetailCache orderDetailCache;
+    @Autowired
+    private OrderEventJournal orderEventJournal;
+    @Autowired
+    private OrderArchiveService orderArchiveService;
+    
+    // 订单分页查询的默认与最大每页数量
+    @Value("${hotel.order.page-size:20}")
+    private int defaultPageSize;
+    @Value("${hotel.order.max-page-size:200}")
+    private int maxPageSize;
+    
+    // 批量流转的最大订单数
+    @Value("${hotel.order.max-batch-size:500}")
+    private int maxBatchSize;
+    // 批量办理入住、退房时每个事务处理的订单数
+    @Value("${hotel.order.bulk-chunk-size:200}")
+    private int bulkChunkSize;
     
     @Override
     public List<OrderDto> findOrders(OrderQueryDto query) {
         logger.debug("查询订单列表，查询条件: {}", query);
-        List<OrderDto> orders = orderMapper.findOrders(query);
+        // 酒店名称先由文本索引解析为酒店ID，没有匹配的酒店时无需查询数据库
+        Set<Integer> hotelIds = hotelSearchIndex.findHotelIds(null, query.getHotelName());
+        if (hotelIds != null && hotelIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<OrderDto> orders = orderMapper.findOrders(query, hotelIds, orderArchiveService.covers(query));
         logger.debug("查询到 {} 个订单", orders.size());
         return orders;
     }
     
+    @Override
+    public OrderPageDto findOrderPage(OrderQueryDto query) {
+        logger.debug("分页查询订单列表，查询条件: {}", query);
+        int pageSize = query.getPageSize() == null || query.getPageSize() <= 0
+                ? defaultPageSize : Math.min(query.getPageSize(), maxPageSize);
+        Long afterCreatedAt = null;
+        Integer afterId = null;
+        boolean firstPage = query.getCursor() == null || query.getCursor().isEmpty();
+        if (!firstPage) {
+            String[] values = CursorUtil.decode(query.getCursor(), 2);
+            try {
+                afterCreatedAt = Long.valueOf(values[0]);
+                afterId = Integer.valueOf(values[1]);
+            } catch (NumberFormatException e) {
+                throw new RuntimeException("无效的分页游标");
+            }
+        }
+        
+        OrderPageDto page = new OrderPageDto();
+        boolean archived = orderArchiveService.covers(query);
+        Set<Integer> hotelIds = hotelSearchIndex.findHotelIds(null, query.getHotelName());
+        List<OrderDto> orders;
+        if (hotelIds != null && hotelIds.isEmpty()) {
+            orders = new ArrayList<>();
+        } else {
+            // 多取一条用于判断是否还有下一页
+            orders = orderMapper.findOrderPage(query, hotelIds, afterCreatedAt, afterId, pageSize + 1, archived);
+        }
+        boolean hasMore = orders.size() > pageSize;
+        if (hasMore) {
+            orders = new ArrayList<>(orders.subList(0, pageSize));
+            OrderDto last = orders.get(orders.size() - 1);
+            page.setNextCursor(CursorUtil.encode(last.getCreatedAt() == null ? 0L : last.getCreatedAt(), last.getId()));
+        }
+        page.setOrders(orders);
+        page.setHasMore(hasMore);
+        if (Boolean.TRUE.equals(query.getWithTotal())) {
+            if (firstPage && !hasMore) {
+                // 第一页已包含全部结果，总数即为精确值
+                page.setTotal((long) orders.size());
+                page.setTotalExact(true);
+            } else {
+                page.setTotal(hotelIds != null && hotelIds.isEmpty() ? 0L : orderCountEstimator.estimate(query, hotelIds, archived));
+                page.setTotalExact(false);
+            }
+        }
+        logger.debug("查询到 {} 个订单，是否还有下一页: {}", orders.size(), hasMore);
+        return page;
+    }
+    
     @Override
     public OrderDto getOrderById(Integer id) {
         logger.debug("根据ID查询订单详情，订单ID: {}", id);
+        OrderDto cached = orderDetailCache.get(id);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = orderDetailCache.generation();
         OrderDto order = orderMapper.getOrderById(id);
+        if (order == null && orderArchiveService.hasArchivedOrders()) {
+            order = orderMapper.getArchivedOrderById(id);
+        }
         if (order != null) {
+            orderDetailCache.put(order, generation);
             logger.debug("成功获取订单详情，订单ID: {}", id);
         } else {
             logger.warn("未找到ID为 {} 的订单", id);
@@ -47,13 +161,21 @@ public class OrderServiceImpl implements OrderService {
     @Transactional
     public boolean updateOrder(OrderUpdateDto orderUpdateDto) {
         logger.info("更新订单信息，订单ID: {}", orderUpdateDto.getId());
+        if (orderUpdateDto.getCheckInDate() == null && orderUpdateDto.getCheckOutDate() == null
+                && orderUpdateDto.getStatus() == null) {
+            logger.warn("订单信息没有需要更新的字段，订单ID: {}", orderUpdateDto.getId());
+            return false;
+        }
         Orders order = new Orders();
         BeanUtils.copyProperties(orderUpdateDto, order);
-        // 设置更新时间
-        order.setCreatedAt(TimestampUtil.getCurrentTimestamp());
+        // 变更前的订单，用于失效原日期区间的缓存
+        Orders previous = orderMapper.getOrderEntityById(order.getId());
         int result = orderMapper.updateOrder(order);
         boolean success = result > 0;
         if (success) {
+            // 日期或状态可能已变更，以数据库中的最新订单通知索引
+            Orders current = orderMapper.getOrderEntityById(order.getId());
+            eventPublisher.publishEvent(new OrderChangedEvent(current, previous == null ? null : previous.getStatus(), previous));
             logger.info("订单信息更新成功，订单ID: {}", orderUpdateDto.getId());
         } else {
             logger.error("订单信息更新失败，订单ID: {}", orderUpdateDto.getId());
@@ -62,139 +184,175 @@ public class OrderServiceImpl implements OrderService {
     }
     
     @Override
-    @Transactional
     public boolean confirmOrder(Integer id) {
         logger.info("确认订单，订单ID: {}", id);
-        // 获取订单信息
-        Orders order = orderMapper.getOrderEntityById(id);
-        if (order == null) {
-            logger.warn("订单不存在，订单ID: {}", id);
-            throw new RuntimeException("订单不存在");
-        }
-        
-        // 检查订单状态是否为待确认
-        if (!"pending".equals(order.getStatus())) {
-            logger.warn("订单状态不正确，无法确认，订单ID: {}，当前状态: {}", id, order.getStatus());
-            throw new RuntimeException("订单状态不正确，无法确认");
-        }
-        
-        // 更新订单状态为已确认
-        order.setStatus("confirmed");
-        // 设置更新时间
-        order.setCreatedAt(TimestampUtil.getCurrentTimestamp());
-        int result = orderMapper.updateOrder(order);
-        
-        // 更新房间状态为已占用
-        orderMapper.updateRoomStatus(order.getRoomId(), "occupied");
-        
-        boolean success = result > 0;
-        if (success) {
-            logger.info("订单确认成功，订单ID: {}，房间ID: {} 状态已更新为已占用", id, order.getRoomId());
-        } else {
-            logger.error("订单确认失败，订单ID: {}", id);
-        }
-        return success;
+        Orders order = orderStateMachine.transition(id, OrderTransition.CONFIRM);
+        logger.info("订单确认成功，订单ID: {}，房间ID: {}，订单状态: {}", id, order.getRoomId(), order.getStatus());
+        return true;
     }
     
     @Override
-    @Transactional
     public boolean cancelOrder(Integer id) {
         logger.info("取消订单，订单ID: {}", id);
-        // 获取订单信息
-        Orders order = orderMapper.getOrderEntityById(id);
-        if (order == null) {
-            logger.warn("订单不存在，订单ID: {}", id);
-            throw new RuntimeException("订单不存在");
-        }
-        
-        // 检查订单状态是否为待确认或已确认
-        if (!"pending".equals(order.getStatus()) && !"confirmed".equals(order.getStatus())) {
-            logger.warn("订单状态不正确，无法取消，订单ID: {}，当前状态: {}", id, order.getStatus());
-            throw new RuntimeException("订单状态不正确，无法取消");
-        }
-        
-        // 更新订单状态为已取消
-        order.setStatus("cancelled");
-        // 设置更新时间
-        order.setCreatedAt(TimestampUtil.getCurrentTimestamp());
-        int result = orderMapper.updateOrder(order);
-        
-        // 更新房间状态为空闲
-        orderMapper.updateRoomStatus(order.getRoomId(), "available");
-        
-        boolean success = result > 0;
-        if (success) {
-            logger.info("订单取消成功，订单ID: {}，房间ID: {} 状态已更新为空闲", id, order.getRoomId());
-        } else {
-            logger.error("订单取消失败，订单ID: {}", id);
-        }
-        return success;
+        Orders order = orderStateMachine.transition(id, OrderTransition.CANCEL);
+        logger.info("订单取消成功，订单ID: {}，房间ID: {}，订单状态: {}", id, order.getRoomId(), order.getStatus());
+        return true;
     }
     
     @Override
-    @Transactional
     public boolean checkInOrder(Integer id) {
         logger.info("办理入住，订单ID: {}", id);
-        // 获取订单信息
-        Orders order = orderMapper.getOrderEntityById(id);
-        if (order == null) {
-            logger.warn("订单不存在，订单ID: {}", id);
-            throw new RuntimeException("订单不存在");
+        orderStateMachine.transition(id, OrderTransition.CHECK_IN);
+        logger.info("办理入住成功，订单ID: {}", id);
+        return true;
+    }
+    
+    @Override
+    public boolean checkOutOrder(Integer id) {
+        logger.info("办理退房，订单ID: {}", id);
+        Orders order = orderStateMachine.transition(id, OrderTransition.CHECK_OUT);
+        logger.info("办理退房成功，订单ID: {}，房间ID: {}，订单状态: {}", id, order.getRoomId(), order.getStatus());
+        return true;
+    }
+    
+    @Override
+    public OrderTransitionResultDto transitionOrders(String action, List<Integer> ids) {
+        OrderTransition transition = OrderTransition.fromAction(action);
+        if (ids == null || ids.isEmpty()) {
+            throw new RuntimeException("订单列表不能为空");
         }
-        
-        // 检查订单状态是否为已确认
-        if (!"confirmed".equals(order.getStatus())) {
-            logger.warn("订单状态不正确，无法办理入住，订单ID: {}，当前状态: {}", id, order.getStatus());
-            throw new RuntimeException("订单状态不正确，无法办理入住");
+        if (ids.size() > maxBatchSize) {
+            throw new RuntimeException("单次最多处理 " + maxBatchSize + " 个订单");
         }
-        
-        // 更新订单状态为已入住
-        order.setStatus("checked_in");
-        // 设置更新时间
-        order.setCreatedAt(TimestampUtil.getCurrentTimestamp());
-        int result = orderMapper.updateOrder(order);
-        
-        boolean success = result > 0;
-        if (success) {
-            logger.info("办理入住成功，订单ID: {}", id);
-        } else {
-            logger.error("办理入住失败，订单ID: {}", id);
+        logger.info("批量{}订单，订单数: {}", transition.getLabel(), ids.size());
+        List<Orders> orders = orderStateMachine.transitionAll(ids, transition);
+        Set<Integer> transitioned = new LinkedHashSet<>();
+        for (Orders order : orders) {
+            transitioned.add(order.getId());
         }
-        return success;
+        List<Integer> skipped = new ArrayList<>();
+        for (Integer id : new LinkedHashSet<>(ids)) {
+            if (!transitioned.contains(id)) {
+                skipped.add(id);
+            }
+        }
+        OrderTransitionResultDto result = new OrderTransitionResultDto();
+        result.setAction(transition.getAction());
+        result.setStatus(transition.getToStatus());
+        result.setTransitioned(new ArrayList<>(transitioned));
+        result.setSkipped(skipped);
+        return result;
     }
     
     @Override
-    @Transactional
-    public boolean checkOutOrder(Integer id) {
-        logger.info("办理退房，订单ID: {}", id);
-        // 获取订单信息
-        Orders order = orderMapper.getOrderEntityById(id);
-        if (order == null) {
-            logger.warn("订单不存在，订单ID: {}", id);
-            throw new RuntimeException("订单不存在");
+    public List<OrderTransitionItemDto> bulkCheckIn(BulkTransitionRequestDto request) {
+        return bulkTransition(request, OrderTransition.CHECK_IN);
+    }
+    
+    @Override
+    public List<OrderTransitionItemDto> bulkCheckOut(BulkTransitionRequestDto request) {
+        return bulkTransition(request, OrderTransition.CHECK_OUT);
+    }
+    
+    /**
+     * 分块批量流转：每块在独立事务中用一条 UPDATE 更新订单与房间，一块失败不影响其他块
+     */
+    private List<OrderTransitionItemDto> bulkTransition(BulkTransitionRequestDto request, OrderTransition transition) {
+        List<Integer> ids = resolveBulkOrderIds(request, transition);
+        logger.info("批量{}，订单数: {}", transition.getLabel(), ids.size());
+        List<OrderTransitionItemDto> results = new ArrayList<>(ids.size());
+        int succeeded = 0;
+        for (int from = 0; from < ids.size(); from += bulkChunkSize) {
+            List<Integer> chunk = ids.subList(from, Math.min(from + bulkChunkSize, ids.size()));
+            Map<Integer, Orders> transitioned = new HashMap<>();
+            try {
+                for (Orders order : orderStateMachine.transitionAll(chunk, transition)) {
+                    transitioned.put(order.getId(), order);
+                }
+            } catch (Exception e) {
+                logger.error("批量{}失败，订单ID: {}", transition.getLabel(), chunk, e);
+                for (Integer id : chunk) {
+                    results.add(transitionItem(id, null, "failed", e.getMessage()));
+                }
+                continue;
+            }
+            succeeded += transitioned.size();
+            // 未流转的订单再查一次当前状态，说明跳过原因
+            List<Integer> skippedIds = new ArrayList<>();
+            for (Integer id : chunk) {
+                if (!transitioned.containsKey(id)) {
+                    skippedIds.add(id);
+                }
+            }
+            Map<Integer, Orders> skipped = new HashMap<>();
+            if (!skippedIds.isEmpty()) {
+                for (Orders order : orderMapper.findOrderStatusesByIds(skippedIds)) {
+                    skipped.put(order.getId(), order);
+                }
+            }
+            for (Integer id : chunk) {
+                Orders order = transitioned.get(id);
+                if (order != null) {
+                    results.add(transitionItem(id, order, "success", null));
+                    continue;
+                }
+                order = skipped.get(id);
+                results.add(transitionItem(id, order, "skipped", order == null
+                        ? "订单不存在" : "订单状态不正确，无法" + transition.getLabel()));
+            }
         }
-        
-        // 检查订单状态是否为已入住
-        if (!"checked_in".equals(order.getStatus())) {
-            logger.warn("订单状态不正确，无法办理退房，订单ID: {}，当前状态: {}", id, order.getStatus());
-            throw new RuntimeException("订单状态不正确，无法办理退房");
+        logger.info("批量{}完成，订单数: {}，成功: {}", transition.getLabel(), ids.size(), succeeded);
+        return results;
+    }
+    
+    private List<Integer> resolveBulkOrderIds(BulkTransitionRequestDto request, OrderTransition transition) {
+        if (request.getOrderIds() != null && !request.getOrderIds().isEmpty()) {
+            return new ArrayList<>(new LinkedHashSet<>(request.getOrderIds()));
         }
-        
-        // 更新订单状态为已退房
-        order.setStatus("checked_out");
-        // 设置更新时间
-        order.setCreatedAt(TimestampUtil.getCurrentTimestamp());
-        int result = orderMapper.updateOrder(order);
-        
-        // 更新房间状态为空闲
-        orderMapper.updateRoomStatus(order.getRoomId(), "available");
-        
-        boolean success = result > 0;
-        if (success) {
-            logger.info("办理退房成功，订单ID: {}，房间ID: {} 状态已更新为空闲", id, order.getRoomId());
-        } else {
-            logger.error("办理退房失败，订单ID: {}", id);
+        if (request.getHotelId() == null) {
+            throw new RuntimeException("请指定订单ID列表或酒店ID");
         }
-        return success;
+        String date;
+        try {
+            date = request.getDate() == null || request.getDate().isEmpty()
+                    ? LocalDate.now().toString() : LocalDate.parse(request.getDate()).toString();
+        } catch (DateTimeParseException e) {
+            throw new RuntimeException("日期格式错误");
+        }
+        // 入住处理当日到店的已确认订单，退房处理当日离店的已入住订单
+        String fromStatus = transition.getFromStatuses().get(0);
+        return transition == OrderTransition.CHECK_IN
+                ? orderMapper.findOrderIdsByHotelAndDate(request.getHotelId(), fromStatus, date, null)
+                : orderMapper.findOrderIdsByHotelAndDate(request.getHotelId(), fromStatus, null, date);
+    }
+    
+    private static OrderTransitionItemDto transitionItem(Integer id, Orders order, String result, String message) {
+        OrderTransitionItemDto item = new OrderTransitionItemDto();
+        item.setOrderId(id);
+        if (order != null) {
+            item.setOrderNumber(order.getOrderNumber());
+            item.setRoomId(order.getRoomId());
+            item.setStatus(order.getStatus());
+        }
+        item.setResult(result);
+        item.setMessage(message);
+        return item;
+    }
+    
+    @Override
+    public List<OrderStatusChangeDto> getOrderHistory(Integer id) {
+        logger.debug("查询订单状态变更记录，订单ID: {}", id);
+        return orderEventJournal.replayOrder(id);
+    }
+    
+    @Override
+    public List<OrderStatusChangeDto> findStatusChanges(Long from, Long to) {
+        long end = to == null ? System.currentTimeMillis() : to;
+        long start = from == null ? end - TimeUnit.DAYS.toMillis(1) : from;
+        if (start > end) {
+            throw new RuntimeException("起始时间不能晚于结束时间");
+        }
+        logger.debug("查询时间段内的订单状态变更记录，起始: {}，结束: {}", start, end);
+        return orderEventJournal.replayRange(start, end);
     }
-}
\ No newline at end of file
+}
@@ -1,42 +1,54 @@
 package org.example.hotelmanagementsystem.service.impl;
 
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.ibatis.cursor.Cursor;
 import org.example.hotelmanagementsystem.dto.BookingStatisticsDto;
 import org.example.hotelmanagementsystem.dto.RevenueStatisticsDto;
 import org.example.hotelmanagementsystem.dto.OccupancyRateDto;
 import org.example.hotelmanagementsystem.dto.ReportQueryDto;
 import org.example.hotelmanagementsystem.mapper.ReportMapper;
+import org.example.hotelmanagementsystem.service.OrderArchiveService;
 import org.example.hotelmanagementsystem.service.ReportService;
-import org.example.hotelmanagementsystem.util.TimestampUtil;
+import org.example.hotelmanagementsystem.util.CsvRowWriter;
+import org.example.hotelmanagementsystem.util.ExcelRowWriter;
+import org.example.hotelmanagementsystem.util.ReportFormat;
+import org.example.hotelmanagementsystem.util.ReportRowWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import java.io.FileOutputStream;
+import org.springframework.transaction.annotation.Transactional;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.function.BiConsumer;
 
 @Service
 public class ReportServiceImpl implements ReportService {
     
     private static final Logger logger = LoggerFactory.getLogger(ReportServiceImpl.class);
     
+    private static final String[] BOOKING_HEADERS = {"酒店ID", "酒店名称", "总预订数", "确认预订数", "入住数", "取消数", "预订率(%)", "入住率(%)"};
+    private static final String[] REVENUE_HEADERS = {"酒店ID", "酒店名称", "月份", "总收入", "平均房价", "订单数"};
+    private static final String[] OCCUPANCY_HEADERS = {"酒店ID", "酒店名称", "日期", "总房间数", "已占用房间数", "入住率(%)"};
+    
     @Autowired
     private ReportMapper reportMapper;
+    @Autowired
+    private OrderArchiveService orderArchiveService;
+    
+    // 导出Excel时内存中保留的行数，更早的行暂存到压缩的临时文件
+    @Value("${hotel.report.excel-row-window:100}")
+    private int excelRowWindow;
+    // 导出CSV时的写缓冲区大小（字节）
+    @Value("${hotel.report.csv-buffer-bytes:65536}")
+    private int csvBufferSize;
     
     @Override
     public List<BookingStatisticsDto> getBookingStatistics(ReportQueryDto query) {
         logger.info("获取预订统计信息，查询条件: {}", query);
-        Long startTimestamp = null;
-        Long endTimestamp = null;
-        if (query.getStartDate() != null && !query.getStartDate().isEmpty()) {
-            startTimestamp = TimestampUtil.parseTimestamp(query.getStartDate() + " 00:00:00");
-        }
-        if (query.getEndDate() != null && !query.getEndDate().isEmpty()) {
-            endTimestamp = TimestampUtil.parseTimestamp(query.getEndDate() + " 23:59:59");
-        }
-        List<BookingStatisticsDto> result = reportMapper.getBookingStatistics(startTimestamp, endTimestamp, query.getHotelId());
+        // 由订单日汇总按下单日求和，不扫描订单表
+        List<BookingStatisticsDto> result = reportMapper.getBookingStatistics(query.getStartDate(), query.getEndDate(), query.getHotelId());
         logger.debug("预订统计查询完成，结果数: {}", result.size());
         return result;
     }
@@ -44,15 +56,8 @@ public class ReportServiceImpl implements ReportService {
     @Override
     public List<RevenueStatisticsDto> getRevenueStatistics(ReportQueryDto query) {
         logger.info("获取收入统计信息，查询条件: {}", query);
-        Long startTimestamp = null;
-        Long endTimestamp = null;
-        if (query.getStartDate() != null && !query.getStartDate().isEmpty()) {
-            startTimestamp = TimestampUtil.parseTimestamp(query.getStartDate() + " 00:00:00");
-        }
-        if (query.getEndDate() != null && !query.getEndDate().isEmpty()) {
-            endTimestamp = TimestampUtil.parseTimestamp(query.getEndDate() + " 23:59:59");
-        }
-        List<RevenueStatisticsDto> result = reportMapper.getRevenueStatistics(startTimestamp, endTimestamp, query.getHotelId());
+        // 由订单日汇总按下单日求和，不扫描订单表
+        List<RevenueStatisticsDto> result = reportMapper.getRevenueStatistics(query.getStartDate(), query.getEndDate(), query.getHotelId());
         logger.debug("收入统计查询完成，结果数: {}", result.size());
         return result;
     }
@@ -60,174 +65,95 @@ public class ReportServiceImpl implements ReportService {
     @Override
     public List<OccupancyRateDto> getOccupancyRateStatistics(ReportQueryDto query) {
         logger.info("获取入住率统计信息，查询条件: {}", query);
-        List<OccupancyRateDto> result = reportMapper.getOccupancyRateStatistics(query.getStartDate(), query.getEndDate(), query.getHotelId());
+        List<OccupancyRateDto> result = reportMapper.getOccupancyRateStatistics(query.getStartDate(), query.getEndDate(), query.getHotelId(),
+                orderArchiveService.coversCheckInFrom(query.getStartDate()));
         logger.debug("入住率统计查询完成，结果数: {}", result.size());
         return result;
     }
     
     @Override
-    public String exportBookingStatisticsToExcel(ReportQueryDto query) throws IOException {
-        logger.info("导出预订统计报表到Excel，查询条件: {}", query);
-        List<BookingStatisticsDto> dataList = getBookingStatistics(query);
-        
-        Workbook workbook = new XSSFWorkbook();
-        Sheet sheet = workbook.createSheet("预订统计报表");
-        
-        // 创建表头
-        Row headerRow = sheet.createRow(0);
-        String[] headers = {"酒店ID", "酒店名称", "总预订数", "确认预订数", "入住数", "取消数", "预订率(%)", "入住率(%)"};
-        for (int i = 0; i < headers.length; i++) {
-            Cell cell = headerRow.createCell(i);
-            cell.setCellValue(headers[i]);
-            CellStyle headerStyle = workbook.createCellStyle();
-            Font font = workbook.createFont();
-            font.setBold(true);
-            headerStyle.setFont(font);
-            cell.setCellStyle(headerStyle);
-        }
-        
-        // 填充数据
-        int rowNum = 1;
-        for (BookingStatisticsDto data : dataList) {
-            Row row = sheet.createRow(rowNum++);
-            row.createCell(0).setCellValue(data.getHotelId());
-            row.createCell(1).setCellValue(data.getHotelName());
-            row.createCell(2).setCellValue(data.getTotalBookings());
-            row.createCell(3).setCellValue(data.getConfirmedBookings());
-            row.createCell(4).setCellValue(data.getCheckInCount());
-            row.createCell(5).setCellValue(data.getCancelledBookings());
-            row.createCell(6).setCellValue(data.getBookingRate());
-            row.createCell(7).setCellValue(data.getCheckInRate());
+    @Transactional(readOnly = true)
+    public void exportBookingStatistics(ReportQueryDto query, ReportFormat format, OutputStream output) throws IOException {
+        logger.info("导出预订统计报表，格式: {}，查询条件: {}", format, query);
+        // 游标在事务结束时关闭，期间逐行写入输出流
+        try (Cursor<BookingStatisticsDto> cursor = reportMapper.streamBookingStatistics(
+                query.getStartDate(), query.getEndDate(), query.getHotelId())) {
+            export("预订统计报表", BOOKING_HEADERS, format, output, cursor, (data, values) -> {
+                values[0] = data.getHotelId();
+                values[1] = data.getHotelName();
+                values[2] = data.getTotalBookings();
+                values[3] = data.getConfirmedBookings();
+                values[4] = data.getCheckInCount();
+                values[5] = data.getCancelledBookings();
+                values[6] = data.getBookingRate();
+                values[7] = data.getCheckInRate();
+            });
         }
-        
-        // 自动调整列宽
-        for (int i = 0; i < headers.length; i++) {
-            sheet.autoSizeColumn(i);
-        }
-        
-        // 保存文件
-        String filePath = createExcelFilePath("booking_statistics");
-        FileOutputStream outputStream = new FileOutputStream(filePath);
-        workbook.write(outputStream);
-        workbook.close();
-        outputStream.close();
-        
-        logger.info("预订统计报表导出完成，文件路径: {}", filePath);
-        return filePath;
     }
     
     @Override
-    public String exportRevenueStatisticsToExcel(ReportQueryDto query) throws IOException {
-        logger.info("导出收入统计报表到Excel，查询条件: {}", query);
-        List<RevenueStatisticsDto> dataList = getRevenueStatistics(query);
-        
-        Workbook workbook = new XSSFWorkbook();
-        Sheet sheet = workbook.createSheet("收入统计报表");
-        
-        // 创建表头
-        Row headerRow = sheet.createRow(0);
-        String[] headers = {"酒店ID", "酒店名称", "月份", "总收入", "平均房价", "订单数"};
-        for (int i = 0; i < headers.length; i++) {
-            Cell cell = headerRow.createCell(i);
-            cell.setCellValue(headers[i]);
-            CellStyle headerStyle = workbook.createCellStyle();
-            Font font = workbook.createFont();
-            font.setBold(true);
-            headerStyle.setFont(font);
-            cell.setCellStyle(headerStyle);
-        }
-        
-        // 填充数据
-        int rowNum = 1;
-        for (RevenueStatisticsDto data : dataList) {
-            Row row = sheet.createRow(rowNum++);
-            row.createCell(0).setCellValue(data.getHotelId());
-            row.createCell(1).setCellValue(data.getHotelName());
-            row.createCell(2).setCellValue(data.getMonth());
-            row.createCell(3).setCellValue(data.getTotalRevenue().doubleValue());
-            row.createCell(4).setCellValue(data.getAverageRoomPrice().doubleValue());
-            row.createCell(5).setCellValue(data.getOrderCount());
+    @Transactional(readOnly = true)
+    public void exportRevenueStatistics(ReportQueryDto query, ReportFormat format, OutputStream output) throws IOException {
+        logger.info("导出收入统计报表，格式: {}，查询条件: {}", format, query);
+        try (Cursor<RevenueStatisticsDto> cursor = reportMapper.streamRevenueStatistics(
+                query.getStartDate(), query.getEndDate(), query.getHotelId())) {
+            export("收入统计报表", REVENUE_HEADERS, format, output, cursor, (data, values) -> {
+                values[0] = data.getHotelId();
+                values[1] = data.getHotelName();
+                values[2] = data.getMonth();
+                values[3] = data.getTotalRevenue();
+                values[4] = data.getAverageRoomPrice();
+                values[5] = data.getOrderCount();
+            });
         }
-        
-        // 自动调整列宽
-        for (int i = 0; i < headers.length; i++) {
-            sheet.autoSizeColumn(i);
-        }
-        
-        // 保存文件
-        String filePath = createExcelFilePath("revenue_statistics");
-        FileOutputStream outputStream = new FileOutputStream(filePath);
-        workbook.write(outputStream);
-        workbook.close();
-        outputStream.close();
-        
-        logger.info("收入统计报表导出完成，文件路径: {}", filePath);
-        return filePath;
     }
     
     @Override
-    public String exportOccupancyRateStatisticsToExcel(ReportQueryDto query) throws IOException {
-        logger.info("导出入住率统计报表到Excel，查询条件: {}", query);
-        List<OccupancyRateDto> dataList = getOccupancyRateStatistics(query);
-        
-        Workbook workbook = new XSSFWorkbook();
-        Sheet sheet = workbook.createSheet("入住率统计报表");
-        
-        // 创建表头
-        Row headerRow = sheet.createRow(0);
-        String[] headers = {"酒店ID", "酒店名称", "日期", "总房间数", "已占用房间数", "入住率(%)"};
-        for (int i = 0; i < headers.length; i++) {
-            Cell cell = headerRow.createCell(i);
-            cell.setCellValue(headers[i]);
-            CellStyle headerStyle = workbook.createCellStyle();
-            Font font = workbook.createFont();
-            font.setBold(true);
-            headerStyle.setFont(font);
-            cell.setCellStyle(headerStyle);
-        }
-        
-        // 填充数据
-        int rowNum = 1;
-        for (OccupancyRateDto data : dataList) {
-            Row row = sheet.createRow(rowNum++);
-            row.createCell(0).setCellValue(data.getHotelId());
-            row.createCell(1).setCellValue(data.getHotelName());
-            row.createCell(2).setCellValue(data.getDate());
-            row.createCell(3).setCellValue(data.getTotalRooms());
-            row.createCell(4).setCellValue(data.getOccupiedRooms());
-            row.createCell(5).setCellValue(data.getOccupancyRate());
+    @Transactional(readOnly = true)
+    public void exportOccupancyRateStatistics(ReportQueryDto query, ReportFormat format, OutputStream output) throws IOException {
+        logger.info("导出入住率统计报表，格式: {}，查询条件: {}", format, query);
+        try (Cursor<OccupancyRateDto> cursor = reportMapper.streamOccupancyRateStatistics(
+                query.getStartDate(), query.getEndDate(), query.getHotelId(),
+                orderArchiveService.coversCheckInFrom(query.getStartDate()))) {
+            export("入住率统计报表", OCCUPANCY_HEADERS, format, output, cursor, (data, values) -> {
+                values[0] = data.getHotelId();
+                values[1] = data.getHotelName();
+                values[2] = data.getDate();
+                values[3] = data.getTotalRooms();
+                values[4] = data.getOccupiedRooms();
+                values[5] = data.getOccupancyRate();
+            });
         }
-        
-        // 自动调整列宽
-        for (int i = 0; i < headers.length; i++) {
-            sheet.autoSizeColumn(i);
-        }
-        
-        // 保存文件
-        String filePath = createExcelFilePath("occupancy_rate_statistics");
-        FileOutputStream outputStream = new FileOutputStream(filePath);
-        workbook.write(outputStream);
-        workbook.close();
-        outputStream.close();
-        
-        logger.info("入住率统计报表导出完成，文件路径: {}", filePath);
-        return filePath;
     }
     
     /**
-     * 创建Excel文件路径
-     * @param prefix 文件名前缀
-     * @return 文件路径
+     * 按格式打开行写入器，将游标中的记录逐行写出，所有行共用同一个值数组
      */
-    private String createExcelFilePath(String prefix) {
-        // 创建excel目录（如果不存在）
-        java.io.File excelDir = new java.io.File("src/main/resources/excel");
-        if (!excelDir.exists()) {
-            excelDir.mkdirs();
+    private <T> void export(String title, String[] headers, ReportFormat format, OutputStream output,
+                            Iterable<T> rows, BiConsumer<T, Object[]> columns) throws IOException {
+        long startTime = System.currentTimeMillis();
+        int count = 0;
+        try (ReportRowWriter writer = openWriter(format, output)) {
+            writer.begin(title, headers);
+            Object[] values = new Object[headers.length];
+            for (T row : rows) {
+                columns.accept(row, values);
+                writer.writeRow(values);
+                count++;
+            }
+            writer.finish();
+        }
+        logger.info("{}导出完成，格式: {}，行数: {}，耗时: {} ms", title, format, count, System.currentTimeMillis() - startTime);
+    }
+    
+    private ReportRowWriter openWriter(ReportFormat format, OutputStream output) throws IOException {
+        switch (format) {
+            case CSV:
+                return new CsvRowWriter(output, false, csvBufferSize);
+            case CSV_GZIP:
+                return new CsvRowWriter(output, true, csvBufferSize);
+            default:
+                return new ExcelRowWriter(output, excelRowWindow);
         }
-        
-        // 生成文件名
-        String fileName = prefix + "_" + System.currentTimeMillis() + ".xlsx";
-        return "src/main/resources/excel/" + fileName;
     }
-}
\ No newline at end of file
+}
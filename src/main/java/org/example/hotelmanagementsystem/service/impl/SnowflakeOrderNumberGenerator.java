@@ -0,0 +1,65 @@
+package org.example.hotelmanagementsystem.service.impl;
+
+import org.example.hotelmanagementsystem.service.OrderNumberGenerator;
+import org.example.hotelmanagementsystem.util.SnowflakeIdGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+/**
+ * 基于雪花算法的订单编号生成器，订单编号为 "ORD" + 19位以内的十进制ID
+ */
+@Service
+public class SnowflakeOrderNumberGenerator implements OrderNumberGenerator {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SnowflakeOrderNumberGenerator.class);
+    
+    private static final String PREFIX = "ORD";
+    
+    // 节点号（0 ~ 1023），多节点部署时每个节点必须不同；-1 表示按主机名与进程号推算
+    @Value("${hotel.id.node-id:-1}")
+    private long nodeId;
+    // ID时间戳的起始纪元（UTC日期），上线后不可修改
+    @Value("${hotel.id.epoch:2024-01-01}")
+    private String epoch;
+    
+    private SnowflakeIdGenerator generator;
+    
+    @PostConstruct
+    public void init() {
+        long node = nodeId;
+        if (node < 0) {
+            node = deriveNodeId();
+            logger.warn("未配置 hotel.id.node-id，按主机名与进程号推算节点号: {}，多节点部署时请显式配置", node);
+        }
+        long epochMillis = LocalDate.parse(epoch).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+        generator = new SnowflakeIdGenerator(node, epochMillis);
+        logger.info("订单编号生成器已初始化，节点号: {}", node);
+    }
+    
+    @Override
+    public String nextOrderNumber() {
+        long id = generator.nextId();
+        return new StringBuilder(PREFIX.length() + 19).append(PREFIX).append(id).toString();
+    }
+    
+    private static long deriveNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "unknown";
+        }
+        // RuntimeMXBean 名称形如 "pid@hostname"
+        String identity = host + "/" + ManagementFactory.getRuntimeMXBean().getName();
+        return (identity.hashCode() & Integer.MAX_VALUE) % (SnowflakeIdGenerator.MAX_NODE_ID + 1);
+    }
+}
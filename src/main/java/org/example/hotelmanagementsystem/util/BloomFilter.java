@@ -0,0 +1,103 @@
+package org.example.hotelmanagementsystem.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 字符串布隆过滤器
+ * mightContain 返回 false 时元素一定不存在，返回 true 时以设定的误判率可能不存在。
+ * 只支持添加不支持删除，添加与查询均线程安全且无锁。
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    /**
+     * @param expectedInsertions 预计元素数量
+     * @param falsePositiveRate 期望误判率（0 ~ 1）
+     */
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        long n = Math.max(1, expectedInsertions);
+        double p = Math.min(Math.max(falsePositiveRate, 1e-9), 0.5);
+        // 最优位数 m = -n·ln(p) / (ln2)^2，最优哈希函数个数 k = m/n·ln2
+        long m = (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2)));
+        // 位下标取自31位哈希值，位数组最多 2^31 位
+        int words = (int) Math.min(1 << 25, (m + 63) >>> 6);
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = (long) words << 6;
+        this.hashCount = Math.min(16, Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2))));
+    }
+
+    /**
+     * 添加元素
+     * @param value 元素
+     */
+    public void put(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long index = indexOf(h1 + i * h2);
+            int word = (int) (index >>> 6);
+            long mask = 1L << index;
+            long current = bits.get(word);
+            while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+                current = bits.get(word);
+            }
+        }
+    }
+
+    /**
+     * 判断元素是否可能存在
+     * @param value 元素
+     * @return false 表示一定不存在
+     */
+    public boolean mightContain(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long index = indexOf(h1 + i * h2);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return 位数组长度
+     */
+    public long bitSize() {
+        return bitCount;
+    }
+
+    /**
+     * @return 哈希函数个数
+     */
+    public int hashCount() {
+        return hashCount;
+    }
+
+    // 两个哈希值组合出 k 个哈希函数（Kirsch-Mitzenmacher）
+    private long indexOf(int combined) {
+        return (combined & Integer.MAX_VALUE) % bitCount;
+    }
+
+    // 64位 FNV-1a 后接 murmur3 混淆，保证高低32位都分布均匀
+    private static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb53ca94d8cdbL;
+        h ^= h >>> 33;
+        return h;
+    }
+}
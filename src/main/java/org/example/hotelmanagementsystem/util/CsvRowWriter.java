@@ -0,0 +1,138 @@
+package org.example.hotelmanagementsystem.util;
+
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * CSV 报表行写入器
+ * 按 RFC 4180 转义，UTF-8 编码，可选 gzip 压缩。每行直接写入固定大小的缓冲区，缓冲区满时写出，
+ * 不创建单元格对象，也不保留已写出的行。
+ */
+public class CsvRowWriter implements ReportRowWriter {
+
+    private final OutputStream output;
+    private final ReleasableGzipOutputStream gzip;
+    private final Writer writer;
+
+    /**
+     * @param output 输出流
+     * @param gzip 是否以 gzip 压缩
+     * @param bufferSize 缓冲区大小（字节）
+     * @throws IOException 写入 gzip 头失败
+     */
+    public CsvRowWriter(OutputStream output, boolean gzip, int bufferSize) throws IOException {
+        this.output = output;
+        // 不关闭调用方的输出流
+        OutputStream target = new FilterOutputStream(output) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+        };
+        this.gzip = gzip ? new ReleasableGzipOutputStream(target, bufferSize) : null;
+        this.writer = new BufferedWriter(new OutputStreamWriter(gzip ? this.gzip : target, StandardCharsets.UTF_8), bufferSize);
+    }
+
+    @Override
+    public void begin(String title, String[] headers) throws IOException {
+        writeRow(headers);
+    }
+
+    @Override
+    public void writeRow(Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            Object value = values[i];
+            if (value instanceof BigDecimal) {
+                writer.write(((BigDecimal) value).toPlainString());
+            } else if (value instanceof Double || value instanceof Float) {
+                // 过大或过小的数值都不输出为科学计数法
+                double number = ((Number) value).doubleValue();
+                if (Double.isNaN(number) || Double.isInfinite(number)) {
+                    writer.write(Double.toString(number));
+                } else if (value instanceof Float) {
+                    writer.write(new BigDecimal(value.toString()).toPlainString());
+                } else {
+                    writer.write(BigDecimal.valueOf(number).toPlainString());
+                }
+            } else if (value instanceof Number) {
+                writer.write(value.toString());
+            } else if (value != null) {
+                writeText(value.toString());
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    @Override
+    public void finish() throws IOException {
+        writer.flush();
+        if (gzip != null) {
+            gzip.finish();
+        }
+        output.flush();
+    }
+
+    /**
+     * 只释放压缩器，不写出缓冲区中剩余的行，也不写 gzip 尾部。
+     * 未调用 finish 就关闭（导出中途出错）时输出保持不完整，客户端可以发现截断。
+     */
+    @Override
+    public void close() {
+        if (gzip != null) {
+            gzip.release();
+        }
+    }
+
+    // 含逗号、引号或换行的文本加引号，内部引号写两次
+    private void writeText(String text) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < text.length() && !quote; i++) {
+            char c = text.charAt(i);
+            quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+        if (!quote) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        int start = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '"') {
+                writer.write(text, start, i - start + 1);
+                writer.write('"');
+                start = i + 1;
+            }
+        }
+        writer.write(text, start, text.length() - start);
+        writer.write('"');
+    }
+
+    /**
+     * 可以只释放压缩器而不写 gzip 尾部的压缩流
+     */
+    private static class ReleasableGzipOutputStream extends GZIPOutputStream {
+
+        ReleasableGzipOutputStream(OutputStream out, int size) throws IOException {
+            super(out, size);
+        }
+
+        void release() {
+            def.end();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package org.example.hotelmanagementsystem.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Comparator;
+
+/**
+ * 分页游标工具类
+ * 将排序键编码为不透明的字符串，客户端原样回传即可获取下一页
+ */
+public class CursorUtil {
+    
+    private static final char SEPARATOR = '\u001F';
+    private static final String NULL_VALUE = "\u0000";
+    
+    /**
+     * 按 Unicode 码点逐个比较字符串，与 SQL 中按 UTF-8 字节（CAST(... AS BINARY)）排序的结果一致。
+     * 不能用 String.compareTo：它比较 UTF-16 编码单元，增补字符会排在 U+E000 ~ U+FFFF 之前；
+     * 也不能依赖列的排序规则：utf8mb4_general_ci 等不区分大小写，和 Java 的顺序不同
+     */
+    public static final Comparator<String> BINARY_ORDER = (a, b) -> {
+        int i = 0;
+        int j = 0;
+        while (i < a.length() && j < b.length()) {
+            int x = a.codePointAt(i);
+            int y = b.codePointAt(j);
+            if (x != y) {
+                return Integer.compare(x, y);
+            }
+            i += Character.charCount(x);
+            j += Character.charCount(y);
+        }
+        return Integer.compare(a.length() - i, b.length() - j);
+    };
+    
+    /**
+     * 将排序键编码为游标
+     * @param values 排序键（按排序列顺序）
+     * @return 游标字符串
+     */
+    public static String encode(Object... values) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                sb.append(SEPARATOR);
+            }
+            sb.append(values[i] == null ? NULL_VALUE : values[i].toString());
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * 解析游标
+     * @param cursor 游标字符串
+     * @param expectedSize 排序键个数
+     * @return 排序键（原值为 null 的位置返回 null）
+     */
+    public static String[] decode(String cursor, int expectedSize) {
+        String[] values;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            values = raw.split(String.valueOf(SEPARATOR), -1);
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("无效的分页游标");
+        }
+        if (values.length != expectedSize) {
+            throw new RuntimeException("无效的分页游标");
+        }
+        for (int i = 0; i < values.length; i++) {
+            if (NULL_VALUE.equals(values[i])) {
+                values[i] = null;
+            }
+        }
+        return values;
+    }
+}
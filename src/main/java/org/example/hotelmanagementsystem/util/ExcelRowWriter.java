@@ -0,0 +1,81 @@
+package org.example.hotelmanagementsystem.util;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Excel 报表行写入器
+ * 基于 SXSSF，内存中只保留最近 rowWindow 行，更早的行压缩后暂存到临时文件，
+ * finish 时把整个工作簿直接写入输出流，close 时删除临时文件。
+ */
+public class ExcelRowWriter implements ReportRowWriter {
+
+    private final OutputStream output;
+    private final SXSSFWorkbook workbook;
+    private SXSSFSheet sheet;
+    private int columns;
+    private int rowNum;
+
+    /**
+     * @param output 输出流
+     * @param rowWindow 内存中保留的行数
+     */
+    public ExcelRowWriter(OutputStream output, int rowWindow) {
+        this.output = output;
+        this.workbook = new SXSSFWorkbook(rowWindow);
+        this.workbook.setCompressTempFiles(true);
+    }
+
+    @Override
+    public void begin(String title, String[] headers) {
+        sheet = workbook.createSheet(title);
+        // 列宽按已写入的行计算，被刷出内存的行也计入
+        sheet.trackAllColumnsForAutoSizing();
+        columns = headers.length;
+        CellStyle headerStyle = workbook.createCellStyle();
+        Font font = workbook.createFont();
+        font.setBold(true);
+        headerStyle.setFont(font);
+        Row headerRow = sheet.createRow(rowNum++);
+        for (int i = 0; i < headers.length; i++) {
+            Cell cell = headerRow.createCell(i);
+            cell.setCellValue(headers[i]);
+            cell.setCellStyle(headerStyle);
+        }
+    }
+
+    @Override
+    public void writeRow(Object[] values) {
+        Row row = sheet.createRow(rowNum++);
+        for (int i = 0; i < values.length; i++) {
+            Object value = values[i];
+            if (value instanceof Number) {
+                row.createCell(i).setCellValue(((Number) value).doubleValue());
+            } else if (value != null) {
+                row.createCell(i).setCellValue(value.toString());
+            }
+        }
+    }
+
+    @Override
+    public void finish() throws IOException {
+        for (int i = 0; i < columns; i++) {
+            sheet.autoSizeColumn(i);
+        }
+        workbook.write(output);
+        output.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        workbook.dispose();
+        workbook.close();
+    }
+}
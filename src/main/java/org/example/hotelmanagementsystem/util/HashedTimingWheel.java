@@ -0,0 +1,170 @@
+package org.example.hotelmanagementsystem.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 哈希时间轮
+ * 将到期时间按刻度散列到环形槽位中，调度、取消均为 O(1)，推进时只检查经过的槽位，
+ * 无需扫描全部定时任务。本类不持有线程，由调用方定期调用 advance 推进。
+ * @param <K> 定时任务的键（同一个键同时只保留一个到期时间）
+ */
+public class HashedTimingWheel<K> {
+
+    private final long tickMillis;
+    private final int mask;
+    private final Slot<K>[] slots;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<K, Entry<K>> entries = new HashMap<>();
+    // 已处理到的刻度
+    private long currentTick;
+
+    /**
+     * @param tickMillis 每个刻度的毫秒数
+     * @param wheelSize 槽位数量（向上取整为2的幂）
+     * @param startMillis 起始时间（毫秒）
+     */
+    @SuppressWarnings("unchecked")
+    public HashedTimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        int size = 1;
+        while (size < wheelSize) {
+            size <<= 1;
+        }
+        this.tickMillis = tickMillis;
+        this.mask = size - 1;
+        this.slots = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot<>();
+        }
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    /**
+     * 添加或重新调度定时任务，已过期的时间会在下一次推进时到期
+     * @param key 键
+     * @param deadlineMillis 到期时间（毫秒）
+     */
+    public void schedule(K key, long deadlineMillis) {
+        lock.lock();
+        try {
+            Entry<K> existing = entries.remove(key);
+            if (existing != null) {
+                existing.unlink();
+            }
+            long deadlineTick = Math.max(deadlineMillis / tickMillis, currentTick + 1);
+            Entry<K> entry = new Entry<>(key, deadlineTick);
+            slots[(int) (deadlineTick & mask)].add(entry);
+            entries.put(key, entry);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 取消定时任务
+     * @param key 键
+     * @return 任务存在并被取消时返回 true
+     */
+    public boolean cancel(K key) {
+        lock.lock();
+        try {
+            Entry<K> entry = entries.remove(key);
+            if (entry == null) {
+                return false;
+            }
+            entry.unlink();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 推进时间轮到指定时间，取出所有已到期的任务
+     * @param nowMillis 当前时间（毫秒）
+     * @return 到期任务的键
+     */
+    public List<K> advance(long nowMillis) {
+        lock.lock();
+        try {
+            long targetTick = nowMillis / tickMillis;
+            List<K> expired = new ArrayList<>();
+            if (targetTick <= currentTick) {
+                return expired;
+            }
+            // 跨度超过一圈时每个槽位只需检查一次
+            long steps = Math.min(targetTick - currentTick, slots.length);
+            for (long tick = currentTick + 1; tick <= currentTick + steps; tick++) {
+                Entry<K> entry = slots[(int) (tick & mask)].head;
+                while (entry != null) {
+                    Entry<K> next = entry.next;
+                    if (entry.deadlineTick <= targetTick) {
+                        entry.unlink();
+                        entries.remove(entry.key);
+                        expired.add(entry.key);
+                    }
+                    entry = next;
+                }
+            }
+            currentTick = targetTick;
+            return expired;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return 尚未到期的任务数
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static class Slot<K> {
+        Entry<K> head;
+
+        void add(Entry<K> entry) {
+            entry.slot = this;
+            entry.next = head;
+            if (head != null) {
+                head.prev = entry;
+            }
+            head = entry;
+        }
+    }
+
+    private static class Entry<K> {
+        final K key;
+        final long deadlineTick;
+        Slot<K> slot;
+        Entry<K> prev;
+        Entry<K> next;
+
+        Entry(K key, long deadlineTick) {
+            this.key = key;
+            this.deadlineTick = deadlineTick;
+        }
+
+        void unlink() {
+            if (prev != null) {
+                prev.next = next;
+            } else if (slot != null) {
+                slot.head = next;
+            }
+            if (next != null) {
+                next.prev = prev;
+            }
+            prev = null;
+            next = null;
+            slot = null;
+        }
+    }
+}
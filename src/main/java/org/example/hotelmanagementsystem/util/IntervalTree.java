@@ -0,0 +1,235 @@
+package org.example.hotelmanagementsystem.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 区间树
+ * 以 AVL 树按 (起点, 终点, ID) 排序保存半开区间 [start, end)，每个节点记录子树中的最大终点，
+ * 判断是否存在与给定区间重叠的区间为 O(log n)，列出全部重叠区间为 O(log n + k)。
+ * 树不可变：插入、删除只复制从根到修改位置路径上的节点并返回新树，读线程可以无锁地使用任一版本。
+ * @param <T> 区间携带的数据
+ */
+public final class IntervalTree<T> {
+
+    private static final IntervalTree<?> EMPTY = new IntervalTree<>(null);
+
+    private final Node<T> root;
+
+    private IntervalTree(Node<T> root) {
+        this.root = root;
+    }
+
+    /**
+     * 获取空树
+     * @return 空树
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> IntervalTree<T> empty() {
+        return (IntervalTree<T>) EMPTY;
+    }
+
+    /**
+     * 区间数量
+     * @return 区间数量
+     */
+    public int size() {
+        return root == null ? 0 : root.size;
+    }
+
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    /**
+     * 插入区间，(起点, 终点, ID) 相同的区间已存在时替换其数据
+     * @param start 起点（含）
+     * @param end 终点（不含）
+     * @param id 区间ID，用于区分起止相同的区间
+     * @param value 区间数据
+     * @return 插入后的树
+     */
+    public IntervalTree<T> insert(long start, long end, long id, T value) {
+        if (start >= end) {
+            throw new IllegalArgumentException("区间起点必须小于终点: [" + start + ", " + end + ")");
+        }
+        return new IntervalTree<>(insert(root, start, end, id, value));
+    }
+
+    /**
+     * 删除区间
+     * @param start 起点（含）
+     * @param end 终点（不含）
+     * @param id 区间ID
+     * @return 删除后的树，区间不存在时返回当前树
+     */
+    public IntervalTree<T> remove(long start, long end, long id) {
+        Node<T> newRoot = remove(root, start, end, id);
+        return newRoot == root ? this : new IntervalTree<>(newRoot);
+    }
+
+    /**
+     * 判断是否存在与 [from, to) 重叠的区间
+     * @param from 起点（含）
+     * @param to 终点（不含）
+     * @return 是否存在重叠区间
+     */
+    public boolean overlaps(long from, long to) {
+        Node<T> node = root;
+        while (node != null) {
+            if (node.start < to && from < node.end) {
+                return true;
+            }
+            // 左子树的最大终点超过 from 时，左子树中没有重叠区间则右子树中也没有（右侧起点不小于左侧），只需查左侧
+            node = node.left != null && node.left.maxEnd > from ? node.left : node.right;
+        }
+        return false;
+    }
+
+    /**
+     * 查询与 [from, to) 重叠的区间
+     * @param from 起点（含）
+     * @param to 终点（不含）
+     * @return 重叠区间的数据，按起点升序
+     */
+    public List<T> overlapping(long from, long to) {
+        List<T> result = new ArrayList<>();
+        collect(root, from, to, result);
+        return result;
+    }
+
+    private static <T> void collect(Node<T> node, long from, long to, List<T> result) {
+        if (node == null || node.maxEnd <= from) {
+            return;
+        }
+        collect(node.left, from, to, result);
+        if (node.start < to) {
+            if (from < node.end) {
+                result.add(node.value);
+            }
+            collect(node.right, from, to, result);
+        }
+    }
+
+    private static <T> Node<T> insert(Node<T> node, long start, long end, long id, T value) {
+        if (node == null) {
+            return new Node<>(start, end, id, value, null, null);
+        }
+        int cmp = compare(start, end, id, node);
+        if (cmp == 0) {
+            return new Node<>(start, end, id, value, node.left, node.right);
+        }
+        if (cmp < 0) {
+            return balance(node.with(insert(node.left, start, end, id, value), node.right));
+        }
+        return balance(node.with(node.left, insert(node.right, start, end, id, value)));
+    }
+
+    private static <T> Node<T> remove(Node<T> node, long start, long end, long id) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(start, end, id, node);
+        if (cmp < 0) {
+            Node<T> left = remove(node.left, start, end, id);
+            return left == node.left ? node : balance(node.with(left, node.right));
+        }
+        if (cmp > 0) {
+            Node<T> right = remove(node.right, start, end, id);
+            return right == node.right ? node : balance(node.with(node.left, right));
+        }
+        if (node.left == null) {
+            return node.right;
+        }
+        if (node.right == null) {
+            return node.left;
+        }
+        // 有两个子节点时用右子树的最小节点顶替
+        Node<T> successor = node.right;
+        while (successor.left != null) {
+            successor = successor.left;
+        }
+        Node<T> right = remove(node.right, successor.start, successor.end, successor.id);
+        return balance(new Node<>(successor.start, successor.end, successor.id, successor.value, node.left, right));
+    }
+
+    private static int compare(long start, long end, long id, Node<?> node) {
+        int cmp = Long.compare(start, node.start);
+        if (cmp == 0) {
+            cmp = Long.compare(end, node.end);
+        }
+        if (cmp == 0) {
+            cmp = Long.compare(id, node.id);
+        }
+        return cmp;
+    }
+
+    private static <T> Node<T> balance(Node<T> node) {
+        int factor = height(node.left) - height(node.right);
+        if (factor > 1) {
+            Node<T> left = node.left;
+            if (height(left.left) < height(left.right)) {
+                left = rotateLeft(left);
+            }
+            return rotateRight(node.with(left, node.right));
+        }
+        if (factor < -1) {
+            Node<T> right = node.right;
+            if (height(right.right) < height(right.left)) {
+                right = rotateRight(right);
+            }
+            return rotateLeft(node.with(node.left, right));
+        }
+        return node;
+    }
+
+    private static <T> Node<T> rotateLeft(Node<T> node) {
+        Node<T> right = node.right;
+        return right.with(node.with(node.left, right.left), right.right);
+    }
+
+    private static <T> Node<T> rotateRight(Node<T> node) {
+        Node<T> left = node.left;
+        return left.with(left.left, node.with(left.right, node.right));
+    }
+
+    private static int height(Node<?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static final class Node<T> {
+        final long start;
+        final long end;
+        final long id;
+        final T value;
+        final Node<T> left;
+        final Node<T> right;
+        final int height;
+        final int size;
+        // 子树中所有区间的最大终点
+        final long maxEnd;
+
+        Node(long start, long end, long id, T value, Node<T> left, Node<T> right) {
+            this.start = start;
+            this.end = end;
+            this.id = id;
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            this.height = Math.max(height(left), height(right)) + 1;
+            this.size = (left == null ? 0 : left.size) + (right == null ? 0 : right.size) + 1;
+            long max = end;
+            if (left != null) {
+                max = Math.max(max, left.maxEnd);
+            }
+            if (right != null) {
+                max = Math.max(max, right.maxEnd);
+            }
+            this.maxEnd = max;
+        }
+
+        Node<T> with(Node<T> left, Node<T> right) {
+            return new Node<>(start, end, id, value, left, right);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package org.example.hotelmanagementsystem.util;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 房型库存计数器
+ * 按 (酒店, 房型) 记录可售房间数，以及窗口内每晚已被占用的房间数（int 数组，下标为相对起始日的天数），
+ * 房间的占用位图变化时按差值增减，查询某晚可售数量为 O(1)。本类不是线程安全的，由调用方加锁。
+ */
+public class InventoryCounters {
+
+    private final int days;
+    // 酒店ID -> 房型 -> 计数
+    private final Map<Integer, Map<String, Counter>> hotels = new HashMap<>();
+
+    /**
+     * @param days 窗口天数
+     */
+    public InventoryCounters(int days) {
+        this.days = days;
+    }
+
+    /**
+     * 增加或减少一个房间的计数
+     * @param hotelId 酒店ID
+     * @param roomType 房型
+     * @param nights 房间在窗口内被占用的夜晚（第 i 位表示起始日后第 i 晚）
+     * @param delta 1 表示加入，-1 表示移除
+     */
+    public void addRoom(Integer hotelId, String roomType, BitSet nights, int delta) {
+        Map<String, Counter> roomTypes = hotels.computeIfAbsent(hotelId, k -> new HashMap<>());
+        String key = roomType == null ? "" : roomType;
+        Counter counter = roomTypes.computeIfAbsent(key, k -> new Counter(days));
+        counter.rooms += delta;
+        for (int i = nights.nextSetBit(0); i >= 0 && i < days; i = nights.nextSetBit(i + 1)) {
+            counter.booked[i] += delta;
+        }
+        if (counter.rooms == 0) {
+            roomTypes.remove(key);
+            if (roomTypes.isEmpty()) {
+                hotels.remove(hotelId);
+            }
+        }
+    }
+
+    /**
+     * 房间占用夜晚变化时调整计数
+     * @param hotelId 酒店ID
+     * @param roomType 房型
+     * @param before 变化前的占用位图
+     * @param after 变化后的占用位图
+     */
+    public void updateNights(Integer hotelId, String roomType, BitSet before, BitSet after) {
+        Map<String, Counter> roomTypes = hotels.get(hotelId);
+        Counter counter = roomTypes == null ? null : roomTypes.get(roomType == null ? "" : roomType);
+        if (counter == null) {
+            return;
+        }
+        BitSet changed = (BitSet) before.clone();
+        changed.xor(after);
+        for (int i = changed.nextSetBit(0); i >= 0 && i < days; i = changed.nextSetBit(i + 1)) {
+            counter.booked[i] += after.get(i) ? 1 : -1;
+        }
+    }
+
+    /**
+     * 查询酒店各房型每晚的可售房间数
+     * @param hotelId 酒店ID
+     * @param from 起始下标（含）
+     * @param to 结束下标（不含）
+     * @return 房型 -> [可售房间总数, 第 from 晚可售数, ..., 第 to-1 晚可售数]，按房型排序
+     */
+    public Map<String, int[]> snapshot(Integer hotelId, int from, int to) {
+        Map<String, int[]> result = new TreeMap<>();
+        Map<String, Counter> roomTypes = hotels.get(hotelId);
+        if (roomTypes == null) {
+            return result;
+        }
+        for (Map.Entry<String, Counter> entry : roomTypes.entrySet()) {
+            Counter counter = entry.getValue();
+            int[] row = new int[to - from + 1];
+            row[0] = counter.rooms;
+            for (int i = from; i < to; i++) {
+                row[i - from + 1] = Math.max(0, counter.rooms - counter.booked[i]);
+            }
+            result.put(entry.getKey(), row);
+        }
+        return result;
+    }
+
+    private static class Counter {
+        int rooms;
+        final int[] booked;
+
+        Counter(int days) {
+            this.booked = new int[days];
+        }
+    }
+}
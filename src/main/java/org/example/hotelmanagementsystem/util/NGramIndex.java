@@ -0,0 +1,189 @@
+package org.example.hotelmanagementsystem.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 二元分词倒排索引
+ * 将文本切分为相邻两个字符的词元（另收录单字，用于单字查询），按词元记录包含它的键。
+ * 子串查询时取查询串各词元倒排表的交集作为候选，再逐个校验是否真正包含查询串，
+ * 结果与 LIKE '%xxx%'（忽略大小写）一致。适用于以中文为主的短文本。
+ * @param <K> 文档的键
+ */
+public class NGramIndex<K> {
+
+    // 词元 -> 包含该词元的键
+    private final Map<String, Set<K>> postings = new HashMap<>();
+    // 键 -> 规范化后的文本
+    private final Map<K, String> documents = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 添加或替换文档
+     * @param key 键
+     * @param text 文本，为空时只移除原文档
+     */
+    public void put(K key, String text) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(key);
+            String normalized = normalize(text);
+            if (normalized == null) {
+                return;
+            }
+            documents.put(key, normalized);
+            for (String token : tokenize(normalized)) {
+                postings.computeIfAbsent(token, t -> new HashSet<>()).add(key);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 移除文档
+     * @param key 键
+     */
+    public void remove(K key) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(key);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 清空索引
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 查询文本中包含指定子串（忽略大小写）的文档
+     * @param query 子串
+     * @return 匹配的键；查询串为空时返回 null，表示不限制
+     */
+    public Set<K> search(String query) {
+        String normalized = normalize(query);
+        if (normalized == null) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            // 从最短的倒排表开始求交集
+            List<Set<K>> lists = new ArrayList<>();
+            for (String token : queryTokens(normalized)) {
+                Set<K> keys = postings.get(token);
+                if (keys == null) {
+                    return Collections.emptySet();
+                }
+                lists.add(keys);
+            }
+            lists.sort((a, b) -> Integer.compare(a.size(), b.size()));
+            Set<K> result = new HashSet<>();
+            for (K key : lists.get(0)) {
+                boolean candidate = true;
+                for (int i = 1; candidate && i < lists.size(); i++) {
+                    candidate = lists.get(i).contains(key);
+                }
+                // 词元都出现不代表连续出现，需要校验原文
+                if (candidate && documents.get(key).contains(normalized)) {
+                    result.add(key);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return 文档数
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return 词元数
+     */
+    public int tokenCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeInternal(K key) {
+        String previous = documents.remove(key);
+        if (previous == null) {
+            return;
+        }
+        for (String token : tokenize(previous)) {
+            Set<K> keys = postings.get(token);
+            if (keys != null) {
+                keys.remove(key);
+                if (keys.isEmpty()) {
+                    postings.remove(token);
+                }
+            }
+        }
+    }
+
+    // 文档收录全部单字与二元词元
+    private static Set<String> tokenize(String text) {
+        Set<String> tokens = new HashSet<>();
+        int[] codePoints = text.codePoints().toArray();
+        for (int i = 0; i < codePoints.length; i++) {
+            tokens.add(new String(codePoints, i, 1));
+            if (i + 1 < codePoints.length) {
+                tokens.add(new String(codePoints, i, 2));
+            }
+        }
+        return tokens;
+    }
+
+    // 单字查询使用单字词元，否则只用二元词元
+    private static Set<String> queryTokens(String text) {
+        int[] codePoints = text.codePoints().toArray();
+        Set<String> tokens = new HashSet<>();
+        if (codePoints.length == 1) {
+            tokens.add(text);
+            return tokens;
+        }
+        for (int i = 0; i + 1 < codePoints.length; i++) {
+            tokens.add(new String(codePoints, i, 2));
+        }
+        return tokens;
+    }
+
+    private static String normalize(String text) {
+        if (text == null || text.isEmpty()) {
+            return null;
+        }
+        return text.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,59 @@
+package org.example.hotelmanagementsystem.util;
+
+/**
+ * 报表导出格式
+ */
+public enum ReportFormat {
+
+    XLSX("xlsx", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"),
+    CSV("csv", "text/csv;charset=UTF-8"),
+    // gzip 压缩的 CSV，面向程序读取及超大日期范围的导出
+    CSV_GZIP("csv.gz", "application/gzip");
+
+    // 文件扩展名
+    private final String extension;
+    private final String contentType;
+
+    ReportFormat(String extension, String contentType) {
+        this.extension = extension;
+        this.contentType = contentType;
+    }
+
+    /**
+     * 根据接口参数解析导出格式
+     * @param format 格式名（xlsx 或 csv，为空时为 xlsx）
+     * @param gzip 是否压缩（仅对 csv 生效，xlsx 本身已是压缩格式）
+     * @return 导出格式
+     */
+    public static ReportFormat of(String format, boolean gzip) {
+        if (format == null || format.isEmpty() || "xlsx".equalsIgnoreCase(format)) {
+            return XLSX;
+        }
+        if ("csv".equalsIgnoreCase(format)) {
+            return gzip ? CSV_GZIP : CSV;
+        }
+        throw new RuntimeException("不支持的导出格式: " + format);
+    }
+
+    /**
+     * 根据文件扩展名获取导出格式
+     * @param extension 文件扩展名（xlsx、csv、csv.gz）
+     * @return 导出格式
+     */
+    public static ReportFormat ofExtension(String extension) {
+        for (ReportFormat format : values()) {
+            if (format.extension.equals(extension)) {
+                return format;
+            }
+        }
+        throw new RuntimeException("不支持的导出格式: " + extension);
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+}
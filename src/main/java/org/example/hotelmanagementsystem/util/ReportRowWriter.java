@@ -0,0 +1,33 @@
+package org.example.hotelmanagementsystem.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * 报表行写入器
+ * 按行把报表写入输出流，调用顺序为 begin、若干次 writeRow、finish，最后 close 释放资源。
+ * 实现类不缓存已写出的行，内存占用与总行数无关；close 不关闭底层输出流，由调用方负责。
+ */
+public interface ReportRowWriter extends Closeable {
+
+    /**
+     * 写入表头
+     * @param title 报表标题
+     * @param headers 列名
+     * @throws IOException IO异常
+     */
+    void begin(String title, String[] headers) throws IOException;
+
+    /**
+     * 写入一行，调用方可在写入后复用 values 数组
+     * @param values 各列的值（数字、字符串或 null）
+     * @throws IOException IO异常
+     */
+    void writeRow(Object[] values) throws IOException;
+
+    /**
+     * 写完剩余内容并刷新输出流
+     * @throws IOException IO异常
+     */
+    void finish() throws IOException;
+}
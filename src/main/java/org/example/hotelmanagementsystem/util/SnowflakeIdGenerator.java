@@ -0,0 +1,98 @@
+package org.example.hotelmanagementsystem.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * 雪花算法ID生成器
+ * 64位ID由 41位毫秒时间戳（相对起始纪元）、10位节点号、12位序列号组成，按生成时间递增，
+ * 不同节点之间不会重复。生成过程无锁、不分配对象。
+ * 同一毫秒内序列号用尽时借用下一毫秒；系统时钟回拨时沿用上次的时间戳继续递增，
+ * 保证ID单调递增，待时钟追上后恢复正常。
+ */
+public class SnowflakeIdGenerator {
+
+    public static final int NODE_BITS = 10;
+    public static final int SEQUENCE_BITS = 12;
+    public static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final int TIMESTAMP_SHIFT = NODE_BITS + SEQUENCE_BITS;
+
+    private final long nodeId;
+    private final long epochMillis;
+    private final LongSupplier clock;
+    // 上次生成的（相对时间戳 << 序列号位数 | 序列号）
+    private final AtomicLong state = new AtomicLong();
+
+    /**
+     * @param nodeId 节点号（0 ~ 1023）
+     * @param epochMillis 起始纪元（毫秒）
+     */
+    public SnowflakeIdGenerator(long nodeId, long epochMillis) {
+        this(nodeId, epochMillis, System::currentTimeMillis);
+    }
+
+    /**
+     * @param nodeId 节点号（0 ~ 1023）
+     * @param epochMillis 起始纪元（毫秒）
+     * @param clock 时钟（毫秒）
+     */
+    public SnowflakeIdGenerator(long nodeId, long epochMillis, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("节点号必须在 0 到 " + MAX_NODE_ID + " 之间: " + nodeId);
+        }
+        this.nodeId = nodeId;
+        this.epochMillis = epochMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * 生成下一个ID
+     * @return ID
+     */
+    public long nextId() {
+        long next;
+        while (true) {
+            long current = state.get();
+            long now = clock.getAsLong() - epochMillis;
+            long lastTimestamp = current >>> SEQUENCE_BITS;
+            if (now > lastTimestamp) {
+                next = now << SEQUENCE_BITS;
+            } else {
+                // 同一毫秒或时钟回拨：序列号加一，用尽时自然进位到下一毫秒
+                next = current + 1;
+            }
+            if (state.compareAndSet(current, next)) {
+                break;
+            }
+        }
+        return (next >>> SEQUENCE_BITS) << TIMESTAMP_SHIFT | nodeId << SEQUENCE_BITS | (next & SEQUENCE_MASK);
+    }
+
+    /**
+     * 当前已借用的毫秒数（ID时间戳领先系统时钟的差值），持续增大说明发生了时钟回拨或生成速率超过上限
+     * @return 领先的毫秒数，未领先时为 0
+     */
+    public long getDriftMillis() {
+        long lastTimestamp = state.get() >>> SEQUENCE_BITS;
+        return Math.max(0, lastTimestamp - (clock.getAsLong() - epochMillis));
+    }
+
+    /**
+     * 解析ID中的生成时间
+     * @param id ID
+     * @return 生成时间（毫秒）
+     */
+    public long timestampOf(long id) {
+        return (id >>> TIMESTAMP_SHIFT) + epochMillis;
+    }
+
+    /**
+     * 解析ID中的节点号
+     * @param id ID
+     * @return 节点号
+     */
+    public static long nodeIdOf(long id) {
+        return (id >>> SEQUENCE_BITS) & MAX_NODE_ID;
+    }
+}
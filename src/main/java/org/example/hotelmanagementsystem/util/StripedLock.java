@@ -0,0 +1,65 @@
+package org.example.hotelmanagementsystem.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 分段锁工具类
+ * 将键散列到固定数量的锁上，不同键的操作大多可以并行，相同键的操作互斥
+ */
+public class StripedLock {
+    
+    private final ReentrantLock[] locks;
+    private final int mask;
+    
+    /**
+     * @param stripes 锁的数量（向上取整为2的幂）
+     */
+    public StripedLock(int stripes) {
+        int size = 1;
+        while (size < stripes) {
+            size <<= 1;
+        }
+        this.locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+    
+    /**
+     * 获取键对应的锁
+     * @param key 键
+     * @return 锁
+     */
+    public Lock get(Object key) {
+        return locks[indexOf(key)];
+    }
+    
+    /**
+     * 获取多个键对应的锁，按固定顺序排列且去重，按返回顺序加锁可避免死锁
+     * @param keys 键集合
+     * @return 锁列表
+     */
+    public List<Lock> getAll(Collection<?> keys) {
+        TreeSet<Integer> indexes = new TreeSet<>();
+        for (Object key : keys) {
+            indexes.add(indexOf(key));
+        }
+        List<Lock> result = new ArrayList<>(indexes.size());
+        for (Integer index : indexes) {
+            result.add(locks[index]);
+        }
+        return result;
+    }
+    
+    private int indexOf(Object key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return h & mask;
+    }
+}
@@ -0,0 +1,60 @@
+package org.example.hotelmanagementsystem.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 事务内变更缓冲
+ * 同一事务中的多次变更合并到绑定在该事务上的缓冲里，在事务提交前一次性写入，
+ * 写入与业务数据同时提交或回滚；没有事务时每次变更立即写入。
+ * @param <T> 缓冲类型
+ */
+public class TransactionalBuffer<T> {
+
+    private final Supplier<T> factory;
+    private final Consumer<T> writer;
+
+    /**
+     * @param factory 创建空缓冲
+     * @param writer 写入缓冲中的全部变更
+     */
+    public TransactionalBuffer(Supplier<T> factory, Consumer<T> writer) {
+        this.factory = factory;
+        this.writer = writer;
+    }
+
+    /**
+     * 记录一次变更
+     * @param change 把变更合并进缓冲
+     */
+    public void add(Consumer<T> change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            T pending = factory.get();
+            change.accept(pending);
+            writer.accept(pending);
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        T pending = (T) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            T created = factory.get();
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    writer.accept(created);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TransactionalBuffer.this);
+                }
+            });
+            pending = created;
+        }
+        change.accept(pending);
+    }
+}
@@ -3,7 +3,8 @@ package org.example.hotelmanagementsystem;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+// 测试时不写订单状态变更日志和日志文件，避免在工作目录下生成文件
+@SpringBootTest(properties = {"hotel.order-journal.dir=", "logging.file.name="})
 class HotelManagementSystemApplicationTests {
 
     @Test
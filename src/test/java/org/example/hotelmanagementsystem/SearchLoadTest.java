@@ -0,0 +1,182 @@
+package org.example.hotelmanagementsystem;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 查询接口压测：对比平台线程与虚拟线程两种运行方式下 /bookings/search 和 /orders/search 的最大可持续吞吐量。
+ * 需先以两种配置分别启动应用（spring.threads.virtual.enabled=false / true，端口不同），再执行：
+ * <pre>
+ * mvn test -Dtest=SearchLoadTest -Dloadtest.baseline-url=http://localhost:8080 -Dloadtest.virtual-url=http://localhost:8081
+ * </pre>
+ * 逐级增加并发客户端数，每级持续固定时间；错误率低于 1% 且 p99 延迟不超过上限的级别中，吞吐量最高者即为最大可持续吞吐量。
+ * 任一运行方式的任一接口在最低并发下就不满足这两个条件时测试失败。
+ * 未指定 loadtest.baseline-url 时跳过。
+ */
+@EnabledIfSystemProperty(named = "loadtest.baseline-url", matches = ".+")
+class SearchLoadTest {
+
+    private static final int[] CONCURRENCY_LEVELS = {16, 32, 64, 128, 256, 512, 1024};
+    private static final long STEP_SECONDS = Long.getLong("loadtest.step-seconds", 15);
+    private static final long WARMUP_SECONDS = Long.getLong("loadtest.warmup-seconds", 10);
+    private static final long MAX_P99_MILLIS = Long.getLong("loadtest.max-p99-ms", 500);
+    private static final double MAX_ERROR_RATE = 0.01;
+
+    private final ExecutorService clientExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(clientExecutor)
+            .build();
+
+    @AfterEach
+    void closeClient() {
+        client.close();
+        clientExecutor.close();
+    }
+
+    @Test
+    void compareMaxSustainableThroughput() throws InterruptedException {
+        Map<String, String> targets = new LinkedHashMap<>();
+        targets.put("platform", System.getProperty("loadtest.baseline-url"));
+        String virtualUrl = System.getProperty("loadtest.virtual-url");
+        if (virtualUrl != null && !virtualUrl.isEmpty()) {
+            targets.put("virtual", virtualUrl);
+        }
+        LocalDate checkIn = LocalDate.now().plusDays(7);
+        Map<String, String> endpoints = new LinkedHashMap<>();
+        endpoints.put("/bookings/search", "{\"checkInDate\":\"" + checkIn + "\",\"checkOutDate\":\"" + checkIn.plusDays(2) + "\"}");
+        endpoints.put("/orders/search", "{\"status\":\"confirmed\"}");
+
+        List<String> summary = new ArrayList<>();
+        List<String> failures = new ArrayList<>();
+        for (Map.Entry<String, String> endpoint : endpoints.entrySet()) {
+            for (Map.Entry<String, String> target : targets.entrySet()) {
+                URI uri = URI.create(target.getValue() + endpoint.getKey());
+                run(uri, endpoint.getValue(), 16, WARMUP_SECONDS);
+                StepResult best = null;
+                for (int concurrency : CONCURRENCY_LEVELS) {
+                    StepResult step = run(uri, endpoint.getValue(), concurrency, STEP_SECONDS);
+                    System.out.printf("%-8s %-17s 并发 %5d  吞吐量 %8.0f 次/秒  p50 %5d ms  p99 %5d ms  错误率 %.2f%%%n",
+                            target.getKey(), endpoint.getKey(), concurrency, step.rps, step.p50, step.p99, step.errorRate * 100);
+                    if (!step.isSustainable()) {
+                        break;
+                    }
+                    if (best == null || step.rps > best.rps) {
+                        best = step;
+                    }
+                }
+                if (best == null) {
+                    failures.add(String.format("%s %s 在最低并发 %d 下错误率或 p99 延迟已超出上限",
+                            target.getKey(), endpoint.getKey(), CONCURRENCY_LEVELS[0]));
+                    continue;
+                }
+                summary.add(String.format("%-8s %-17s 最大可持续吞吐量 %8.0f 次/秒（并发 %d）",
+                        target.getKey(), endpoint.getKey(), best.rps, best.concurrency));
+            }
+        }
+        summary.forEach(System.out::println);
+        // 每种运行方式、每个接口至少在最低并发下满足错误率低于 1% 且 p99 不超过上限
+        assertTrue(failures.isEmpty(), () -> String.join("\n", failures));
+    }
+
+    /**
+     * 以固定数量的客户端循环发送请求（每个客户端收到响应后立即发送下一个）
+     */
+    private StepResult run(URI uri, String body, int concurrency, long seconds) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofSeconds(10))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        AtomicLong errors = new AtomicLong();
+        List<ClientStats> clients = new ArrayList<>(concurrency);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        for (int i = 0; i < concurrency; i++) {
+            ClientStats stats = new ClientStats();
+            clients.add(stats);
+            executor.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    }
+                    stats.record(System.nanoTime() - start);
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(seconds + 30, TimeUnit.SECONDS);
+
+        long total = 0;
+        List<Long> all = new ArrayList<>();
+        for (ClientStats stats : clients) {
+            total += stats.count;
+            for (int j = 0; j < Math.min(stats.count, stats.samples.length); j++) {
+                all.add(stats.samples[j]);
+            }
+        }
+        long[] sorted = all.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(sorted);
+        StepResult result = new StepResult();
+        result.concurrency = concurrency;
+        result.rps = (double) total / seconds;
+        result.errorRate = total == 0 ? 1.0 : (double) errors.get() / total;
+        result.p50 = percentileMillis(sorted, 0.50);
+        result.p99 = percentileMillis(sorted, 0.99);
+        return result;
+    }
+
+    private static long percentileMillis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(sorted[(int) Math.min(sorted.length - 1, sorted.length * percentile)]);
+    }
+
+    // 单个客户端的请求数与延迟采样（环形保留最近的样本），只由该客户端线程写入
+    private static class ClientStats {
+        final long[] samples = new long[1 << 16];
+        long count;
+
+        void record(long latencyNanos) {
+            samples[(int) (count++ & (samples.length - 1))] = latencyNanos;
+        }
+    }
+
+    private static class StepResult {
+        int concurrency;
+        double rps;
+        double errorRate;
+        long p50;
+        long p99;
+
+        boolean isSustainable() {
+            return errorRate < MAX_ERROR_RATE && p99 <= MAX_P99_MILLIS;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package org.example.hotelmanagementsystem.service;
+
+import org.example.hotelmanagementsystem.dto.BookingRequestDto;
+import org.example.hotelmanagementsystem.dto.BookingResultDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AsyncBookingServiceTest {
+
+    private AsyncBookingService asyncBookingService;
+
+    @BeforeEach
+    void setUp() {
+        BookingService bookingService = mock(BookingService.class);
+        when(bookingService.bookRooms(anyList())).thenAnswer(invocation -> {
+            List<BookingRequestDto> requests = invocation.getArgument(0);
+            List<BookingResultDto> results = new ArrayList<>();
+            for (BookingRequestDto request : requests) {
+                BookingResultDto result = new BookingResultDto();
+                result.setRoomId(request.getRoomId());
+                result.setStatus("success");
+                results.add(result);
+            }
+            return results;
+        });
+        asyncBookingService = new AsyncBookingService();
+        ReflectionTestUtils.setField(asyncBookingService, "bookingService", bookingService);
+        ReflectionTestUtils.setField(asyncBookingService, "enabled", true);
+        ReflectionTestUtils.setField(asyncBookingService, "capacity", 1000);
+        ReflectionTestUtils.setField(asyncBookingService, "batchSize", 50);
+        ReflectionTestUtils.setField(asyncBookingService, "lingerMs", 1L);
+        ReflectionTestUtils.setField(asyncBookingService, "enqueueTimeoutMs", 100L);
+        ReflectionTestUtils.setField(asyncBookingService, "maxBatchSize", 200);
+        asyncBookingService.init();
+    }
+
+    /**
+     * 停止与提交并发时，每个被接受的预订都会完成，停止之后的提交被拒绝
+     */
+    @Test
+    void acceptedBookingsCompleteWhenShutdownRacesSubmit() throws Exception {
+        List<CompletableFuture<BookingResultDto>> accepted = new CopyOnWriteArrayList<>();
+        CountDownLatch started = new CountDownLatch(4);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            executor.execute(() -> {
+                started.countDown();
+                for (int i = 0; i < 10000; i++) {
+                    try {
+                        accepted.add(asyncBookingService.submit(request(i)));
+                    } catch (RuntimeException e) {
+                        return;
+                    }
+                }
+            });
+        }
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        asyncBookingService.shutdown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        for (CompletableFuture<BookingResultDto> future : accepted) {
+            assertEquals("success", future.get(5, TimeUnit.SECONDS).getStatus());
+        }
+        RuntimeException e = assertThrows(RuntimeException.class, () -> asyncBookingService.submit(request(1)));
+        assertEquals("预订请求过多，请稍后重试", e.getMessage());
+    }
+
+    private static BookingRequestDto request(int roomId) {
+        BookingRequestDto request = new BookingRequestDto();
+        request.setRoomId(roomId);
+        request.setCheckInDate("2026-01-01");
+        request.setCheckOutDate("2026-01-03");
+        return request;
+    }
+}
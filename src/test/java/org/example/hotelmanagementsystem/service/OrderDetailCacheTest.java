@@ -0,0 +1,99 @@
+package org.example.hotelmanagementsystem.service;
+
+import org.example.hotelmanagementsystem.dto.OrderDto;
+import org.example.hotelmanagementsystem.entity.Customer;
+import org.example.hotelmanagementsystem.entity.Orders;
+import org.example.hotelmanagementsystem.event.CustomerChangedEvent;
+import org.example.hotelmanagementsystem.event.HotelChangedEvent;
+import org.example.hotelmanagementsystem.event.OrderChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class OrderDetailCacheTest {
+
+    private OrderDetailCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new OrderDetailCache();
+        ReflectionTestUtils.setField(cache, "maxEntries", 100);
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 60L);
+    }
+
+    /**
+     * 读取期间其他订单、客户、酒店的失效不影响写入
+     */
+    @Test
+    void unrelatedInvalidationsDoNotDiscardPut() {
+        long generation = cache.generation();
+        cache.onOrderChanged(new OrderChangedEvent(orderEntity(2), null));
+        cache.onCustomerChanged(new CustomerChangedEvent(customer(20)));
+        cache.onHotelChanged(new HotelChangedEvent(30));
+        cache.put(order(1, 10, 3), generation);
+        assertNotNull(cache.get(1));
+    }
+
+    /**
+     * 读取期间该订单或其客户、酒店发生过失效时放弃写入
+     */
+    @Test
+    void relatedInvalidationsDiscardPut() {
+        long generation = cache.generation();
+        cache.onOrderChanged(new OrderChangedEvent(orderEntity(1), null));
+        cache.put(order(1, 10, 3), generation);
+        assertNull(cache.get(1));
+
+        generation = cache.generation();
+        cache.onCustomerChanged(new CustomerChangedEvent(customer(10)));
+        cache.put(order(1, 10, 3), generation);
+        assertNull(cache.get(1));
+
+        generation = cache.generation();
+        cache.onHotelChanged(new HotelChangedEvent(3));
+        cache.put(order(1, 10, 3), generation);
+        assertNull(cache.get(1));
+
+        cache.put(order(1, 10, 3), cache.generation());
+        assertNotNull(cache.get(1));
+    }
+
+    /**
+     * 失效记录超过上限被清空后，清空前开始的读取一律不写入
+     */
+    @Test
+    void clearedInvalidationRecordsDiscardOlderReads() {
+        ReflectionTestUtils.setField(cache, "maxEntries", 4);
+        long generation = cache.generation();
+        for (int id = 100; id < 110; id++) {
+            cache.onOrderChanged(new OrderChangedEvent(orderEntity(id), null));
+        }
+        cache.put(order(1, 10, 3), generation);
+        assertNull(cache.get(1));
+        assertEquals(0L, cache.getMetrics().get("puts"));
+    }
+
+    private static OrderDto order(int id, int customerId, int hotelId) {
+        OrderDto order = new OrderDto();
+        order.setId(id);
+        order.setCustomerId(customerId);
+        order.setHotelId(hotelId);
+        return order;
+    }
+
+    private static Orders orderEntity(int id) {
+        Orders order = new Orders();
+        order.setId(id);
+        return order;
+    }
+
+    private static Customer customer(int id) {
+        Customer customer = new Customer();
+        customer.setId(id);
+        return customer;
+    }
+}
@@ -0,0 +1,80 @@
+package org.example.hotelmanagementsystem.service;
+
+import org.example.hotelmanagementsystem.dto.OrderStatusChangeDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderEventJournalTest {
+
+    // 每条记录约 40 字节，足以写满多个 1MB 的分段
+    private static final int RECORDS = 80000;
+
+    @TempDir
+    Path directory;
+
+    private OrderEventJournal journal;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        journal = newJournal();
+        journal.open();
+    }
+
+    @AfterEach
+    void tearDown() {
+        journal.close();
+    }
+
+    /**
+     * 已写满的分段按缓冲区分批读取，跨越缓冲区边界的记录不丢失，重复回放结果一致
+     */
+    @Test
+    void replaysAcrossSealedSegments() throws IOException {
+        for (int i = 0; i < RECORDS; i++) {
+            journal.append(i % 100, i % 2 == 0 ? null : "pending", "confirmed", "operator-" + (i % 37));
+        }
+        assertTrue((Integer) journal.getMetrics().get("segments") > 2);
+
+        for (int round = 0; round < 3; round++) {
+            assertEquals(RECORDS, journal.replayRange(0, Long.MAX_VALUE).size());
+        }
+        List<OrderStatusChangeDto> order = journal.replayOrder(42);
+        assertEquals(RECORDS / 100, order.size());
+        assertEquals("operator-" + (42 % 37), order.get(0).getActor());
+    }
+
+    /**
+     * 重新打开后仍能读取此前写满的分段
+     */
+    @Test
+    void replaysSealedSegmentsAfterReopen() throws IOException {
+        for (int i = 0; i < RECORDS; i++) {
+            journal.append(i, "pending", "checked_in", "system");
+        }
+        journal.close();
+        journal = newJournal();
+        journal.open();
+        List<OrderStatusChangeDto> records = journal.replayRange(0, Long.MAX_VALUE);
+        assertEquals(RECORDS, records.size());
+        for (int i = 0; i < RECORDS; i++) {
+            assertEquals(i, records.get(i).getOrderId());
+        }
+    }
+
+    private OrderEventJournal newJournal() {
+        OrderEventJournal journal = new OrderEventJournal();
+        ReflectionTestUtils.setField(journal, "dir", directory.toString());
+        ReflectionTestUtils.setField(journal, "segmentSizeMb", 1);
+        return journal;
+    }
+}
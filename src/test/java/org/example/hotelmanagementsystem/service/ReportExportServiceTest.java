@@ -0,0 +1,292 @@
+package org.example.hotelmanagementsystem.service;
+
+import org.example.hotelmanagementsystem.dto.BookingStatisticsDto;
+import org.example.hotelmanagementsystem.dto.OccupancyRateDto;
+import org.example.hotelmanagementsystem.dto.ReportExportJobDto;
+import org.example.hotelmanagementsystem.dto.ReportExportRequestDto;
+import org.example.hotelmanagementsystem.dto.ReportQueryDto;
+import org.example.hotelmanagementsystem.dto.RevenueStatisticsDto;
+import org.example.hotelmanagementsystem.util.ReportFormat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReportExportServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private final StubReportService reportService = new StubReportService();
+    private ReportExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        exportService = new ReportExportService();
+        ReflectionTestUtils.setField(exportService, "reportService", reportService);
+        ReflectionTestUtils.setField(exportService, "dir", directory.toString());
+        ReflectionTestUtils.setField(exportService, "threads", 1);
+        ReflectionTestUtils.setField(exportService, "queueCapacity", 1);
+        ReflectionTestUtils.setField(exportService, "cacheMaxMb", 1L);
+        ReflectionTestUtils.setField(exportService, "ttlSeconds", 600L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        reportService.release.countDown();
+        exportService.shutdown();
+    }
+
+    /**
+     * 相同的导出在排队或执行期间再次提交，返回同一个任务，只导出一次
+     */
+    @Test
+    void identicalSubmissionsShareOneJob() throws Exception {
+        reportService.blocking = true;
+        exportService.init();
+        ReportExportJobDto first = exportService.submit(request(1));
+        ReportExportJobDto second = exportService.submit(request(1));
+        assertEquals(first.getJobId(), second.getJobId());
+        assertFalse(first.getDeduplicated());
+        assertTrue(second.getDeduplicated());
+
+        reportService.release.countDown();
+        awaitStatus(first.getJobId(), "completed");
+        ReportExportJobDto third = exportService.submit(request(1));
+        assertEquals(first.getJobId(), third.getJobId());
+        assertEquals(1, reportService.exports.get());
+        assertEquals(2L, exportService.getMetrics().get("deduplicated"));
+    }
+
+    /**
+     * 导出线程与等待队列都已占满时拒绝新的导出
+     */
+    @Test
+    void rejectsWhenQueueIsFull() throws Exception {
+        reportService.blocking = true;
+        exportService.init();
+        exportService.submit(request(1));
+        assertTrue(reportService.started.await(5, TimeUnit.SECONDS));
+        exportService.submit(request(2));
+        RuntimeException e = assertThrows(RuntimeException.class, () -> exportService.submit(request(3)));
+        assertEquals("导出任务过多，请稍后重试", e.getMessage());
+        assertEquals(1L, exportService.getMetrics().get("rejected"));
+
+        // 被拒绝的导出不占用去重键，队列空出后可以重新提交
+        reportService.release.countDown();
+        ReportExportJobDto retried = awaitSubmitted(request(3));
+        assertFalse(retried.getDeduplicated());
+    }
+
+    /**
+     * 总大小超过上限时淘汰最久未下载的文件
+     */
+    @Test
+    void evictsLeastRecentlyDownloadedFile() throws Exception {
+        reportService.bytesPerExport = 400 * 1024;
+        exportService.init();
+        String a = exportService.submit(request(1)).getJobId();
+        awaitStatus(a, "completed");
+        String b = exportService.submit(request(2)).getJobId();
+        awaitStatus(b, "completed");
+        try (InputStream input = exportService.openFile(a)) {
+            assertEquals(400 * 1024, input.readAllBytes().length);
+        }
+        String c = exportService.submit(request(3)).getJobId();
+        awaitStatus(c, "completed");
+
+        assertThrows(RuntimeException.class, () -> exportService.getJob(b));
+        assertEquals("completed", exportService.getJob(a).getStatus());
+        assertEquals("completed", exportService.getJob(c).getStatus());
+        assertEquals(1L, exportService.getMetrics().get("evictions"));
+        assertEquals(800L * 1024, exportService.getMetrics().get("cachedBytes"));
+        assertEquals(2, countFiles(".csv"));
+    }
+
+    /**
+     * 过期的已完成任务被清理，文件删除，相同的导出重新执行
+     */
+    @Test
+    void cleanupRemovesExpiredJobs() throws Exception {
+        exportService.init();
+        String jobId = exportService.submit(request(1)).getJobId();
+        awaitStatus(jobId, "completed");
+        assertEquals(1, countFiles(".csv"));
+
+        // 保留时间为负数时已完成的任务立即过期
+        ReflectionTestUtils.setField(exportService, "ttlSeconds", -1L);
+        exportService.cleanup();
+        assertThrows(RuntimeException.class, () -> exportService.getJob(jobId));
+        assertEquals(0, countFiles(".csv"));
+        assertEquals(0L, exportService.getMetrics().get("cachedBytes"));
+        assertEquals(1L, exportService.getMetrics().get("expirations"));
+
+        ReflectionTestUtils.setField(exportService, "ttlSeconds", 600L);
+        ReportExportJobDto resubmitted = exportService.submit(request(1));
+        assertNotEquals(jobId, resubmitted.getJobId());
+        assertFalse(resubmitted.getDeduplicated());
+    }
+
+    /**
+     * 导出失败的任务不参与去重，临时文件被删除，相同的导出可以重新提交
+     */
+    @Test
+    void failedJobReleasesDedupeKey() throws Exception {
+        reportService.failing = true;
+        exportService.init();
+        String jobId = exportService.submit(request(1)).getJobId();
+        ReportExportJobDto failed = awaitStatus(jobId, "failed");
+        assertEquals("导出失败", failed.getError());
+        assertEquals(0, countFiles(".tmp"));
+
+        reportService.failing = false;
+        ReportExportJobDto retried = exportService.submit(request(1));
+        assertNotEquals(jobId, retried.getJobId());
+        assertFalse(retried.getDeduplicated());
+        awaitStatus(retried.getJobId(), "completed");
+        assertEquals(1L, exportService.getMetrics().get("failed"));
+    }
+
+    /**
+     * 启动时只删除上次运行留下的导出文件
+     */
+    @Test
+    void initDeletesOnlyExportFiles() throws Exception {
+        Files.writeString(directory.resolve("stale.tmp"), "x");
+        Files.writeString(directory.resolve("stale.xlsx"), "x");
+        Files.writeString(directory.resolve("stale.csv"), "x");
+        Files.writeString(directory.resolve("stale.csv.gz"), "x");
+        Files.writeString(directory.resolve("notes.txt"), "x");
+        Files.createDirectory(directory.resolve("nested.csv"));
+        exportService.init();
+        assertFalse(Files.exists(directory.resolve("stale.tmp")));
+        assertFalse(Files.exists(directory.resolve("stale.xlsx")));
+        assertFalse(Files.exists(directory.resolve("stale.csv")));
+        assertFalse(Files.exists(directory.resolve("stale.csv.gz")));
+        assertTrue(Files.exists(directory.resolve("notes.txt")));
+        assertTrue(Files.isDirectory(directory.resolve("nested.csv")));
+    }
+
+    private static ReportExportRequestDto request(int hotelId) {
+        ReportQueryDto query = new ReportQueryDto();
+        query.setHotelId(hotelId);
+        query.setStartDate("2026-01-01");
+        query.setEndDate("2026-01-31");
+        ReportExportRequestDto request = new ReportExportRequestDto();
+        request.setReport("booking-statistics");
+        request.setFormat("csv");
+        request.setQuery(query);
+        return request;
+    }
+
+    private ReportExportJobDto awaitStatus(String jobId, String status) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        ReportExportJobDto job = exportService.getJob(jobId);
+        while (!status.equals(job.getStatus()) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            job = exportService.getJob(jobId);
+        }
+        assertEquals(status, job.getStatus());
+        return job;
+    }
+
+    // 队列中的任务执行完之前提交会被拒绝，重试直到被接受
+    private ReportExportJobDto awaitSubmitted(ReportExportRequestDto request) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (true) {
+            try {
+                return exportService.submit(request);
+            } catch (RuntimeException e) {
+                if (System.nanoTime() > deadline) {
+                    throw e;
+                }
+                Thread.sleep(10);
+            }
+        }
+    }
+
+    private long countFiles(String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(suffix)).count();
+        }
+    }
+
+    /**
+     * 写入固定字节数的报表服务，可以阻塞直到放行或直接失败
+     */
+    private static class StubReportService implements ReportService {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger exports = new AtomicInteger();
+        volatile boolean blocking;
+        volatile boolean failing;
+        volatile int bytesPerExport = 1024;
+
+        @Override
+        public List<BookingStatisticsDto> getBookingStatistics(ReportQueryDto query) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public List<RevenueStatisticsDto> getRevenueStatistics(ReportQueryDto query) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public List<OccupancyRateDto> getOccupancyRateStatistics(ReportQueryDto query) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public void exportBookingStatistics(ReportQueryDto query, ReportFormat format, OutputStream output) throws IOException {
+            export(output);
+        }
+
+        @Override
+        public void exportRevenueStatistics(ReportQueryDto query, ReportFormat format, OutputStream output) throws IOException {
+            export(output);
+        }
+
+        @Override
+        public void exportOccupancyRateStatistics(ReportQueryDto query, ReportFormat format, OutputStream output) throws IOException {
+            export(output);
+        }
+
+        private void export(OutputStream output) throws IOException {
+            exports.incrementAndGet();
+            started.countDown();
+            if (blocking) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("导出被中断", e);
+                }
+            }
+            output.write(new byte[1]);
+            if (failing) {
+                throw new IOException("导出失败");
+            }
+            output.write(new byte[bytesPerExport - 1]);
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package org.example.hotelmanagementsystem.service.impl;
+
+import org.example.hotelmanagementsystem.dto.BookingRequestDto;
+import org.example.hotelmanagementsystem.entity.Orders;
+import org.example.hotelmanagementsystem.entity.Room;
+import org.example.hotelmanagementsystem.mapper.BookingMapper;
+import org.example.hotelmanagementsystem.service.CustomerIdentityCache;
+import org.example.hotelmanagementsystem.service.OrderNumberGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BookingServiceImplTest {
+
+    private static final int ROOMS = 8;
+    private static final int RANGES = 4;
+    private static final int THREADS = 16;
+    private static final LocalDate FIRST_DAY = LocalDate.of(2026, 1, 1);
+
+    // 内存中的订单表：房间ID -> 订单
+    private final Map<Integer, List<Orders>> ordersByRoom = new ConcurrentHashMap<>();
+    private final AtomicInteger orderIds = new AtomicInteger();
+    // 不为 null 时，日期检查要等到指定数量的预订同时进入检查后才返回
+    private volatile CyclicBarrier rendezvous;
+
+    private BookingServiceImpl bookingService;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        BookingMapper bookingMapper = mock(BookingMapper.class);
+        when(bookingMapper.findRoomByIdForUpdate(anyInt())).thenAnswer(invocation -> {
+            Room room = new Room();
+            room.setId(invocation.getArgument(0));
+            room.setPrice(new BigDecimal("100.00"));
+            return room;
+        });
+        when(bookingMapper.countOverlappingOrders(anyInt(), anyString(), anyString())).thenAnswer(invocation -> {
+            Integer roomId = invocation.getArgument(0);
+            String checkIn = invocation.getArgument(1);
+            String checkOut = invocation.getArgument(2);
+            int count = 0;
+            for (Orders order : ordersByRoom.getOrDefault(roomId, Collections.emptyList())) {
+                if (order.getCheckInDate().compareTo(checkOut) < 0 && order.getCheckOutDate().compareTo(checkIn) > 0) {
+                    count++;
+                }
+            }
+            CyclicBarrier barrier = rendezvous;
+            if (barrier != null) {
+                barrier.await(5, TimeUnit.SECONDS);
+            }
+            // 放大检查与插入之间的窗口，没有房间锁时并发请求会在这里交错
+            Thread.yield();
+            return count;
+        });
+        when(bookingMapper.insertOrder(any(Orders.class))).thenAnswer(invocation -> {
+            Orders order = invocation.getArgument(0);
+            order.setId(orderIds.incrementAndGet());
+            ordersByRoom.computeIfAbsent(order.getRoomId(), k -> new CopyOnWriteArrayList<>()).add(order);
+            return 1;
+        });
+
+        CustomerIdentityCache customerIdentityCache = mock(CustomerIdentityCache.class);
+        when(customerIdentityCache.getCustomerId(anyString())).thenReturn(1);
+        AtomicLong orderNumbers = new AtomicLong();
+        OrderNumberGenerator orderNumberGenerator = () -> "ORD" + orderNumbers.incrementAndGet();
+
+        bookingService = new BookingServiceImpl();
+        ReflectionTestUtils.setField(bookingService, "bookingMapper", bookingMapper);
+        ReflectionTestUtils.setField(bookingService, "customerIdentityCache", customerIdentityCache);
+        ReflectionTestUtils.setField(bookingService, "orderNumberGenerator", orderNumberGenerator);
+        ReflectionTestUtils.setField(bookingService, "eventPublisher", mock(ApplicationEventPublisher.class));
+        ReflectionTestUtils.setField(bookingService, "lockStripes", 4);
+        ReflectionTestUtils.setField(bookingService, "lockTimeoutMs", 10000L);
+        bookingService.init();
+        transactionTemplate = new TransactionTemplate(new InMemoryTransactionManager());
+    }
+
+    /**
+     * 多个线程同时预订相同房间的相同日期，每个房间、每个日期区间只有一次预订成功，其余均因日期重叠被拒绝
+     */
+    @Test
+    void concurrentBookingsSucceedExactlyOncePerRoomAndRange() throws InterruptedException {
+        AtomicInteger rejected = new AtomicInteger();
+        List<Throwable> unexpected = new CopyOnWriteArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            List<BookingRequestDto> requests = new ArrayList<>();
+            for (int roomId = 1; roomId <= ROOMS; roomId++) {
+                for (int range = 0; range < RANGES; range++) {
+                    requests.add(request(roomId, range));
+                }
+            }
+            Collections.shuffle(requests);
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (BookingRequestDto request : requests) {
+                    try {
+                        transactionTemplate.executeWithoutResult(status -> bookingService.bookRoom(request));
+                    } catch (RuntimeException e) {
+                        if ("房间在所选日期已被预订".equals(e.getMessage())) {
+                            rejected.incrementAndGet();
+                        } else {
+                            unexpected.add(e);
+                        }
+                    }
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+
+        assertTrue(unexpected.isEmpty(), () -> "预订出现意外异常: " + unexpected);
+        assertEquals(ROOMS * RANGES * (THREADS - 1), rejected.get());
+        for (int roomId = 1; roomId <= ROOMS; roomId++) {
+            List<Orders> roomOrders = ordersByRoom.get(roomId);
+            assertEquals(RANGES, roomOrders.size(), "房间 " + roomId + " 的成功预订数");
+            assertNoOverlap(roomOrders);
+        }
+    }
+
+    /**
+     * 事务结束后房间锁被释放，同一房间的后续预订不会等待超时
+     */
+    @Test
+    void roomLockIsReleasedAfterCompletion() {
+        transactionTemplate.executeWithoutResult(status -> bookingService.bookRoom(request(1, 0)));
+        transactionTemplate.executeWithoutResult(status -> bookingService.bookRoom(request(1, 1)));
+        assertEquals(2, ordersByRoom.get(1).size());
+    }
+
+    /**
+     * 不同房间的预订不互相等待：两个房间的预订必须同时停在日期检查处才能继续，串行执行时会等待超时
+     */
+    @Test
+    void bookingsForDifferentRoomsRunInParallel() throws Exception {
+        rendezvous = new CyclicBarrier(2);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> first = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> bookingService.bookRoom(request(1, 0))));
+            Future<?> second = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> bookingService.bookRoom(request(2, 0))));
+            first.get(10, TimeUnit.SECONDS);
+            second.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, ordersByRoom.get(1).size());
+        assertEquals(1, ordersByRoom.get(2).size());
+    }
+
+    /**
+     * 预订吞吐量：多个线程随机预订大量房间与日期，输出每秒完成的预订请求数，并确认没有重叠预订
+     * <pre>
+     * mvn test -Dtest=BookingServiceImplTest -Dbenchmark.booking-attempts=200000
+     * </pre>
+     * 未指定 benchmark.booking-attempts 时跳过。
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark.booking-attempts", matches = "\\d+")
+    void bookingThroughput() throws InterruptedException {
+        int attempts = Integer.getInteger("benchmark.booking-attempts");
+        int rooms = 256;
+        ReflectionTestUtils.setField(bookingService, "lockStripes", 256);
+        bookingService.init();
+        AtomicInteger accepted = new AtomicInteger();
+        List<Throwable> unexpected = new CopyOnWriteArrayList<>();
+        AtomicInteger remaining = new AtomicInteger(attempts);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (remaining.getAndDecrement() > 0) {
+                    LocalDate checkIn = FIRST_DAY.plusDays(random.nextInt(365));
+                    BookingRequestDto request = request(1 + random.nextInt(rooms), 0);
+                    request.setCheckInDate(checkIn.toString());
+                    request.setCheckOutDate(checkIn.plusDays(1 + random.nextInt(7)).toString());
+                    try {
+                        transactionTemplate.executeWithoutResult(status -> bookingService.bookRoom(request));
+                        accepted.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        if (!"房间在所选日期已被预订".equals(e.getMessage())) {
+                            unexpected.add(e);
+                        }
+                    }
+                }
+            });
+        }
+        long startTime = System.nanoTime();
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.MINUTES));
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+        System.out.printf("%d 线程 %d 个房间  预订请求 %d  成功 %d  吞吐量 %.0f 次/秒%n",
+                THREADS, rooms, attempts, accepted.get(), attempts / seconds);
+
+        assertTrue(unexpected.isEmpty(), () -> "预订出现意外异常: " + unexpected);
+        int total = 0;
+        for (List<Orders> roomOrders : ordersByRoom.values()) {
+            total += roomOrders.size();
+            assertNoOverlap(roomOrders);
+        }
+        assertEquals(accepted.get(), total);
+    }
+
+    private static void assertNoOverlap(List<Orders> roomOrders) {
+        for (int i = 0; i < roomOrders.size(); i++) {
+            for (int j = i + 1; j < roomOrders.size(); j++) {
+                Orders a = roomOrders.get(i);
+                Orders b = roomOrders.get(j);
+                assertFalse(a.getCheckInDate().compareTo(b.getCheckOutDate()) < 0
+                        && a.getCheckOutDate().compareTo(b.getCheckInDate()) > 0, "同一房间出现重叠预订");
+            }
+        }
+    }
+
+    // 第 range 个互不重叠的三晚区间
+    private static BookingRequestDto request(int roomId, int range) {
+        BookingRequestDto request = new BookingRequestDto();
+        request.setRoomId(roomId);
+        request.setCheckInDate(FIRST_DAY.plusDays(range * 3L).toString());
+        request.setCheckOutDate(FIRST_DAY.plusDays(range * 3L + 3).toString());
+        request.setCustomerName("测试客户");
+        request.setCustomerIdCard("110101199001011234");
+        return request;
+    }
+
+    /**
+     * 不连接数据库的事务管理器，只驱动事务同步回调（房间锁在 afterCompletion 中释放）
+     */
+    private static class InMemoryTransactionManager extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
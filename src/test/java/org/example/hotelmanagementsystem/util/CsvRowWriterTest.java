@@ -0,0 +1,114 @@
+package org.example.hotelmanagementsystem.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CsvRowWriterTest {
+
+    private static final String[] HEADERS = {"酒店名称", "备注", "金额", "比例"};
+
+    /**
+     * 含逗号、引号、回车换行的文本加引号，内部引号写两次；null 写为空单元格
+     */
+    @Test
+    void quotesTextPerRfc4180() throws IOException {
+        String csv = write(false, new Object[][]{
+                {"普通文本", null, 1, null},
+                {"a,b", "他说\"好\"", null, null},
+                {"第一行\r\n第二行", "只有\n换行", null, null},
+                {"\"", "", null, null}
+        });
+        assertEquals("酒店名称,备注,金额,比例\r\n"
+                + "普通文本,,1,\r\n"
+                + "\"a,b\",\"他说\"\"好\"\"\",,\r\n"
+                + "\"第一行\r\n第二行\",\"只有\n换行\",,\r\n"
+                + "\"\"\"\",,,\r\n", csv);
+    }
+
+    /**
+     * 小数不输出为科学计数法
+     */
+    @Test
+    void writesNumbersWithoutExponent() throws IOException {
+        String csv = write(false, new Object[][]{
+                {"", "", new BigDecimal("1E+3"), 0.00012},
+                {"", "", 12345678901.5, 1.5e-9},
+                {"", "", 0.25f, 100.0}
+        });
+        assertEquals("酒店名称,备注,金额,比例\r\n"
+                + ",,1000,0.00012\r\n"
+                + ",,12345678901.5,0.0000000015\r\n"
+                + ",,0.25,100.0\r\n", csv);
+    }
+
+    @Test
+    void gzipRoundTrip() throws IOException {
+        Object[][] rows = new Object[2000][];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = new Object[]{"酒店" + i, "备注,\"" + i + "\"", i, i / 7.0};
+        }
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (CsvRowWriter writer = new CsvRowWriter(compressed, true, 1024)) {
+            writeRows(writer, rows);
+            writer.finish();
+        }
+        try (InputStream input = new GZIPInputStream(new ByteArrayInputStream(compressed.toByteArray()))) {
+            assertEquals(write(false, rows), new String(input.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * 未调用 finish 就关闭时不写 gzip 尾部，读取方能发现输出被截断
+     */
+    @Test
+    void closeWithoutFinishLeavesGzipTruncated() throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (CsvRowWriter writer = new CsvRowWriter(compressed, true, 1024)) {
+            writeRows(writer, new Object[][]{{"酒店", "备注", 1, 0.5}});
+        }
+        assertThrows(EOFException.class, () -> {
+            try (InputStream input = new GZIPInputStream(new ByteArrayInputStream(compressed.toByteArray()))) {
+                input.readAllBytes();
+            }
+        });
+    }
+
+    /**
+     * 未调用 finish 就关闭时缓冲区中的行不写出
+     */
+    @Test
+    void closeWithoutFinishDoesNotFlushBufferedRows() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (CsvRowWriter writer = new CsvRowWriter(output, false, 1024)) {
+            writeRows(writer, new Object[][]{{"酒店", "备注", 1, 0.5}});
+        }
+        assertEquals(0, output.size());
+    }
+
+    private static String write(boolean gzip, Object[][] rows) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (CsvRowWriter writer = new CsvRowWriter(output, gzip, 1024)) {
+            writeRows(writer, rows);
+            writer.finish();
+        }
+        return output.toString(StandardCharsets.UTF_8);
+    }
+
+    private static void writeRows(CsvRowWriter writer, Object[][] rows) throws IOException {
+        writer.begin("测试报表", HEADERS);
+        for (Object[] row : rows) {
+            writer.writeRow(row);
+        }
+    }
+}
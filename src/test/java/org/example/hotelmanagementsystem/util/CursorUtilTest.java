@@ -0,0 +1,37 @@
+package org.example.hotelmanagementsystem.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CursorUtilTest {
+
+    /**
+     * 排序结果与按 UTF-8 字节比较（MySQL 中 CAST(... AS BINARY)）一致
+     */
+    @Test
+    void binaryOrderMatchesUtf8ByteOrder() {
+        List<String> values = Arrays.asList("b", "B", "a", "ab", "", "汉庭", "如家", "Ａ", "😀", "\uE000", "101", "1010", "99");
+        List<String> byCodePoint = new ArrayList<>(values);
+        byCodePoint.sort(CursorUtil.BINARY_ORDER);
+        List<String> byBytes = new ArrayList<>(values);
+        byBytes.sort((a, b) -> Arrays.compareUnsigned(a.getBytes(StandardCharsets.UTF_8), b.getBytes(StandardCharsets.UTF_8)));
+        assertEquals(byBytes, byCodePoint);
+        // String.compareTo 会把增补字符排在 U+E000 之前
+        assertTrue("😀".compareTo("\uE000") < 0);
+        assertTrue(CursorUtil.BINARY_ORDER.compare("😀", "\uE000") > 0);
+    }
+
+    @Test
+    void encodeDecodeRoundTrip() {
+        String cursor = CursorUtil.encode("汉庭,酒店", null, "", 42);
+        assertArrayEquals(new String[]{"汉庭,酒店", null, "", "42"}, CursorUtil.decode(cursor, 4));
+    }
+}
@@ -0,0 +1,92 @@
+package org.example.hotelmanagementsystem.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 报表导出吞吐量对比：同样的行分别以 SXSSF Excel、CSV、gzip CSV 写入丢弃输出的流，输出每秒写入行数与输出大小。
+ * <pre>
+ * mvn test -Dtest=ReportRowWriterBenchmarkTest -Dbenchmark.report-rows=1000000
+ * </pre>
+ * 未指定 benchmark.report-rows 时跳过。
+ */
+@EnabledIfSystemProperty(named = "benchmark.report-rows", matches = "\\d+")
+class ReportRowWriterBenchmarkTest {
+
+    private static final String[] HEADERS = {"酒店ID", "酒店名称", "总预订数", "确认预订数", "入住数", "取消数", "预订率(%)", "入住率(%)"};
+    private static final int ROUNDS = Integer.getInteger("benchmark.rounds", 3);
+
+    @Test
+    void compareRowsPerSecond() throws IOException {
+        int rows = Integer.getInteger("benchmark.report-rows");
+        Map<ReportFormat, Long> sizes = new EnumMap<>(ReportFormat.class);
+        for (ReportFormat format : ReportFormat.values()) {
+            // 第一轮作为预热，不计入结果
+            run(format, Math.min(rows, 10000));
+            double best = 0;
+            long bytes = 0;
+            for (int round = 0; round < ROUNDS; round++) {
+                CountingOutputStream output = new CountingOutputStream();
+                long startTime = System.nanoTime();
+                write(format, output, rows);
+                double seconds = (System.nanoTime() - startTime) / 1e9;
+                best = Math.max(best, rows / seconds);
+                bytes = output.count;
+            }
+            System.out.printf("%-8s 行数 %9d  吞吐量 %12.0f 行/秒  输出 %10.1f KB%n", format, rows, best, bytes / 1024.0);
+            assertTrue(bytes > 0);
+            sizes.put(format, bytes);
+        }
+        assertTrue(sizes.get(ReportFormat.CSV_GZIP) < sizes.get(ReportFormat.CSV), "gzip 压缩后的 CSV 应小于未压缩的 CSV");
+    }
+
+    private void run(ReportFormat format, int rows) throws IOException {
+        write(format, new CountingOutputStream(), rows);
+    }
+
+    private void write(ReportFormat format, OutputStream output, int rows) throws IOException {
+        try (ReportRowWriter writer = format == ReportFormat.XLSX
+                ? new ExcelRowWriter(output, 100)
+                : new CsvRowWriter(output, format == ReportFormat.CSV_GZIP, 65536)) {
+            writer.begin("预订统计报表", HEADERS);
+            Object[] values = new Object[HEADERS.length];
+            for (int i = 0; i < rows; i++) {
+                values[0] = i;
+                values[1] = "酒店" + (i % 1000);
+                values[2] = 1000 + i % 97;
+                values[3] = 600 + i % 89;
+                values[4] = 300 + i % 83;
+                values[5] = 50 + i % 79;
+                values[6] = BigDecimal.valueOf(6000 + i % 4000, 2);
+                values[7] = (300 + i % 83) * 100.0 / (1000 + i % 97);
+                writer.writeRow(values);
+            }
+            writer.finish();
+        }
+    }
+
+    /**
+     * 只统计字节数的输出流
+     */
+    private static class CountingOutputStream extends OutputStream {
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package org.example.hotelmanagementsystem.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 订单号生成吞吐量对比：雪花算法与原来的 currentTimeMillis + UUID 片段方案，多线程并发生成，输出每秒生成的订单号数。
+ * <pre>
+ * mvn test -Dtest=SnowflakeIdGeneratorBenchmarkTest -Dbenchmark.order-ids=1000000
+ * </pre>
+ * benchmark.order-ids 为每个线程生成的订单号数，未指定时跳过。
+ */
+@EnabledIfSystemProperty(named = "benchmark.order-ids", matches = "\\d+")
+class SnowflakeIdGeneratorBenchmarkTest {
+
+    private static final int THREADS = Integer.getInteger("benchmark.threads", 8);
+    private static final int ROUNDS = Integer.getInteger("benchmark.rounds", 3);
+
+    @Test
+    void compareThroughputWithUuidScheme() throws InterruptedException {
+        int idsPerThread = Integer.getInteger("benchmark.order-ids");
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, 0);
+        double snowflake = best(() -> "ORD" + generator.nextId(), idsPerThread);
+        double uuid = best(() -> "ORD" + System.currentTimeMillis() + UUID.randomUUID().toString().substring(0, 6).toUpperCase(), idsPerThread);
+        System.out.printf("%d 线程  雪花算法 %12.0f 个/秒  UUID方案 %12.0f 个/秒%n", THREADS, snowflake, uuid);
+        assertTrue(snowflake > uuid, "雪花算法的吞吐量应高于 UUID 方案");
+    }
+
+    // 第一轮作为预热，不计入结果
+    private static double best(Supplier<String> orderNumbers, int idsPerThread) throws InterruptedException {
+        run(orderNumbers, Math.min(idsPerThread, 10000));
+        double best = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long nanos = run(orderNumbers, idsPerThread);
+            best = Math.max(best, (double) THREADS * idsPerThread * 1e9 / nanos);
+        }
+        return best;
+    }
+
+    private static long run(Supplier<String> orderNumbers, int idsPerThread) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                int length = 0;
+                for (int i = 0; i < idsPerThread; i++) {
+                    length += orderNumbers.get().length();
+                }
+                // 使用生成结果，避免被优化掉
+                assertTrue(length > 0);
+            });
+        }
+        long startTime = System.nanoTime();
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.MINUTES));
+        return System.nanoTime() - startTime;
+    }
+}
@@ -0,0 +1,117 @@
+package org.example.hotelmanagementsystem.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SnowflakeIdGeneratorTest {
+
+    private static final int THREADS = 8;
+    private static final int IDS_PER_THREAD = 200000;
+
+    /**
+     * 多线程并发生成，ID不重复且节点号正确
+     */
+    @Test
+    void concurrentIdsAreUnique() throws InterruptedException {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(7, 0);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        runConcurrently(() -> {
+            for (int i = 0; i < IDS_PER_THREAD; i++) {
+                ids.add(generator.nextId());
+            }
+        });
+        assertEquals(THREADS * IDS_PER_THREAD, ids.size());
+        for (long id : ids) {
+            assertEquals(7, SnowflakeIdGenerator.nodeIdOf(id));
+        }
+    }
+
+    /**
+     * 同一毫秒内序列号用尽以及时钟回拨时，ID仍然单调递增
+     */
+    @Test
+    void idsStayMonotonicOnOverflowAndClockSkew() {
+        AtomicLong now = new AtomicLong(1000);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, 0, now::get);
+        long previous = generator.nextId();
+        for (int i = 0; i < 10000; i++) {
+            long id = generator.nextId();
+            assertTrue(id > previous, "序列号用尽后ID未递增");
+            previous = id;
+        }
+        assertTrue(generator.getDriftMillis() > 0);
+
+        now.set(500);
+        for (int i = 0; i < 100; i++) {
+            long id = generator.nextId();
+            assertTrue(id > previous, "时钟回拨后ID未递增");
+            previous = id;
+        }
+
+        now.set(5000);
+        long id = generator.nextId();
+        assertTrue(id > previous);
+        assertEquals(5000, generator.timestampOf(id));
+        assertEquals(0, generator.getDriftMillis());
+    }
+
+    @Test
+    void rejectsInvalidNodeId() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(1024, 0));
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(-1, 0));
+    }
+
+    /**
+     * 多线程并发生成时，每个线程取得的ID严格递增，所有线程的ID合起来不重复
+     */
+    @Test
+    void concurrentIdsAreMonotonicPerThread() throws InterruptedException {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(3, 0);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        AtomicInteger outOfOrder = new AtomicInteger();
+        runConcurrently(() -> {
+            long previous = Long.MIN_VALUE;
+            for (int i = 0; i < IDS_PER_THREAD; i++) {
+                long id = generator.nextId();
+                if (id <= previous) {
+                    outOfOrder.incrementAndGet();
+                }
+                ids.add(id);
+                previous = id;
+            }
+        });
+        assertEquals(0, outOfOrder.get(), "同一线程内ID未递增");
+        assertEquals(THREADS * IDS_PER_THREAD, ids.size());
+    }
+
+    private static void runConcurrently(Runnable perThread) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                perThread.run();
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,22 @@
+package org.example.hotelmanagementsystem.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StripedLockTest {
+
+    @Test
+    void locksForManyKeysAreOrderedAndDistinct() {
+        StripedLock stripedLock = new StripedLock(4);
+        List<Lock> locks = stripedLock.getAll(Arrays.asList(1, 5, 9, 2, 1));
+        assertEquals(2, locks.size());
+        assertTrue(locks.contains(stripedLock.get(1)));
+        assertTrue(locks.contains(stripedLock.get(2)));
+    }
+}